@@ -2,9 +2,29 @@ package com.typedb.force.graph;
 
 import com.typedb.force.graph.api.Simulation;
 import com.typedb.force.graph.impl.BasicSimulation;
+import com.typedb.force.graph.impl.PackedSimulation;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 public class ForceGraph {
     public static Simulation newSimulation() {
         return new BasicSimulation();
     }
+
+    public static Simulation newSimulation(ForkJoinPool pool) {
+        return new BasicSimulation(pool);
+    }
+
+    public static Simulation newSimulation(ExecutorService executor, int parallelism) {
+        return new BasicSimulation(executor, parallelism);
+    }
+
+    public static PackedSimulation newPackedSimulation() {
+        return new PackedSimulation();
+    }
+
+    public static PackedSimulation newPackedSimulation(ExecutorService executor, int parallelism) {
+        return new PackedSimulation(executor, parallelism);
+    }
 }
@@ -1,10 +1,8 @@
 package com.typedb.force.graph.api;
 
-import com.typedb.force.graph.impl.BasicSimulation;
-
 import java.util.Collection;
 
-public interface Simulation {
+public interface Simulation extends AutoCloseable {
     Collection<Vertex> getVertices();
 
     Forces getForces();
@@ -17,28 +15,92 @@ public interface Simulation {
 
     void tick();
 
+    /**
+     * Runs the given number of ticks back to back.
+     */
+    default void tick(int ticks) {
+        for (int t = 0; t < ticks; t++) tick();
+    }
+
+    /**
+     * Returns the kinetic energy after the last tick: half the sum of the squared vertex velocities, with every vertex
+     * having unit mass. Returns NaN if the simulation does not track it, in which case a run never stops on it.
+     */
+    default double getKineticEnergy() {
+        return Double.NaN;
+    }
+
+    /**
+     * Returns the furthest distance moved by any vertex in the last tick. Returns NaN if the simulation does not track
+     * it, in which case a run never stops on it.
+     */
+    default double getMaxDisplacement() {
+        return Double.NaN;
+    }
+
+    /**
+     * Ticks until alpha has decayed to alphaMin.
+     */
+    default StopCondition.Reason run() {
+        return run(new StopCondition());
+    }
+
+    /**
+     * Ticks until alpha has decayed to alphaMin, or no vertex moved further than the given distance in the last tick.
+     */
+    default StopCondition.Reason runUntilStable(double maxDisplacement) {
+        return run(new StopCondition().setMaxDisplacement(maxDisplacement));
+    }
+
+    /**
+     * Ticks until one of the given stop conditions is met, and returns the one that was.
+     */
+    default StopCondition.Reason run(StopCondition condition) {
+        long start = System.nanoTime();
+        long timeLimit = condition.getTimeLimit() == null ? Long.MAX_VALUE : condition.getTimeLimit().toNanos();
+        for (long ticks = 0; ; ticks++) {
+            if (getAlpha() <= getAlphaMin()) return StopCondition.Reason.ALPHA;
+            if (ticks >= condition.getTickLimit()) return StopCondition.Reason.TICK_LIMIT;
+            if (System.nanoTime() - start >= timeLimit) return StopCondition.Reason.TIME_LIMIT;
+            tick();
+            double kineticEnergy = getKineticEnergy(), maxDisplacement = getMaxDisplacement();
+            if (!Double.isNaN(kineticEnergy) && kineticEnergy <= condition.getKineticEnergy()) {
+                return StopCondition.Reason.KINETIC_ENERGY;
+            }
+            if (!Double.isNaN(maxDisplacement) && maxDisplacement <= condition.getMaxDisplacement()) {
+                return StopCondition.Reason.DISPLACEMENT;
+            }
+        }
+    }
+
     double getAlpha();
 
-    BasicSimulation setAlpha(double value);
+    Simulation setAlpha(double value);
 
     double getAlphaMin();
 
-    BasicSimulation setAlphaMin(double value);
+    Simulation setAlphaMin(double value);
 
     double getAlphaDecay();
 
-    BasicSimulation setAlphaDecay(double value);
+    Simulation setAlphaDecay(double value);
 
     double getAlphaTarget();
 
-    BasicSimulation setAlphaTarget(double value);
+    Simulation setAlphaTarget(double value);
 
     double getVelocityDecay();
 
-    BasicSimulation setVelocityDecay(double value);
+    Simulation setVelocityDecay(double value);
 
     void clear();
 
+    /**
+     * Releases any threads the simulation has started. Does nothing by default, for a simulation that starts none.
+     */
+    @Override
+    default void close() {}
+
     interface Forces {
         <FORCE extends Force> FORCE add(FORCE force);
 
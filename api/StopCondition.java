@@ -0,0 +1,72 @@
+package com.typedb.force.graph.api;
+
+import java.time.Duration;
+
+/**
+ * The conditions under which {@link Simulation#run(StopCondition)} stops ticking. A run always stops once alpha has
+ * decayed to alphaMin; it also stops as soon as any of the other conditions set here is met.
+ */
+public class StopCondition {
+    private double kineticEnergy;
+    private double maxDisplacement;
+    private long tickLimit;
+    private Duration timeLimit;
+
+    public StopCondition() {
+        kineticEnergy = -1;
+        maxDisplacement = -1;
+        tickLimit = Long.MAX_VALUE;
+        timeLimit = null;
+    }
+
+    public double getKineticEnergy() {
+        return kineticEnergy;
+    }
+
+    /**
+     * Stops once the kinetic energy of a tick is at most the given value. A negative value disables this condition, as
+     * does a simulation that does not track kinetic energy.
+     */
+    public StopCondition setKineticEnergy(double value) {
+        kineticEnergy = value;
+        return this;
+    }
+
+    public double getMaxDisplacement() {
+        return maxDisplacement;
+    }
+
+    /**
+     * Stops once no vertex moves further than the given distance in a tick. A negative value disables this condition,
+     * as does a simulation that does not track displacement.
+     */
+    public StopCondition setMaxDisplacement(double value) {
+        maxDisplacement = value;
+        return this;
+    }
+
+    public long getTickLimit() {
+        return tickLimit;
+    }
+
+    public StopCondition setTickLimit(long value) {
+        tickLimit = value;
+        return this;
+    }
+
+    public Duration getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * Stops before starting a tick once the given wall-clock time has elapsed. The last tick may overrun the limit.
+     */
+    public StopCondition setTimeLimit(Duration value) {
+        timeLimit = value;
+        return this;
+    }
+
+    public enum Reason {
+        ALPHA, KINETIC_ENERGY, DISPLACEMENT, TICK_LIMIT, TIME_LIMIT
+    }
+}
@@ -3,18 +3,24 @@ package com.typedb.force.graph.benchmark;
 import com.typedb.force.graph.ForceGraph;
 import com.typedb.force.graph.api.Edge;
 import com.typedb.force.graph.api.Simulation;
+import com.typedb.force.graph.api.StopCondition;
 import com.typedb.force.graph.api.Vertex;
 import com.typedb.force.graph.force.CollideForce;
 import com.typedb.force.graph.force.LinkForce;
 import com.typedb.force.graph.force.ManyBodyForce;
 import com.typedb.force.graph.impl.BasicEdge;
+import com.typedb.force.graph.impl.BasicSimulation;
 import com.typedb.force.graph.impl.BasicVertex;
+import com.typedb.force.graph.impl.TickMetrics;
+import com.sun.management.ThreadMXBean;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 public class BasicSimulationBenchmark {
     @Test
@@ -34,13 +40,179 @@ public class BasicSimulationBenchmark {
         final Instant simulationStart = Instant.now();
         while (simulation.getAlpha() > simulation.getAlphaMin()) {
             final Instant tickStart = Instant.now();
+            final long allocatedBefore = allocatedBytes();
             simulation.tick();
-            System.out.printf("star_graph iteration %d: alpha = %.3f, alphaMin = %.3f, vertices[1729].x = %.3f, execution time = %dms%n", iteration, simulation.getAlpha(), simulation.getAlphaMin(), vertices.get(1729).getX(), Duration.between(tickStart, Instant.now()).toMillis());
+            final long allocated = allocatedBytes() - allocatedBefore;
+            System.out.printf("star_graph iteration %d: alpha = %.3f, alphaMin = %.3f, vertices[1729].x = %.3f, execution time = %dms, allocated = %dKB%n", iteration, simulation.getAlpha(), simulation.getAlphaMin(), vertices.get(1729).getX(), Duration.between(tickStart, Instant.now()).toMillis(), allocated / 1024);
             iteration++;
         }
         System.out.printf("%nstar_graph total runtime: %dms%n", Duration.between(simulationStart, Instant.now()).toMillis());
     }
 
+    @Test
+    public void star_graph_spatially_reordered() {
+        final List<Vertex> vertices = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) vertices.add(new BasicVertex(0.0, 0.0));
+        for (int i = 1; i < 10000; i++) edges.add(new BasicEdge(vertices.get(0), vertices.get(i)));
+        final BasicSimulation simulation = new BasicSimulation();
+        simulation.setAlphaMin(0.01);
+        simulation.setSpatialReorderInterval(10);
+        simulation.placeVertices(vertices);
+        simulation.getForces().add(new CollideForce(vertices, 80.0));
+        simulation.getForces().add(new ManyBodyForce(vertices, -500.0));
+        simulation.getForces().add(new LinkForce(vertices, edges, 100, 1));
+        int iteration = 0;
+        System.out.println("-- STAR GRAPH (SPATIALLY REORDERED) ---\n");
+        final Instant simulationStart = Instant.now();
+        while (simulation.getAlpha() > simulation.getAlphaMin()) {
+            final Instant tickStart = Instant.now();
+            simulation.tick();
+            System.out.printf("star_graph_spatially_reordered iteration %d: alpha = %.3f, alphaMin = %.3f, vertices[1729].x = %.3f, execution time = %dms%n", iteration, simulation.getAlpha(), simulation.getAlphaMin(), vertices.get(1729).getX(), Duration.between(tickStart, Instant.now()).toMillis());
+            iteration++;
+        }
+        System.out.printf("%nstar_graph_spatially_reordered total runtime: %dms%n", Duration.between(simulationStart, Instant.now()).toMillis());
+    }
+
+    @Test
+    public void star_graph_batched() {
+        final List<Vertex> vertices = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) vertices.add(new BasicVertex(0.0, 0.0));
+        for (int i = 1; i < 10000; i++) edges.add(new BasicEdge(vertices.get(0), vertices.get(i)));
+        final Simulation simulation = ForceGraph.newSimulation();
+        simulation.setAlphaMin(0.01);
+        simulation.placeVertices(vertices);
+        simulation.getForces().add(new CollideForce(vertices, 80.0));
+        simulation.getForces().add(new ManyBodyForce(vertices, -500.0));
+        simulation.getForces().add(new LinkForce(vertices, edges, 100, 1));
+        final int batchSize = 50;
+        int iteration = 0;
+        System.out.println("-- STAR GRAPH (BATCHED) ---\n");
+        final Instant simulationStart = Instant.now();
+        while (simulation.getAlpha() > simulation.getAlphaMin()) {
+            final Instant batchStart = Instant.now();
+            simulation.tick(batchSize);
+            iteration += batchSize;
+            System.out.printf("star_graph_batched iteration %d: alpha = %.3f, alphaMin = %.3f, vertices[1729].x = %.3f, execution time = %dms%n", iteration, simulation.getAlpha(), simulation.getAlphaMin(), vertices.get(1729).getX(), Duration.between(batchStart, Instant.now()).toMillis());
+        }
+        System.out.printf("%nstar_graph_batched total runtime: %dms%n", Duration.between(simulationStart, Instant.now()).toMillis());
+    }
+
+    @Test
+    public void star_graph_with_metrics() {
+        final List<Vertex> vertices = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) vertices.add(new BasicVertex(0.0, 0.0));
+        for (int i = 1; i < 10000; i++) edges.add(new BasicEdge(vertices.get(0), vertices.get(i)));
+        final BasicSimulation simulation = new BasicSimulation();
+        simulation.setAlphaMin(0.01);
+        simulation.placeVertices(vertices);
+        simulation.getForces().add(new CollideForce(vertices, 80.0));
+        simulation.getForces().add(new ManyBodyForce(vertices, -500.0));
+        simulation.getForces().add(new LinkForce(vertices, edges, 100, 1));
+        simulation.addMetricsListener(metrics -> {
+            System.out.printf("star_graph_with_metrics iteration %d: alpha = %.3f, execution time = %.1fms, quadtrees = %.1fms, inter-body = %.1fms, single-body = %.1fms, integration = %.1fms, imbalance = %.2f, allocated = %dKB%n", metrics.tick(), metrics.alpha(), metrics.tickNanos() / 1e6, metrics.quadtreeNanos() / 1e6, metrics.interBodyNanos() / 1e6, metrics.singleBodyNanos() / 1e6, metrics.integrationNanos() / 1e6, metrics.partitionImbalance(), metrics.allocatedBytes() / 1024);
+            for (TickMetrics.ForceMetrics force : metrics.forces()) {
+                System.out.printf("    %s: time = %.1fms, quadtree build = %.1fms, quadtree nodes = %d, quadtree depth = %d, node visits = %d%n", force.force().getClass().getSimpleName(), force.nanos() / 1e6, force.quadtreeNanos() / 1e6, force.quadtreeNodeCount(), force.quadtreeDepth(), force.nodeVisits());
+            }
+        });
+        System.out.println("-- STAR GRAPH (WITH METRICS) ---\n");
+        final Instant simulationStart = Instant.now();
+        while (simulation.getAlpha() > simulation.getAlphaMin()) simulation.tick();
+        System.out.printf("%nstar_graph_with_metrics total runtime: %dms%n", Duration.between(simulationStart, Instant.now()).toMillis());
+    }
+
+    @Test
+    public void star_graph_change_feed() {
+        final List<Vertex> vertices = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) vertices.add(new BasicVertex(0.0, 0.0));
+        for (int i = 1; i < 10000; i++) edges.add(new BasicEdge(vertices.get(0), vertices.get(i)));
+        final BasicSimulation simulation = new BasicSimulation();
+        simulation.setAlphaMin(0.01);
+        simulation.placeVertices(vertices);
+        simulation.getForces().add(new CollideForce(vertices, 80.0));
+        simulation.getForces().add(new ManyBodyForce(vertices, -500.0));
+        simulation.getForces().add(new LinkForce(vertices, edges, 100, 1));
+        final long[] totalChanges = new long[1];
+        simulation.setChangeListener(changes -> {
+            totalChanges[0] += changes.size();
+            System.out.printf("star_graph_change_feed iteration %d: alpha = %.3f, changed vertices = %d%n", changes.tick(), simulation.getAlpha(), changes.size());
+        }, 0.5);
+        System.out.println("-- STAR GRAPH (CHANGE FEED) ---\n");
+        final Instant simulationStart = Instant.now();
+        int iterations = 0;
+        for (; simulation.getAlpha() > simulation.getAlphaMin(); iterations++) simulation.tick();
+        System.out.printf("%nstar_graph_change_feed total runtime: %dms, changed vertices = %d of %d%n", Duration.between(simulationStart, Instant.now()).toMillis(), totalChanges[0], (long) iterations * vertices.size());
+    }
+
+    @Test
+    public void star_graph_until_stable() {
+        final List<Vertex> vertices = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) vertices.add(new BasicVertex(0.0, 0.0));
+        for (int i = 1; i < 10000; i++) edges.add(new BasicEdge(vertices.get(0), vertices.get(i)));
+        final Simulation simulation = ForceGraph.newSimulation();
+        simulation.setAlphaMin(0.01);
+        simulation.placeVertices(vertices);
+        simulation.getForces().add(new CollideForce(vertices, 80.0));
+        simulation.getForces().add(new ManyBodyForce(vertices, -500.0));
+        simulation.getForces().add(new LinkForce(vertices, edges, 100, 1));
+        System.out.println("-- STAR GRAPH UNTIL STABLE ---\n");
+        final Instant simulationStart = Instant.now();
+        final StopCondition.Reason reason = simulation.runUntilStable(1.0);
+        System.out.printf("star_graph_until_stable stopped by %s: alpha = %.3f, kinetic energy = %.3f, max displacement = %.3f, vertices[1729].x = %.3f%n", reason, simulation.getAlpha(), simulation.getKineticEnergy(), simulation.getMaxDisplacement(), vertices.get(1729).getX());
+        System.out.printf("%nstar_graph_until_stable total runtime: %dms%n", Duration.between(simulationStart, Instant.now()).toMillis());
+    }
+
+    @Test
+    public void skewed_cluster_graph() {
+        // Compares the maximum tick time of the default scheduler and of scheduling by cost, which needs several cores
+        // to make a difference
+        System.out.println("-- SKEWED CLUSTER GRAPH ---\n");
+        long maxTickTime = skewedClusterGraph(false);
+        long maxTickTimeByCost = skewedClusterGraph(true);
+        System.out.printf("%nskewed_cluster_graph max tick time: %dms, scheduling by cost: %dms%n", maxTickTime, maxTickTimeByCost);
+    }
+
+    private static long skewedClusterGraph(boolean isSchedulingByCost) {
+        // A few dense stars next to many sparse ones, so that the inter-body cost per vertex is very uneven
+        final List<Vertex> vertices = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>();
+        for (int cluster = 0; cluster < 64; cluster++) {
+            final Vertex hub = new BasicVertex(0.0, 0.0);
+            vertices.add(hub);
+            int leaves = cluster < 4 ? 2000 : 30;
+            for (int i = 0; i < leaves; i++) {
+                final Vertex leaf = new BasicVertex(0.0, 0.0);
+                vertices.add(leaf);
+                edges.add(new BasicEdge(hub, leaf));
+            }
+        }
+        final BasicSimulation simulation = new BasicSimulation();
+        simulation.setSchedulingByCost(isSchedulingByCost);
+        simulation.setAlphaMin(0.01);
+        simulation.placeVertices(vertices);
+        simulation.getForces().add(new CollideForce(vertices, 80.0));
+        simulation.getForces().add(new ManyBodyForce(vertices, -500.0));
+        simulation.getForces().add(new LinkForce(vertices, edges, 100, 1));
+        int iteration = 0;
+        long maxTickTime = 0;
+        final Instant simulationStart = Instant.now();
+        while (simulation.getAlpha() > simulation.getAlphaMin()) {
+            final Instant tickStart = Instant.now();
+            simulation.tick();
+            long tickTime = Duration.between(tickStart, Instant.now()).toMillis();
+            maxTickTime = Math.max(maxTickTime, tickTime);
+            System.out.printf("skewed_cluster_graph (scheduling by cost: %b) iteration %d: alpha = %.3f, alphaMin = %.3f, execution time = %dms%n", isSchedulingByCost, iteration, simulation.getAlpha(), simulation.getAlphaMin(), tickTime);
+            iteration++;
+        }
+        System.out.printf("%nskewed_cluster_graph (scheduling by cost: %b) total runtime: %dms, max tick time: %dms%n", isSchedulingByCost, Duration.between(simulationStart, Instant.now()).toMillis(), maxTickTime);
+        simulation.close();
+        return maxTickTime;
+    }
+
     @Test
     public void incremental_star_graph() {
         final List<Vertex> vertices = new ArrayList<>();
@@ -67,7 +239,7 @@ public class BasicSimulationBenchmark {
                 for (int i = 0; i < 1000; i++) {
                     final Vertex vertex = new BasicVertex(0.0, 0.0);
                     newVertices.add(vertex);
-                    edges.add(new BasicEdge(vertices.get(0), vertex));
+                    linkForce.addEdge(new BasicEdge(vertices.get(0), vertex));
                 }
                 vertices.addAll(newVertices);
                 simulation.placeVertices(newVertices);
@@ -75,4 +247,117 @@ public class BasicSimulationBenchmark {
         }
         System.out.printf("%nincremental_star_graph total runtime: %dms%n", Duration.between(simulationStart, Instant.now()).toMillis());
     }
+
+    @Test
+    public void settled_tree_additions() {
+        settledTreeAdditions("settled_tree_additions", false, false);
+    }
+
+    @Test
+    public void settled_tree_additions_placed_near_neighbours() {
+        settledTreeAdditions("settled_tree_additions_placed_near_neighbours", true, false);
+    }
+
+    @Test
+    public void settled_tree_additions_reheated_locally() {
+        settledTreeAdditions("settled_tree_additions_reheated_locally", true, true);
+    }
+
+    /**
+     * Settles a random tree, adds leaves to it, gently reheats it, either as a whole or only around the new leaves,
+     * and counts the ticks until it is stable again.
+     */
+    private static void settledTreeAdditions(String name, boolean isPlacingNearNeighbours, boolean isReheatedLocally) {
+        final Random random = new Random(0);
+        final List<Vertex> vertices = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) vertices.add(new BasicVertex(0.0, 0.0));
+        for (int i = 1; i < 5000; i++) edges.add(new BasicEdge(vertices.get(random.nextInt(i)), vertices.get(i)));
+        final BasicSimulation simulation = new BasicSimulation();
+        simulation.setPlacingNearNeighbours(isPlacingNearNeighbours);
+        simulation.placeVertices(vertices);
+        simulation.getForces().add(new ManyBodyForce(simulation.getVertices(), -30.0));
+        final LinkForce linkForce = new LinkForce(simulation.getVertices(), edges, 30, 1);
+        simulation.getForces().add(linkForce);
+        simulation.run();
+        System.out.println("-- " + name.toUpperCase().replace('_', ' ') + " ---\n");
+
+        final List<Edge> newEdges = new ArrayList<>();
+        final List<Vertex> newVertices = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final Vertex vertex = new BasicVertex(0.0, 0.0);
+            newVertices.add(vertex);
+            newEdges.add(new BasicEdge(vertices.get(random.nextInt(vertices.size())), vertex));
+        }
+        linkForce.addEdges(newEdges);
+        simulation.placeVertices(newVertices);
+        if (isReheatedLocally) simulation.reheat(newVertices, 2, 0, 0.02);
+        else simulation.setAlpha(0.02);
+        int iteration = 0;
+        final Instant start = Instant.now();
+        do {
+            simulation.tick();
+            iteration++;
+        } while (simulation.getMaxDisplacement() > 0.5 && simulation.getAlpha() > simulation.getAlphaMin());
+        double newEdgeLength = 0;
+        for (Edge edge : newEdges) newEdgeLength += Math.hypot(edge.target().getX() - edge.source().getX(), edge.target().getY() - edge.source().getY());
+        final long runtime = Duration.between(start, Instant.now()).toMillis();
+        System.out.printf("%s: ticks until stable = %d, active vertices = %d, mean new edge length = %.1f (link distance 30), total runtime = %dms, %.2fms per tick%n", name, iteration, simulation.getActiveVertices().size(), newEdgeLength / newEdges.size(), runtime, (double) runtime / iteration);
+        simulation.close();
+    }
+
+    @Test
+    public void random_tree_tail() {
+        randomTreeTail("random_tree_tail", false);
+    }
+
+    @Test
+    public void random_tree_tail_sleeping() {
+        randomTreeTail("random_tree_tail_sleeping", true);
+    }
+
+    /**
+     * Lays out a random tree from a cold start, and reports the time and sleeping vertices of the last ticks, in
+     * which most vertices have settled.
+     */
+    private static void randomTreeTail(String name, boolean isSleeping) {
+        final Random random = new Random(0);
+        final List<Vertex> vertices = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) vertices.add(new BasicVertex(0.0, 0.0));
+        for (int i = 1; i < 20000; i++) edges.add(new BasicEdge(vertices.get(random.nextInt(i)), vertices.get(i)));
+        final BasicSimulation simulation = new BasicSimulation();
+        simulation.placeVertices(vertices);
+        simulation.getForces().add(new ManyBodyForce(simulation.getVertices(), -30.0));
+        simulation.getForces().add(new LinkForce(simulation.getVertices(), edges, 30, 1));
+        if (isSleeping) simulation.setSleeping(0.5, 10, 30);
+        final long[] tailNanos = new long[1];
+        simulation.addMetricsListener(metrics -> {
+            if (metrics.tick() < 200) return;
+            tailNanos[0] += metrics.tickNanos();
+            if (metrics.tick() % 20 == 0) {
+                System.out.printf("%s iteration %d: alpha = %.4f, sleeping vertices = %d, execution time = %.1fms%n", name, metrics.tick(), metrics.alpha(), metrics.sleepingVertexCount(), metrics.tickNanos() / 1e6);
+            }
+        });
+        System.out.println("-- " + name.toUpperCase().replace('_', ' ') + " ---\n");
+
+        final Instant start = Instant.now();
+        while (simulation.getAlpha() > simulation.getAlphaMin()) simulation.tick();
+        double edgeLength = 0;
+        for (Edge edge : edges) edgeLength += Math.hypot(edge.target().getX() - edge.source().getX(), edge.target().getY() - edge.source().getY());
+        System.out.printf("%s: mean edge length = %.1f, tail runtime = %dms, total runtime = %dms%n", name, edgeLength / edges.size(), tailNanos[0] / 1000000, Duration.between(start, Instant.now()).toMillis());
+        simulation.close();
+    }
+
+    /**
+     * Returns the bytes allocated so far by all live threads, including the simulation's worker threads.
+     */
+    private static long allocatedBytes() {
+        final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
 }
@@ -0,0 +1,140 @@
+package com.typedb.force.graph.benchmark;
+
+import com.typedb.force.graph.api.Edge;
+import com.typedb.force.graph.api.Vertex;
+import com.typedb.force.graph.force.CenterForce;
+import com.typedb.force.graph.force.LinkForce;
+import com.typedb.force.graph.force.ManyBodyForce;
+import com.typedb.force.graph.impl.BasicEdge;
+import com.typedb.force.graph.impl.BasicSimulation;
+import com.typedb.force.graph.impl.BasicVertex;
+import com.typedb.force.graph.impl.Checkpoint;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CheckpointBenchmark {
+    private static final int VERTEX_COUNT = 200000;
+    private static final int WARM_TICKS = 3;
+    private static final int CONTINUED_TICKS = 3;
+
+    @Test
+    public void large_graph_checkpoint() throws IOException {
+        final Random random = new Random(0);
+        final List<Vertex> vertices = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            vertices.add(new BasicVertex(0.0, 0.0));
+            if (i > 0) edges.add(new BasicEdge(vertices.get(i), vertices.get(random.nextInt(i))));
+        }
+        final BasicSimulation simulation = new BasicSimulation(1);
+        simulation.placeVertices(vertices);
+        simulation.getForces().add(new ManyBodyForce(simulation.getVertices(), -30).setRandom(new Random(1)));
+        simulation.getForces().add(new LinkForce(simulation.getVertices(), edges, 30, 1).setRandom(new Random(2)));
+        simulation.getForces().add(new CenterForce(simulation.getVertices(), 0, 0));
+        for (int i = 0; i < WARM_TICKS; i++) simulation.tick();
+        System.out.println("-- LARGE GRAPH CHECKPOINT ---\n");
+
+        final Path path = Files.createTempFile("checkpoint", ".bin");
+        try {
+            Instant start = Instant.now();
+            Checkpoint.save(simulation, path);
+            System.out.printf("large_graph_checkpoint save: %.1fms, %d bytes%n", Duration.between(start, Instant.now()).toNanos() / 1e6, Files.size(path));
+            start = Instant.now();
+            final BasicSimulation restored = Checkpoint.restore(path, new BasicSimulation(1));
+            System.out.printf("large_graph_checkpoint restore: %.1fms%n", Duration.between(start, Instant.now()).toNanos() / 1e6);
+
+            for (int i = 0; i < CONTINUED_TICKS; i++) {
+                simulation.tick();
+                restored.tick();
+            }
+            final List<Vertex> restoredVertices = new ArrayList<>(restored.getVertices());
+            for (int i = 0; i < VERTEX_COUNT; i++) {
+                assertEquals(vertices.get(i).getX(), restoredVertices.get(i).getX(), 0.0);
+                assertEquals(vertices.get(i).getY(), restoredVertices.get(i).getY(), 0.0);
+            }
+            restored.close();
+        } finally {
+            Files.delete(path);
+        }
+        simulation.close();
+    }
+
+    @Test
+    public void save_replaces_atomically() throws IOException {
+        final Path directory = Files.createTempDirectory("checkpoints");
+        final Path path = directory.resolve("checkpoint.bin");
+        try {
+            final BasicSimulation simulation = smallSimulation();
+            Checkpoint.save(simulation, path);
+            simulation.tick();
+            Checkpoint.save(simulation, path);
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(List.of(path), files.collect(Collectors.toList()));
+            }
+            final BasicSimulation restored = Checkpoint.restore(path, new BasicSimulation(1));
+            assertEquals(simulation.getAlpha(), restored.getAlpha(), 0);
+        } finally {
+            Files.deleteIfExists(path);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void corrupt_checkpoint_throws_io_exception() throws IOException {
+        final Path path = Files.createTempFile("checkpoint", ".bin");
+        try {
+            Checkpoint.save(smallSimulation(), path);
+            final byte[] saved = Files.readAllBytes(path);
+            final Random random = new Random(0);
+            int rejected = 0;
+            for (int i = 0; i < 500; i++) {
+                final byte[] corrupted = saved.clone();
+                final ByteBuffer buffer = ByteBuffer.wrap(corrupted).order(ByteOrder.LITTLE_ENDIAN);
+                final int offset = 8 + 4 * random.nextInt((corrupted.length - 8) / 4);
+                buffer.putInt(offset, i % 2 == 0 ? -1 - random.nextInt(1000) : random.nextInt());
+                Files.write(path, corrupted);
+                try {
+                    Checkpoint.restore(path, new BasicSimulation(1));
+                } catch (IOException e) {
+                    rejected++;
+                }
+            }
+            assertTrue(rejected > 0);
+            System.out.printf("corrupt_checkpoint_throws_io_exception rejected = %d/500%n", rejected);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static BasicSimulation smallSimulation() {
+        final Random random = new Random(0);
+        final List<Vertex> vertices = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            vertices.add(new BasicVertex(0.0, 0.0));
+            if (i > 0) edges.add(new BasicEdge(vertices.get(i), vertices.get(random.nextInt(i))));
+        }
+        final BasicSimulation simulation = new BasicSimulation(1);
+        simulation.placeVertices(vertices);
+        simulation.getForces().add(new ManyBodyForce(simulation.getVertices(), -30).setRandom(new Random(1)));
+        simulation.getForces().add(new LinkForce(simulation.getVertices(), edges, 30, 1).setRandom(new Random(2)));
+        simulation.getForces().add(new CenterForce(simulation.getVertices(), 0, 0));
+        simulation.tick();
+        return simulation;
+    }
+}
@@ -0,0 +1,186 @@
+package com.typedb.force.graph.benchmark;
+
+import com.typedb.force.graph.ForceGraph;
+import com.typedb.force.graph.api.Edge;
+import com.typedb.force.graph.api.Simulation;
+import com.typedb.force.graph.api.Vertex;
+import com.typedb.force.graph.force.LinkForce;
+import com.typedb.force.graph.force.ManyBodyForce;
+import com.typedb.force.graph.impl.BasicEdge;
+import com.typedb.force.graph.impl.BasicVertex;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class LinkForceBenchmark {
+    private static final int VERTEX_COUNT = 20000;
+    private static final int EDGES_PER_VERTEX = 10;
+    private static final int TICKS = 100;
+
+    @Test
+    public void high_degree_graph_serial_links() {
+        run(false);
+    }
+
+    @Test
+    public void high_degree_graph_parallel_links() {
+        run(true);
+    }
+
+    @Test
+    public void edge_replaced_in_place() {
+        final List<Vertex> vertices = List.of(new BasicVertex(0.0, 0.0), new BasicVertex(100.0, 0.0), new BasicVertex(0.0, 100.0));
+        final List<Edge> edges = new ArrayList<>(List.of(new BasicEdge(vertices.get(0), vertices.get(1))));
+        final LinkForce linkForce = new LinkForce(vertices, edges, 30, 1);
+        linkForce.apply(1);
+        for (Vertex vertex : vertices) {
+            vertex.setVX(0);
+            vertex.setVY(0);
+        }
+
+        edges.set(0, new BasicEdge(vertices.get(1), vertices.get(2)));
+        linkForce.refreshVertexOrders(); // the collection was modified directly without changing its size
+        assertEquals(List.of(vertices.get(1)), linkForce.neighbours(vertices.get(2)));
+        assertEquals(List.of(), linkForce.neighbours(vertices.get(0)));
+        linkForce.apply(1);
+        assertEquals(0, vertices.get(0).getVX(), 0);
+        assertEquals(0, vertices.get(0).getVY(), 0);
+        assertNotEquals(0, vertices.get(2).getVY(), 0);
+        assertEquals(List.of(vertices.get(2)), linkForce.neighbours(vertices.get(1)));
+    }
+
+    @Test
+    public void incremental_edits_match_rebuild() {
+        final Random random = new Random(0);
+        final List<Vertex> editedVertices = new ArrayList<>(), rebuiltVertices = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final double x = random.nextDouble() * 1000, y = random.nextDouble() * 1000;
+            editedVertices.add(new BasicVertex(x, y));
+            rebuiltVertices.add(new BasicVertex(x, y));
+        }
+        final List<Edge> edges = new ArrayList<>(randomEdges(editedVertices).subList(0, 300));
+        final LinkForce edited = new LinkForce(editedVertices, edges, 30, 1);
+        for (int i = 0; i < 2000; i++) {
+            if (random.nextBoolean() && !edges.isEmpty()) {
+                edited.removeEdge(edges.get(random.nextInt(edges.size())));
+            } else {
+                // Favour a few vertices, so that some lose all their edges and are linked again later
+                final int source = random.nextInt(random.nextBoolean() ? 10 : 200), target = random.nextInt(200);
+                edited.addEdge(new BasicEdge(editedVertices.get(source), editedVertices.get(target)));
+            }
+            if (i % 100 == 0) edited.apply(0);
+        }
+        final List<Edge> rebuiltEdges = new ArrayList<>();
+        for (Edge edge : edges) rebuiltEdges.add(new BasicEdge(rebuiltVertices.get(editedVertices.indexOf(edge.source())), rebuiltVertices.get(editedVertices.indexOf(edge.target()))));
+        final LinkForce rebuilt = new LinkForce(rebuiltVertices, rebuiltEdges, 30, 1);
+        assertEquals(rebuilt.edgeCount(), edited.edgeCount());
+        // The edges are applied in different orders, so a small alpha keeps the results nearly independent of order
+        edited.apply(1e-6);
+        rebuilt.apply(1e-6);
+        for (int i = 0; i < editedVertices.size(); i++) {
+            assertEquals(rebuilt.neighbours(rebuiltVertices.get(i)).size(), edited.neighbours(editedVertices.get(i)).size());
+            assertEquals(rebuiltVertices.get(i).getVX(), editedVertices.get(i).getVX(), 1e-9);
+            assertEquals(rebuiltVertices.get(i).getVY(), editedVertices.get(i).getVY(), 1e-9);
+        }
+    }
+
+    @Test
+    public void parallel_links_match_serial_with_coincident_vertices() throws InterruptedException {
+        final List<Vertex> serialVertices = coincidentVertices(), parallelVertices = coincidentVertices();
+        final LinkForce serial = new LinkForce(serialVertices, randomEdges(serialVertices), 30, 1).setParallel(true).setRandom(new Random(1));
+        final LinkForce parallel = new LinkForce(parallelVertices, randomEdges(parallelVertices), 30, 1).setParallel(true).setRandom(new Random(1));
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int tick = 0; tick < 3; tick++) {
+            serial.apply(1);
+            parallel.apply(1, executor, 4);
+        }
+        executor.shutdown();
+        for (int i = 0; i < serialVertices.size(); i++) {
+            assertEquals(serialVertices.get(i).getVX(), parallelVertices.get(i).getVX(), 0);
+            assertEquals(serialVertices.get(i).getVY(), parallelVertices.get(i).getVY(), 0);
+        }
+    }
+
+    @Test
+    public void parallel_links_match_serial_after_edits() throws InterruptedException {
+        final List<Vertex> serialVertices = coincidentVertices(), parallelVertices = coincidentVertices();
+        final List<Edge> serialEdges = randomEdges(serialVertices), parallelEdges = randomEdges(parallelVertices);
+        final LinkForce serial = new LinkForce(serialVertices, serialEdges, 30, 1).setParallel(true).setRandom(new Random(1));
+        final LinkForce parallel = new LinkForce(parallelVertices, parallelEdges, 30, 1).setParallel(true).setRandom(new Random(1));
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final Random random = new Random(2);
+        for (int tick = 0; tick < 5; tick++) {
+            serial.apply(1);
+            parallel.apply(1, executor, 4);
+            for (int i = 0; i < 500; i++) {
+                if (random.nextBoolean()) {
+                    final int e = random.nextInt(serialEdges.size());
+                    serial.removeEdge(serialEdges.get(e));
+                    parallel.removeEdge(parallelEdges.get(e));
+                } else {
+                    final int source = random.nextInt(serialVertices.size()), target = random.nextInt(serialVertices.size());
+                    serial.addEdge(new BasicEdge(serialVertices.get(source), serialVertices.get(target)));
+                    parallel.addEdge(new BasicEdge(parallelVertices.get(source), parallelVertices.get(target)));
+                }
+            }
+        }
+        executor.shutdown();
+        for (int i = 0; i < serialVertices.size(); i++) {
+            assertEquals(serialVertices.get(i).getVX(), parallelVertices.get(i).getVX(), 0);
+            assertEquals(serialVertices.get(i).getVY(), parallelVertices.get(i).getVY(), 0);
+        }
+    }
+
+    /**
+     * Returns vertices on a coarse grid, so that many of them coincide and their links need jiggling.
+     */
+    private static List<Vertex> coincidentVertices() {
+        final Random random = new Random(0);
+        final List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) vertices.add(new BasicVertex(random.nextInt(4), random.nextInt(4)));
+        return vertices;
+    }
+
+    private static List<Edge> randomEdges(List<Vertex> vertices) {
+        final Random random = new Random(0);
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 4 * vertices.size(); i++) {
+            int source = random.nextInt(vertices.size()), target = random.nextInt(vertices.size());
+            if (source != target) edges.add(new BasicEdge(vertices.get(source), vertices.get(target)));
+        }
+        return edges;
+    }
+
+    private void run(boolean isParallel) {
+        final String name = isParallel ? "high_degree_graph_parallel_links" : "high_degree_graph_serial_links";
+        final Random random = new Random(0);
+        final List<Vertex> vertices = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < VERTEX_COUNT; i++) vertices.add(new BasicVertex(0.0, 0.0));
+        for (int i = 0; i < VERTEX_COUNT * EDGES_PER_VERTEX; i++) {
+            int source = random.nextInt(VERTEX_COUNT), target = random.nextInt(VERTEX_COUNT);
+            if (source != target) edges.add(new BasicEdge(vertices.get(source), vertices.get(target)));
+        }
+        final Simulation simulation = ForceGraph.newSimulation();
+        simulation.placeVertices(vertices);
+        simulation.getForces().add(new ManyBodyForce(vertices, -30.0));
+        simulation.getForces().add(new LinkForce(vertices, edges, 30, 1).setParallel(isParallel));
+        System.out.printf("-- HIGH DEGREE GRAPH (%s links) ---%n%n", isParallel ? "parallel" : "serial");
+        final Instant simulationStart = Instant.now();
+        for (int iteration = 0; iteration < TICKS; iteration++) {
+            final Instant tickStart = Instant.now();
+            simulation.tick();
+            System.out.printf("%s iteration %d: alpha = %.3f, vertices[1729].x = %.3f, execution time = %dms%n", name, iteration, simulation.getAlpha(), vertices.get(1729).getX(), Duration.between(tickStart, Instant.now()).toMillis());
+        }
+        System.out.printf("%n%s total runtime: %dms%n", name, Duration.between(simulationStart, Instant.now()).toMillis());
+    }
+}
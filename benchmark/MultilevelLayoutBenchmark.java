@@ -0,0 +1,121 @@
+package com.typedb.force.graph.benchmark;
+
+import com.typedb.force.graph.api.Edge;
+import com.typedb.force.graph.api.Vertex;
+import com.typedb.force.graph.force.LinkForce;
+import com.typedb.force.graph.force.ManyBodyForce;
+import com.typedb.force.graph.impl.BasicEdge;
+import com.typedb.force.graph.impl.BasicSimulation;
+import com.typedb.force.graph.impl.BasicVertex;
+import com.typedb.force.graph.impl.MultilevelLayout;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class MultilevelLayoutBenchmark {
+    private static final int VERTEX_COUNT = 100000;
+    private static final int EDGES_PER_VERTEX = 2;
+    private static final int FLAT_TICKS = 300;
+    private static final int STRESS_SOURCES = 20;
+
+    @Test
+    public void random_graph_flat() {
+        final List<Vertex> vertices = new ArrayList<>();
+        final int[][] links = randomGraph(vertices);
+        final BasicSimulation simulation = new BasicSimulation();
+        simulation.placeVertices(vertices);
+        simulation.getForces().add(new ManyBodyForce(simulation.getVertices(), -30));
+        simulation.getForces().add(new LinkForce(simulation.getVertices(), edges(vertices, links), 30, 1));
+        System.out.println("-- RANDOM GRAPH (FLAT) ---\n");
+        final Instant start = Instant.now();
+        simulation.tick(FLAT_TICKS);
+        System.out.printf("random_graph_flat: ticks = %d, total runtime = %dms, stress = %.3f%n", FLAT_TICKS, Duration.between(start, Instant.now()).toMillis(), stress(vertices, links));
+        simulation.close();
+    }
+
+    @Test
+    public void random_graph_multilevel() {
+        final List<Vertex> vertices = new ArrayList<>();
+        final int[][] links = randomGraph(vertices);
+        final MultilevelLayout layout = new MultilevelLayout(vertices, edges(vertices, links)).setRandom(new Random(1));
+        System.out.println("-- RANDOM GRAPH (MULTILEVEL) ---\n");
+        final Instant start = Instant.now();
+        layout.run();
+        System.out.printf("random_graph_multilevel: levels = %d, ticks = %d, total runtime = %dms, stress = %.3f%n", layout.getLevelCount(), layout.getTickCount(), Duration.between(start, Instant.now()).toMillis(), stress(vertices, links));
+    }
+
+    private static int[][] randomGraph(List<Vertex> vertices) {
+        final Random random = new Random(0);
+        for (int i = 0; i < VERTEX_COUNT; i++) vertices.add(new BasicVertex(0.0, 0.0));
+        final int[][] links = new int[VERTEX_COUNT * EDGES_PER_VERTEX][];
+        for (int e = 0; e < links.length; e++) {
+            final int source = random.nextInt(VERTEX_COUNT);
+            links[e] = new int[] {source, (source + 1 + random.nextInt(VERTEX_COUNT - 1)) % VERTEX_COUNT};
+        }
+        return links;
+    }
+
+    private static List<Edge> edges(List<Vertex> vertices, int[][] links) {
+        final List<Edge> edges = new ArrayList<>();
+        for (int[] link : links) edges.add(new BasicEdge(vertices.get(link[0]), vertices.get(link[1])));
+        return edges;
+    }
+
+    /**
+     * Returns the normalised stress of the layout against graph distances from a sample of source vertices, with the
+     * layout optimally scaled. Folded layouts, in which distant vertices end up close together, score higher.
+     */
+    private static double stress(List<Vertex> vertices, int[][] links) {
+        final int[] offsets = new int[VERTEX_COUNT + 1];
+        for (int[] link : links) {
+            offsets[link[0] + 1]++;
+            offsets[link[1] + 1]++;
+        }
+        for (int v = 0; v < VERTEX_COUNT; v++) offsets[v + 1] += offsets[v];
+        final int[] neighbours = new int[offsets[VERTEX_COUNT]];
+        final int[] next = Arrays.copyOf(offsets, VERTEX_COUNT);
+        for (int[] link : links) {
+            neighbours[next[link[0]]++] = link[1];
+            neighbours[next[link[1]]++] = link[0];
+        }
+
+        final Random random = new Random(0);
+        final int[] distances = new int[VERTEX_COUNT];
+        final int[] queue = new int[VERTEX_COUNT];
+        final double[] ratios = new double[STRESS_SOURCES * VERTEX_COUNT];
+        int ratioCount = 0;
+        double sum = 0, sumOfSquares = 0;
+        for (int s = 0; s < STRESS_SOURCES; s++) {
+            final int source = random.nextInt(VERTEX_COUNT);
+            Arrays.fill(distances, -1);
+            distances[source] = 0;
+            queue[0] = source;
+            for (int head = 0, tail = 1; head < tail; head++) {
+                final int u = queue[head];
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    if (distances[neighbours[i]] < 0) {
+                        distances[neighbours[i]] = distances[u] + 1;
+                        queue[tail++] = neighbours[i];
+                    }
+                }
+            }
+            for (int v = 0; v < VERTEX_COUNT; v++) {
+                if (distances[v] <= 0) continue;
+                final double layoutDistance = Math.hypot(vertices.get(v).getX() - vertices.get(source).getX(), vertices.get(v).getY() - vertices.get(source).getY());
+                final double ratio = layoutDistance / distances[v];
+                ratios[ratioCount++] = ratio;
+                sum += ratio;
+                sumOfSquares += ratio * ratio;
+            }
+        }
+        final double scale = sum / sumOfSquares;
+        double stress = 0;
+        for (int i = 0; i < ratioCount; i++) stress += (scale * ratios[i] - 1) * (scale * ratios[i] - 1);
+        return stress / ratioCount;
+    }
+}
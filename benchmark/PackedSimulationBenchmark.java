@@ -0,0 +1,82 @@
+package com.typedb.force.graph.benchmark;
+
+import com.typedb.force.graph.ForceGraph;
+import com.typedb.force.graph.api.Vertex;
+import com.typedb.force.graph.force.packed.PackedCollideForce;
+import com.typedb.force.graph.force.packed.PackedLinkForce;
+import com.typedb.force.graph.force.packed.PackedManyBodyForce;
+import com.typedb.force.graph.impl.PackedSimulation;
+import com.typedb.force.graph.impl.PackedVertex;
+import com.sun.management.ThreadMXBean;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+public class PackedSimulationBenchmark {
+    @Test
+    public void star_graph() {
+        final PackedSimulation simulation = ForceGraph.newPackedSimulation();
+        simulation.setAlphaMin(0.01);
+        for (int i = 0; i < 10000; i++) simulation.placeVertex(0.0, 0.0);
+        simulation.getForces().add(new PackedCollideForce(simulation.storage(), 80.0));
+        simulation.getForces().add(new PackedManyBodyForce(simulation.storage(), -500.0));
+        final PackedLinkForce linkForce = simulation.getForces().add(new PackedLinkForce(simulation.storage(), 100, 1));
+        for (int i = 1; i < 10000; i++) linkForce.addLink(0, i);
+        final List<Vertex> vertices = simulation.getVertices();
+        int iteration = 0;
+        System.out.println("-- PACKED STAR GRAPH ---\n");
+        final Instant simulationStart = Instant.now();
+        while (simulation.getAlpha() > simulation.getAlphaMin()) {
+            final Instant tickStart = Instant.now();
+            final long allocatedBefore = allocatedBytes();
+            simulation.tick();
+            final long allocated = allocatedBytes() - allocatedBefore;
+            System.out.printf("packed star_graph iteration %d: alpha = %.3f, alphaMin = %.3f, vertices[1729].x = %.3f, execution time = %dms, allocated = %dKB%n", iteration, simulation.getAlpha(), simulation.getAlphaMin(), vertices.get(1729).getX(), Duration.between(tickStart, Instant.now()).toMillis(), allocated / 1024);
+            iteration++;
+        }
+        System.out.printf("%npacked star_graph total runtime: %dms%n", Duration.between(simulationStart, Instant.now()).toMillis());
+    }
+
+    @Test
+    public void incremental_star_graph() {
+        final PackedSimulation simulation = ForceGraph.newPackedSimulation();
+        simulation.setAlphaMin(0.01);
+        for (int i = 0; i < 2000; i++) simulation.placeVertex(0.0, 0.0);
+        simulation.getForces().add(new PackedCollideForce(simulation.storage(), 80.0));
+        simulation.getForces().add(new PackedManyBodyForce(simulation.storage(), -500.0));
+        final PackedLinkForce linkForce = simulation.getForces().add(new PackedLinkForce(simulation.storage(), 100, 1));
+        for (int i = 1; i < 2000; i++) linkForce.addLink(0, i);
+        final List<Vertex> vertices = simulation.getVertices();
+        int iteration = 0;
+        System.out.println("-- PACKED INCREMENTAL STAR GRAPH ---\n");
+        final Instant simulationStart = Instant.now();
+        while (simulation.getAlpha() > simulation.getAlphaMin()) {
+            final Instant tickStart = Instant.now();
+            simulation.tick();
+            System.out.printf("packed incremental_star_graph iteration %d: total vertices = %d, alpha = %.3f, alphaMin = %.3f, vertices[1729].x = %.3f, execution time = %dms%n", iteration, vertices.size(), simulation.getAlpha(), simulation.getAlphaMin(), vertices.get(1729).getX(), Duration.between(tickStart, Instant.now()).toMillis());
+            iteration++;
+            if (iteration < 9) {
+                for (int i = 0; i < 1000; i++) {
+                    final PackedVertex vertex = simulation.placeVertex(0.0, 0.0);
+                    linkForce.addLink(0, vertex.id());
+                }
+            }
+        }
+        System.out.printf("%npacked incremental_star_graph total runtime: %dms%n", Duration.between(simulationStart, Instant.now()).toMillis());
+    }
+
+    /**
+     * Returns the bytes allocated so far by all live threads, including the simulation's worker threads.
+     */
+    private static long allocatedBytes() {
+        final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
+}
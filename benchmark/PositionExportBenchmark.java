@@ -0,0 +1,109 @@
+package com.typedb.force.graph.benchmark;
+
+import com.typedb.force.graph.api.Vertex;
+import com.typedb.force.graph.impl.BasicSimulation;
+import com.typedb.force.graph.impl.BasicVertex;
+import com.typedb.force.graph.impl.MappedPositionFile;
+import com.typedb.force.graph.impl.PositionFormat;
+import com.typedb.force.graph.impl.PositionFrame;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PositionExportBenchmark {
+    private static final int VERTEX_COUNT = 500000;
+    private static final int EXPORTS = 20;
+
+    @Test
+    public void large_graph_export() throws IOException {
+        final List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < VERTEX_COUNT; i++) vertices.add(new BasicVertex(0.0, 0.0));
+        final BasicSimulation simulation = new BasicSimulation(1);
+        simulation.placeVertices(vertices);
+        simulation.setPublishingSnapshots(true);
+        simulation.tick();
+        final PositionFrame frame = simulation.snapshots().latestFrame();
+        System.out.println("-- LARGE GRAPH EXPORT ---\n");
+
+        Instant start = Instant.now();
+        for (int i = 0; i < EXPORTS; i++) {
+            final StringBuilder json = new StringBuilder("[");
+            for (Vertex vertex : vertices) json.append("{\"x\":").append(vertex.getX()).append(",\"y\":").append(vertex.getY()).append("},");
+            json.setCharAt(json.length() - 1, ']');
+        }
+        System.out.printf("large_graph_export json: %.1fms per export%n", Duration.between(start, Instant.now()).toNanos() / 1e6 / EXPORTS);
+
+        for (PositionFormat.Precision precision : PositionFormat.Precision.values()) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(PositionFormat.frameSize(VERTEX_COUNT, precision));
+            start = Instant.now();
+            for (int i = 0; i < EXPORTS; i++) PositionFormat.write(buffer, frame, precision);
+            System.out.printf("large_graph_export direct buffer (%s): %.1fms per export%n", precision, Duration.between(start, Instant.now()).toNanos() / 1e6 / EXPORTS);
+        }
+
+        final Path path = Files.createTempFile("positions", ".bin");
+        try (MappedPositionFile file = new MappedPositionFile(path, PositionFormat.Precision.FLOAT32)) {
+            start = Instant.now();
+            for (int i = 0; i < EXPORTS; i++) file.write(frame);
+            System.out.printf("large_graph_export mapped file (FLOAT32): %.1fms per export%n", Duration.between(start, Instant.now()).toNanos() / 1e6 / EXPORTS);
+        } finally {
+            Files.delete(path);
+        }
+        simulation.close();
+    }
+
+    @Test
+    public void read_only_reader() throws IOException {
+        final Path path = Files.createTempFile("positions", ".bin");
+        try {
+            try (MappedPositionFile reader = MappedPositionFile.openReadOnly(path)) {
+                assertTrue(reader.isReadOnly());
+                assertEquals(0, Files.size(path));
+            }
+            try (MappedPositionFile writer = new MappedPositionFile(path, PositionFormat.Precision.FLOAT64);
+                 MappedPositionFile reader = MappedPositionFile.openReadOnly(path)) {
+                writer.write(new double[] { 1, 2, 3 }, new double[] { 4, 5, 6 }, 3, 7);
+                final long size = Files.size(path);
+                final PositionFrame frame = reader.read(new PositionFrame());
+                assertEquals(3, frame.size());
+                assertEquals(7, frame.tick());
+                assertEquals(3, frame.x(2), 0);
+                assertEquals(6, frame.y(2), 0);
+                assertEquals(size, Files.size(path));
+                try {
+                    reader.write(new double[] { 1 }, new double[] { 1 }, 1, 8);
+                    fail();
+                } catch (IllegalStateException e) {
+                    // expected
+                }
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void read_gives_up_on_unfinished_write() {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(PositionFormat.frameSize(3, PositionFormat.Precision.FLOAT32));
+        PositionFormat.write(buffer, new double[] { 1, 2, 3 }, new double[] { 4, 5, 6 }, 3, PositionFormat.Precision.FLOAT32, 0);
+        buffer.order(ByteOrder.LITTLE_ENDIAN).putLong(16, 1); // as left by a writer that died mid-frame
+        final Instant start = Instant.now();
+        try {
+            PositionFormat.read(buffer, new PositionFrame(), Duration.ofMillis(50));
+            fail();
+        } catch (IllegalStateException e) {
+            System.out.printf("read_gives_up_on_unfinished_write after %dms: %s%n", Duration.between(start, Instant.now()).toMillis(), e.getMessage());
+        }
+    }
+}
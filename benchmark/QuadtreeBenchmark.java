@@ -0,0 +1,171 @@
+package com.typedb.force.graph.benchmark;
+
+import com.typedb.force.graph.quadtree.AggregateQuadtree;
+import com.typedb.force.graph.quadtree.ArrayQuadtree;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class QuadtreeBenchmark {
+    private static final int POINT_COUNT = 500000;
+    private static final int WARMUP_BUILDS = 5;
+    private static final int MEASURED_BUILDS = 20;
+
+    @Test
+    public void parallel_build() {
+        final Random random = new Random(0);
+        final double[] x = new double[POINT_COUNT];
+        final double[] y = new double[POINT_COUNT];
+        for (int i = 0; i < POINT_COUNT; i++) {
+            x[i] = random.nextGaussian() * 1000;
+            y[i] = random.nextGaussian() * 1000;
+        }
+        final ArrayQuadtree tree = new ArrayQuadtree();
+        System.out.println("-- PARALLEL QUADTREE BUILD ---\n");
+        for (int threadCount = 1; threadCount <= 2 * Runtime.getRuntime().availableProcessors(); threadCount *= 2) {
+            final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+            for (int i = 0; i < WARMUP_BUILDS; i++) tree.build(POINT_COUNT, p -> x[p], p -> y[p], executor, threadCount);
+            final long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_BUILDS; i++) tree.build(POINT_COUNT, p -> x[p], p -> y[p], executor, threadCount);
+            final double millis = (System.nanoTime() - start) / 1e6 / MEASURED_BUILDS;
+            System.out.printf("parallel_build points = %d, threads = %d, nodes = %d, build time = %.2fms%n", POINT_COUNT, threadCount, tree.nodeCount(), millis);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void refit() {
+        final Random random = new Random(0);
+        final double[] x = new double[POINT_COUNT];
+        final double[] y = new double[POINT_COUNT];
+        for (int i = 0; i < POINT_COUNT; i++) {
+            x[i] = random.nextGaussian() * 1000;
+            y[i] = random.nextGaussian() * 1000;
+        }
+        final ArrayQuadtree tree = new ArrayQuadtree();
+        final ArrayQuadtree rebuiltTree = new ArrayQuadtree();
+        System.out.println("-- QUADTREE REFIT ---\n");
+        for (double step : new double[] { 0.01, 0.1, 1.0, 10.0 }) {
+            long buildNanos = 0, refitNanos = 0;
+            int refits = 0;
+            tree.build(POINT_COUNT, p -> x[p], p -> y[p]);
+            for (int i = 0; i < WARMUP_BUILDS + MEASURED_BUILDS; i++) {
+                for (int p = 0; p < POINT_COUNT; p++) {
+                    x[p] += (random.nextDouble() - 0.5) * step;
+                    y[p] += (random.nextDouble() - 0.5) * step;
+                }
+                final long refitStart = System.nanoTime();
+                final boolean isRefit = tree.refit(POINT_COUNT, p -> x[p], p -> y[p], 0.25);
+                if (!isRefit) tree.build(POINT_COUNT, p -> x[p], p -> y[p]);
+                final long buildStart = System.nanoTime();
+                rebuiltTree.build(POINT_COUNT, p -> x[p], p -> y[p]);
+                final long buildEnd = System.nanoTime();
+                if (i < WARMUP_BUILDS) continue;
+                if (isRefit) refits++;
+                refitNanos += buildStart - refitStart;
+                buildNanos += buildEnd - buildStart;
+            }
+            System.out.printf("refit points = %d, step = %.2f, refits = %d/%d, refit time = %.2fms, build time = %.2fms%n", POINT_COUNT, step, refits, MEASURED_BUILDS, refitNanos / 1e6 / MEASURED_BUILDS, buildNanos / 1e6 / MEASURED_BUILDS);
+        }
+    }
+
+    @Test
+    public void refit_matches_build() {
+        final Random random = new Random(0);
+        for (int count : new int[] { 1, 3, 2000 }) {
+            final double[] x = new double[count];
+            final double[] y = new double[count];
+            for (int i = 0; i < count; i++) {
+                x[i] = random.nextGaussian() * 100;
+                y[i] = random.nextGaussian() * 100;
+            }
+            final AggregateQuadtree tree = new AggregateQuadtree();
+            final AggregateQuadtree rebuiltTree = new AggregateQuadtree();
+            tree.build(count, p -> x[p], p -> y[p]);
+            for (int round = 0; round < 50; round++) {
+                for (int p = 0; p < count; p++) {
+                    x[p] += random.nextGaussian() * (round % 10 == 0 ? 50 : 1);
+                    y[p] += random.nextGaussian() * (round % 10 == 0 ? 50 : 1);
+                }
+                if (count > 1) {
+                    // Stack a few points onto others so that leaves hold coincident points
+                    for (int i = 0; i < count / 100 + 1; i++) {
+                        final int p = random.nextInt(count), q = random.nextInt(count);
+                        x[p] = x[q];
+                        y[p] = y[q];
+                    }
+                }
+                if (round % 5 == 0) {
+                    // Throw a point far outside the tree so that refitting has to grow its root
+                    final int p = random.nextInt(count);
+                    x[p] = tree.x1() + (tree.x1() - tree.x0()) * (1 + random.nextDouble());
+                    y[p] = tree.y0() - (tree.y1() - tree.y0()) * (1 + random.nextDouble());
+                }
+                assertTrue(tree.refit(count, p -> x[p], p -> y[p], 1.0));
+                rebuiltTree.build(count, p -> x[p], p -> y[p]);
+                assertTreeHolds(tree, x, y);
+                assertTreeHolds(rebuiltTree, x, y);
+                tree.accumulateCharge(1);
+                rebuiltTree.accumulateCharge(1);
+                assertEquals(rebuiltTree.charge(0), tree.charge(0), 0);
+                assertEquals(rebuiltTree.chargeX(0), tree.chargeX(0), 1e-9 * (1 + Math.abs(tree.chargeX(0))));
+                assertEquals(rebuiltTree.chargeY(0), tree.chargeY(0), 1e-9 * (1 + Math.abs(tree.chargeY(0))));
+            }
+            System.out.printf("refit_matches_build points = %d, live nodes = %d, dead nodes = %d, rebuilt nodes = %d%n", count, tree.liveNodeCount(), tree.deadNodeCount(), rebuiltTree.nodeCount());
+        }
+    }
+
+    /**
+     * Checks that every point lies in exactly one reachable leaf whose cell contains it, that coincident points share
+     * their position, that the live node count matches the reachable nodes, and that each node's charge and centre of
+     * charge match the points below it.
+     */
+    private static void assertTreeHolds(AggregateQuadtree tree, double[] x, double[] y) {
+        final BitSet seen = new BitSet();
+        final int visits = tree.visit((node, x0, y0, x1, y1) -> {
+            if (!tree.isLeaf(node)) return false;
+            for (int p = tree.point(node); p >= 0; p = tree.nextPoint(p)) {
+                assertFalse(seen.get(p));
+                seen.set(p);
+                assertEquals(x[p], tree.pointX(p), 0);
+                assertEquals(y[p], tree.pointY(p), 0);
+                assertEquals(tree.pointX(tree.point(node)), x[p], 0);
+                assertEquals(tree.pointY(tree.point(node)), y[p], 0);
+                assertTrue(x0 <= x[p] && x[p] <= x1 && y0 <= y[p] && y[p] <= y1);
+            }
+            return false;
+        });
+        assertEquals(x.length, seen.cardinality());
+        assertEquals(tree.liveNodeCount(), visits);
+        tree.accumulateCharge(1);
+        assertSubtreeCharge(tree, 0);
+    }
+
+    private static double[] assertSubtreeCharge(AggregateQuadtree tree, int node) {
+        final double[] sums = new double[3];
+        if (tree.isLeaf(node)) {
+            for (int p = tree.point(node); p >= 0; p = tree.nextPoint(p)) {
+                sums[0]++;
+                sums[1] += tree.pointX(p);
+                sums[2] += tree.pointY(p);
+            }
+        } else {
+            for (int i = 0; i < 4; i++) {
+                if (tree.child(node, i) < 0) continue;
+                final double[] childSums = assertSubtreeCharge(tree, tree.child(node, i));
+                for (int s = 0; s < 3; s++) sums[s] += childSums[s];
+            }
+        }
+        assertEquals(sums[0], tree.charge(node), 0);
+        assertEquals(sums[1] / sums[0], tree.chargeX(node), 1e-9 * (1 + Math.abs(tree.chargeX(node))));
+        assertEquals(sums[2] / sums[0], tree.chargeY(node), 1e-9 * (1 + Math.abs(tree.chargeY(node))));
+        return sums;
+    }
+}
@@ -0,0 +1,81 @@
+package com.typedb.force.graph.benchmark;
+
+import com.typedb.force.graph.api.Edge;
+import com.typedb.force.graph.api.Simulation;
+import com.typedb.force.graph.api.Vertex;
+import com.typedb.force.graph.force.CollideForce;
+import com.typedb.force.graph.force.LinkForce;
+import com.typedb.force.graph.force.ManyBodyForce;
+import com.typedb.force.graph.impl.BasicEdge;
+import com.typedb.force.graph.impl.BasicSimulation;
+import com.typedb.force.graph.impl.BasicVertex;
+import com.typedb.force.graph.scheduler.SimulationScheduler;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimulationSchedulerBenchmark {
+    private static final int SMALL_GRAPH_COUNT = 500;
+    private static final int SMALL_GRAPH_SIZE = 50;
+    private static final int LARGE_GRAPH_SIZE = 10000;
+
+    @Test
+    public void many_small_graphs_and_one_large() throws InterruptedException {
+        for (SimulationScheduler.Policy policy : SimulationScheduler.Policy.values()) {
+            System.out.printf("-- MANY SMALL GRAPHS AND ONE LARGE (%s) ---%n%n", policy);
+            try (SimulationScheduler scheduler = new SimulationScheduler(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), policy)) {
+                final Instant start = Instant.now();
+                final SimulationScheduler.Task large = scheduler.submit(starGraph(LARGE_GRAPH_SIZE));
+                final List<SimulationScheduler.Task> small = new ArrayList<>();
+                for (int i = 0; i < SMALL_GRAPH_COUNT; i++) small.add(scheduler.submit(starGraph(SMALL_GRAPH_SIZE), 60));
+                for (SimulationScheduler.Task task : small) task.await(10, TimeUnit.MINUTES);
+                final Duration smallGraphsDone = Duration.between(start, Instant.now());
+                large.await(10, TimeUnit.MINUTES);
+                long smallTickNanos = 0, smallQueueNanos = 0, smallMaxQueueNanos = 0;
+                for (SimulationScheduler.Task task : small) {
+                    smallTickNanos += task.getMeanTickTime().toNanos();
+                    smallQueueNanos += task.getMeanQueueDelay().toNanos();
+                    smallMaxQueueNanos = Math.max(smallMaxQueueNanos, task.getMeanQueueDelay().toNanos());
+                }
+                System.out.printf("small graphs: count = %d, settled after = %dms, mean tick time = %.3fms, mean queue delay = %.3fms, worst mean queue delay = %.3fms%n",
+                        SMALL_GRAPH_COUNT, smallGraphsDone.toMillis(), smallTickNanos / 1e6 / SMALL_GRAPH_COUNT, smallQueueNanos / 1e6 / SMALL_GRAPH_COUNT, smallMaxQueueNanos / 1e6);
+                System.out.printf("large graph: ticks = %d, mean tick time = %.3fms, mean queue delay = %.3fms%n",
+                        large.getTickCount(), large.getMeanTickTime().toNanos() / 1e6, large.getMeanQueueDelay().toNanos() / 1e6);
+                System.out.printf("total: ticks = %d, throughput = %.1f ticks/s, runtime = %dms%n%n",
+                        scheduler.getTickCount(), scheduler.getThroughput(), Duration.between(start, Instant.now()).toMillis());
+            }
+        }
+    }
+
+    @Test
+    public void close_cancels_running_tick() throws InterruptedException {
+        final SimulationScheduler scheduler = new SimulationScheduler(1);
+        final SimulationScheduler.Task task = scheduler.submit(starGraph(LARGE_GRAPH_SIZE));
+        while (task.getState() != SimulationScheduler.State.RUNNING) Thread.onSpinWait();
+        scheduler.close();
+        assertEquals(SimulationScheduler.State.CANCELLED, task.getState());
+        assertTrue(task.await(0, TimeUnit.SECONDS));
+        System.out.printf("close_cancels_running_tick ticks = %d, state = %s%n", task.getTickCount(), task.getState());
+    }
+
+    private static Simulation starGraph(int size) {
+        final List<Vertex> vertices = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < size; i++) vertices.add(new BasicVertex(0.0, 0.0));
+        for (int i = 1; i < size; i++) edges.add(new BasicEdge(vertices.get(0), vertices.get(i)));
+        final Simulation simulation = new BasicSimulation(1);
+        simulation.setAlphaMin(0.01);
+        simulation.placeVertices(vertices);
+        simulation.getForces().add(new CollideForce(vertices, 80.0));
+        simulation.getForces().add(new ManyBodyForce(vertices, -500.0));
+        simulation.getForces().add(new LinkForce(vertices, edges, 100, 1));
+        return simulation;
+    }
+}
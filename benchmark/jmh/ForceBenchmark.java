@@ -0,0 +1,74 @@
+package com.typedb.force.graph.benchmark.jmh;
+
+import com.typedb.force.graph.api.Simulation;
+import com.typedb.force.graph.impl.BasicSimulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time per tick of a {@link BasicSimulation} for every combination of graph shape, size and force mix.
+ * The full matrix takes hours to run; narrow it down with JMH's -p option, for example -p size=10000 -p forces=ALL.
+ * <p>
+ * Alpha is reset before every iteration, so that each one measures ticks at the same stage of a layout rather than
+ * ticks that drift towards equilibrium.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ForceBenchmark {
+    private static final long SEED = 42;
+    private static final double ALPHA = 0.5;
+
+    @Param({"STAR", "GRID", "RANDOM", "SCALE_FREE", "CLUSTERED"})
+    public GraphShape shape;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"MANY_BODY", "COLLIDE", "LINK", "CENTER", "POSITION", "ALL"})
+    public ForceMix forces;
+
+    @Param({"1"})
+    public int parallelism;
+
+    private Simulation simulation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GraphShape.Graph graph = shape.generate(size, SEED);
+        simulation = new BasicSimulation(parallelism);
+        simulation.placeVertices(graph.vertices());
+        forces.addTo(simulation, graph);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetAlpha() {
+        simulation.setAlpha(ALPHA);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulation.close();
+    }
+
+    @Benchmark
+    public void tick() {
+        simulation.tick();
+    }
+}
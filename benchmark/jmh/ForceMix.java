@@ -0,0 +1,33 @@
+package com.typedb.force.graph.benchmark.jmh;
+
+import com.typedb.force.graph.api.Simulation;
+import com.typedb.force.graph.force.CenterForce;
+import com.typedb.force.graph.force.CollideForce;
+import com.typedb.force.graph.force.LinkForce;
+import com.typedb.force.graph.force.ManyBodyForce;
+import com.typedb.force.graph.force.XForce;
+import com.typedb.force.graph.force.YForce;
+
+/**
+ * The sets of forces that the benchmarks apply: each force on its own, and all of them together with the parameters
+ * of a typical layout.
+ */
+public enum ForceMix {
+    MANY_BODY,
+    COLLIDE,
+    LINK,
+    CENTER,
+    POSITION,
+    ALL;
+
+    public void addTo(Simulation simulation, GraphShape.Graph graph) {
+        if (this == MANY_BODY || this == ALL) simulation.getForces().add(new ManyBodyForce(graph.vertices(), -30.0));
+        if (this == COLLIDE || this == ALL) simulation.getForces().add(new CollideForce(graph.vertices(), 10.0));
+        if (this == LINK || this == ALL) simulation.getForces().add(new LinkForce(graph.vertices(), graph.edges(), 30, 1));
+        if (this == CENTER || this == ALL) simulation.getForces().add(new CenterForce(graph.vertices(), 0, 0));
+        if (this == POSITION || this == ALL) {
+            simulation.getForces().add(new XForce(graph.vertices(), 0, 0.1));
+            simulation.getForces().add(new YForce(graph.vertices(), 0, 0.1));
+        }
+    }
+}
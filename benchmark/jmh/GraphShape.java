@@ -0,0 +1,119 @@
+package com.typedb.force.graph.benchmark.jmh;
+
+import com.typedb.force.graph.api.Edge;
+import com.typedb.force.graph.api.Vertex;
+import com.typedb.force.graph.impl.BasicEdge;
+import com.typedb.force.graph.impl.BasicVertex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generators for the graph topologies that the benchmarks run on. Every generator is deterministic for a given seed.
+ */
+public enum GraphShape {
+    /** One hub linked to every other vertex. */
+    STAR {
+        @Override
+        void link(Graph graph, Random random) {
+            for (int i = 1; i < graph.size(); i++) graph.link(0, i);
+        }
+    },
+    /** A square lattice, each vertex linked to its right and lower neighbours. */
+    GRID {
+        @Override
+        void link(Graph graph, Random random) {
+            int side = (int) Math.ceil(Math.sqrt(graph.size()));
+            for (int i = 0; i < graph.size(); i++) {
+                if ((i + 1) % side != 0 && i + 1 < graph.size()) graph.link(i, i + 1);
+                if (i + side < graph.size()) graph.link(i, i + side);
+            }
+        }
+    },
+    /** An Erdos-Renyi graph with a mean degree of 2 * {@link #RANDOM_EDGES_PER_VERTEX}. */
+    RANDOM {
+        @Override
+        void link(Graph graph, Random random) {
+            for (int e = 0; e < graph.size() * RANDOM_EDGES_PER_VERTEX; e++) {
+                int source = random.nextInt(graph.size()), target = random.nextInt(graph.size());
+                if (source != target) graph.link(source, target);
+            }
+        }
+    },
+    /** A Barabasi-Albert graph, in which each new vertex attaches preferentially to well-connected vertices. */
+    SCALE_FREE {
+        @Override
+        void link(Graph graph, Random random) {
+            // Every edge adds both endpoints here, so a uniform pick is proportional to degree
+            int[] endpoints = new int[2 * SCALE_FREE_EDGES_PER_VERTEX * graph.size()];
+            int endpointCount = 0;
+            for (int i = 1; i < graph.size(); i++) {
+                for (int m = 0; m < Math.min(i, SCALE_FREE_EDGES_PER_VERTEX); m++) {
+                    int target = endpointCount == 0 ? 0 : endpoints[random.nextInt(endpointCount)];
+                    graph.link(i, target);
+                    endpoints[endpointCount++] = i;
+                    endpoints[endpointCount++] = target;
+                }
+            }
+        }
+    },
+    /** Dense clusters of {@link #CLUSTER_SIZE} vertices, sparsely linked to each other. */
+    CLUSTERED {
+        @Override
+        void link(Graph graph, Random random) {
+            int clusterCount = (graph.size() + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+            for (int i = 0; i < graph.size(); i++) {
+                int clusterStart = i / CLUSTER_SIZE * CLUSTER_SIZE;
+                int clusterSize = Math.min(CLUSTER_SIZE, graph.size() - clusterStart);
+                for (int e = 0; e < CLUSTER_EDGES_PER_VERTEX && clusterSize > 1; e++) {
+                    int target = clusterStart + random.nextInt(clusterSize);
+                    if (target != i) graph.link(i, target);
+                }
+            }
+            for (int c = 1; c < clusterCount; c++) {
+                graph.link(c * CLUSTER_SIZE, random.nextInt(c) * CLUSTER_SIZE);
+            }
+        }
+    };
+
+    private static final int RANDOM_EDGES_PER_VERTEX = 2;
+    private static final int SCALE_FREE_EDGES_PER_VERTEX = 2;
+    private static final int CLUSTER_SIZE = 100;
+    private static final int CLUSTER_EDGES_PER_VERTEX = 4;
+
+    abstract void link(Graph graph, Random random);
+
+    public Graph generate(int size, long seed) {
+        Graph graph = new Graph(size);
+        link(graph, new Random(seed));
+        return graph;
+    }
+
+    public static class Graph {
+        private final List<Vertex> vertices;
+        private final List<Edge> edges;
+
+        private Graph(int size) {
+            vertices = new ArrayList<>(size);
+            edges = new ArrayList<>();
+            for (int i = 0; i < size; i++) vertices.add(new BasicVertex(0.0, 0.0));
+        }
+
+        private void link(int source, int target) {
+            edges.add(new BasicEdge(vertices.get(source), vertices.get(target)));
+        }
+
+        public int size() {
+            return vertices.size();
+        }
+
+        public List<Vertex> vertices() {
+            return vertices;
+        }
+
+        public List<Edge> edges() {
+            return edges;
+        }
+    }
+}
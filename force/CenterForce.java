@@ -20,6 +20,18 @@ public class CenterForce extends BaseForce {
         this.strength = strength;
     }
 
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getStrength() {
+        return strength;
+    }
+
     @Override
     public void apply(Collection<Vertex> vertexPartition, double alpha) {
         double sx = 0, sy = 0;
@@ -2,25 +2,36 @@ package com.typedb.force.graph.force;
 
 import com.typedb.force.graph.api.Force;
 import com.typedb.force.graph.api.Vertex;
-import com.typedb.force.graph.quadtree.Quadtree;
+import com.typedb.force.graph.quadtree.AggregateQuadtree;
+import com.typedb.force.graph.quadtree.ArrayQuadtree;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.function.Function;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntToDoubleFunction;
 
 import static com.typedb.force.graph.util.RandomEffects.jiggle;
+import static java.util.Objects.requireNonNull;
 
 public class CollideForce implements Force {
     // TODO: just make Force.vertices() be a List<Vertex> so we can extend BaseForce
     private final List<Vertex> vertexList;
     private final double radius;
-    private Map<Quadtree<Vertex>.Node, Double> quadRadii;
-    private Quadtree<Vertex> tree;
-    private final Function<Vertex, Double> x;
-    private final Function<Vertex, Double> y;
+    private final AggregateQuadtree tree;
+    private Vertex[] points;
+    private int pointCount;
+    private Vertex[] indexedPoints;
+    private int indexedPointCount;
+    private final Map<Vertex, Integer> vertexIndices;
+    private final IntToDoubleFunction x;
+    private final IntToDoubleFunction y;
+    private double refitThreshold;
+    private final LongAdder nodeVisits;
     double strength;
     Random random;
 
@@ -32,15 +43,96 @@ public class CollideForce implements Force {
         this.vertexList = vertexList;
         this.radius = radius;
         this.strength = strength;
-        x = node -> node.getX() + node.getVX();
-        y = node -> node.getY() + node.getVY();
+        x = i -> points[i].getX() + points[i].getVX();
+        y = i -> points[i].getY() + points[i].getVY();
+        tree = new AggregateQuadtree();
+        points = indexedPoints = new Vertex[0];
+        vertexIndices = new IdentityHashMap<>();
+        refitThreshold = 0;
+        nodeVisits = new LongAdder();
         random = new Random();
     }
 
+    public double getRadius() {
+        return radius;
+    }
+
+    public double getStrength() {
+        return strength;
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Sets the source of the random jiggle that separates coincident vertices. A seeded source makes layouts
+     * reproducible.
+     */
+    public CollideForce setRandom(Random value) {
+        random = requireNonNull(value);
+        return this;
+    }
+
+    public double getRefitThreshold() {
+        return refitThreshold;
+    }
+
+    /**
+     * Sets the fraction of vertices that may leave their quadtree cell between ticks for the tree to be refit in
+     * place rather than rebuilt. Refitting pays off late in a layout, when vertices barely move. A value of 0, the
+     * default, always rebuilds the tree.
+     */
+    public CollideForce setRefitThreshold(double value) {
+        refitThreshold = value;
+        return this;
+    }
+
+    /**
+     * Returns the quadtree built by the last call to {@link #buildQuadtree()}, for inspection only.
+     */
+    public ArrayQuadtree quadtree() {
+        return tree;
+    }
+
+    /**
+     * Returns the total number of quadtree nodes visited by all applications of this force so far.
+     */
+    public long nodeVisits() {
+        return nodeVisits.sum();
+    }
+
     public void buildQuadtree() {
-        tree = new Quadtree<>(vertexList, x, y);
-        quadRadii = new HashMap<>();
-        tree.visitAfter(this::prepare);
+        pointCount = vertexList.size();
+        points = vertexList.toArray(points);
+        if (!refitQuadtree()) tree.build(pointCount, x, y);
+        tree.accumulateRadius(radius);
+        refreshVertexIndices();
+    }
+
+    public void buildQuadtree(ExecutorService executor, int parallelism) {
+        pointCount = vertexList.size();
+        points = vertexList.toArray(points);
+        if (!refitQuadtree()) tree.build(pointCount, x, y, executor, parallelism);
+        tree.accumulateRadius(radius);
+        refreshVertexIndices();
+    }
+
+    private boolean refitQuadtree() {
+        return refitThreshold > 0 && tree.refit(pointCount, x, y, refitThreshold);
+    }
+
+    /**
+     * Collision pairs are ordered by the index of each vertex in the tree, so that each pair is resolved once.
+     * The index of every vertex is only recomputed when the vertex list has changed since the last tree build.
+     */
+    private void refreshVertexIndices() {
+        if (indexedPointCount == pointCount && Arrays.equals(indexedPoints, 0, pointCount, points, 0, pointCount)) return;
+        vertexIndices.clear();
+        for (int i = 0; i < pointCount; i++) vertexIndices.put(points[i], i);
+        if (indexedPoints.length < pointCount) indexedPoints = new Vertex[points.length];
+        System.arraycopy(points, 0, indexedPoints, 0, pointCount);
+        indexedPointCount = pointCount;
     }
 
     @Override
@@ -56,63 +148,77 @@ public class CollideForce implements Force {
 
     @Override
     public void apply(Collection<Vertex> vertexPartition, double alpha) {
-        Map<Vertex, Integer> vertexIndices = new HashMap<>();
-        for (int i = 0; i < vertexList.size(); i++) {
-            vertexIndices.put(vertexList.get(i), i);
-        }
+        apply(vertexPartition, false);
+    }
+
+    /**
+     * Pushes each of the given vertices out of every vertex it overlaps, without moving the vertices it overlaps. The
+     * quadtree must have been built. A pair of overlapping targets is then resolved from both sides, each target taking
+     * its own share of the push, so that only the targets need to be integrated.
+     */
+    public void applyToTargets(Collection<Vertex> targets, double alpha) {
+        apply(targets, true);
+    }
 
+    private void apply(Collection<Vertex> vertexPartition, boolean isOneSided) {
+        CollisionVisitor visitor = new CollisionVisitor();
+        visitor.isOneSided = isOneSided;
+        long visits = 0;
         for (Vertex vertex : vertexPartition) {
+            Integer index = vertexIndices.get(vertex);
+            if (index == null) continue; // not subject to this force
+            visitor.vertex = vertex;
+            visitor.index = index;
+            visitor.xi = vertex.getX() + vertex.getVX();
+            visitor.yi = vertex.getY() + vertex.getVY();
+            visits += tree.visit(visitor);
+        }
+        nodeVisits.add(visits);
+    }
+
+    private class CollisionVisitor implements ArrayQuadtree.Visitor {
+        private boolean isOneSided;
+        private Vertex vertex;
+        private int index;
+        private double xi;
+        private double yi;
+
+        @Override
+        public boolean visit(int node, double x0, double y0, double x1, double y1) {
             double ri = radius; double ri2 = ri * ri;
-            double xi = vertex.getX() + vertex.getVX();
-            double yi = vertex.getY() + vertex.getVY();
-            tree.visit(quad -> {
-                Vertex data = quad.node.data;
-                double rj = quadRadii.get(quad.node);
-                double r = ri + rj;
-                if (data != null) {
-                    if (vertexIndices.get(data).compareTo(vertexIndices.get(vertex)) > 0) {
-                        double x = xi - data.getX() - data.getVX();
-                        double y = yi - data.getY() - data.getVY();
-                        double len = x*x + y*y;
-                        if (len < r*r) {
-                            if (x == 0) {
-                                x = jiggle(random::nextDouble);
-                                len += x*x;
-                            }
-                            if (y == 0) {
-                                y = jiggle(random::nextDouble);
-                                len += y*y;
-                            }
-                            len = Math.sqrt(len);
-                            len = (r - len) / len * strength;
-                            x *= len; y *= len; rj *= rj;
-                            r = rj / (ri2 + rj);
-                            vertex.setVX(vertex.getVX() + x * r);
-                            vertex.setVY(vertex.getVY() + y * r);
-                            r = 1 - r;
-                            data.setVX(data.getVX() - x * r);
-                            data.setVY(data.getVY() - y * r);
+            double rj = tree.radius(node);
+            double r = ri + rj;
+            if (tree.isLeaf(node)) {
+                int p = tree.point(node);
+                if (p > index || (isOneSided && p != index)) {
+                    Vertex data = points[p];
+                    double x = xi - data.getX() - data.getVX();
+                    double y = yi - data.getY() - data.getVY();
+                    double len = x*x + y*y;
+                    if (len < r*r) {
+                        if (x == 0) {
+                            x = jiggle(random::nextDouble);
+                            len += x*x;
+                        }
+                        if (y == 0) {
+                            y = jiggle(random::nextDouble);
+                            len += y*y;
                         }
+                        len = Math.sqrt(len);
+                        len = (r - len) / len * strength;
+                        x *= len; y *= len; rj *= rj;
+                        r = rj / (ri2 + rj);
+                        vertex.setVX(vertex.getVX() + x * r);
+                        vertex.setVY(vertex.getVY() + y * r);
+                        if (isOneSided) return false;
+                        r = 1 - r;
+                        data.setVX(data.getVX() - x * r);
+                        data.setVY(data.getVY() - y * r);
                     }
-                    return false;
                 }
-                return quad.x0 > xi + r || quad.x1 < xi - r || quad.y0 > yi + r || quad.y1 < yi - r;
-            });
-        }
-    }
-
-    private void prepare(Quadtree<Vertex>.Quad quad) {
-        if (quad.node.data != null) {
-            quadRadii.put(quad.node, radius);
-            return;
-        }
-        double quadRadius = quadRadii.getOrDefault(quad.node, 0.0);
-        for (int i = 0; i < 4; i++) {
-            Quadtree<Vertex>.Node qi = quad.node.children.get(i);
-            if (qi == null) continue;
-            Double qiRadius = quadRadii.get(qi);
-            if (qiRadius == null) continue;
-            if (qiRadius > quadRadius) quadRadii.put(quad.node, qiRadius);
+                return false;
+            }
+            return x0 > xi + r || x1 < xi - r || y0 > yi + r || y1 < yi - r;
         }
     }
 }
@@ -2,22 +2,70 @@ package com.typedb.force.graph.force;
 
 import com.typedb.force.graph.api.Edge;
 import com.typedb.force.graph.api.Vertex;
+import com.typedb.force.graph.util.RandomEffects;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
-import static com.typedb.force.graph.util.RandomEffects.jiggle;
+import static java.util.Objects.requireNonNull;
 
+/**
+ * Pulls linked vertices towards a target distance. Edges are kept in an indexed form: each edge is a pair of int
+ * vertex ids with its bias and strength in primitive arrays. Use {@link #addEdge(Edge)} and {@link #removeEdge(Edge)}
+ * to change the edge set, so that only the degrees and coefficients of the touched vertices are recomputed, in time
+ * proportional to their degrees. The edge collection passed to the constructor may also be modified directly between
+ * ticks, after which {@link #refreshVertexOrders()} must be called to rebuild the index. Only a change in the size of
+ * the collection is noticed without it; an edge replaced in place is not. A vertex's id is freed once it has no edges
+ * left, so a long-lived force whose edges keep changing holds only the vertices that are still linked.
+ * <p>
+ * In parallel mode (see {@link #setParallel(boolean)}) edges are grouped into colour classes in which no two edges
+ * share a vertex, so each class can be split across threads without conflicting velocity updates. Edges are then
+ * always applied in colour order, serially or not, so a pass split across threads produces the same results as a
+ * serial pass in parallel mode, though not as a pass outside it.
+ */
 public class LinkForce extends BaseForce {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MIN_PARALLEL_COLOUR_SIZE = 256; // smaller colour classes are not worth splitting
 
     final Collection<Edge> edges;
     final double baseStrength;
     double distance;
-    Map<Vertex, Integer> vertexOrders;
-    Map<Edge, Double> bias;
-    Map<Edge, Double> strengths;
+    private final Map<Vertex, Integer> vertexIds;
+    private Vertex[] vertexById;
+    private int[] degrees;
+    private int idCount; // ids from 0 to this count have been handed out; freed ones are listed in freeIds
+    private int[] freeIds;
+    private int freeIdCount;
+    private final Map<Edge, Integer> edgeIndices;
+    private Edge[] edgeByIndex;
+    private int[] sources;
+    private int[] targets;
+    private double[] bias;
+    private double[] strengths;
+    private int edgeCount;
+    private final BitSet dirtyVertices;
+    private final BitSet movedIds;
+    private final BitSet changedIds; // vertices whose edges have been added or removed since they were last taken
+    private final List<Vertex> freedChanged; // changed vertices whose ids have since been freed
+    private boolean isTrackingChanges; // whether changed vertices have ever been taken
+    private boolean isParallel;
+    private boolean isColouringDirty;
+    private int[][] colourEdges; // the edges of each colour class; the last class is applied serially and may share vertices
+    private int[] colourSizes;
+    private int colourCount;
+    private int[] edgeColour;
+    private int[] edgeSlot; // the position of each edge in its colour class
+    private final BitSet usedColours;
+    private int[][] incidentEdges; // per vertex id, its first degree entries; null until neighbours are first asked for
+    private long passSeed; // drawn from random once per pass in parallel mode
     Random random;
 
     public LinkForce(Collection<Vertex> vertices, Collection<Edge> edges, double distance, double strength) {
@@ -25,25 +73,310 @@ public class LinkForce extends BaseForce {
         this.edges = edges;
         this.baseStrength = strength;
         this.distance = distance;
+        vertexIds = new HashMap<>();
+        vertexById = new Vertex[INITIAL_CAPACITY];
+        degrees = new int[INITIAL_CAPACITY];
+        freeIds = new int[0];
+        edgeIndices = new HashMap<>();
+        edgeByIndex = new Edge[INITIAL_CAPACITY];
+        sources = new int[INITIAL_CAPACITY];
+        targets = new int[INITIAL_CAPACITY];
+        bias = new double[INITIAL_CAPACITY];
+        strengths = new double[INITIAL_CAPACITY];
+        dirtyVertices = new BitSet();
+        movedIds = new BitSet();
+        changedIds = new BitSet();
+        freedChanged = new ArrayList<>();
+        isParallel = false;
+        colourEdges = new int[0][];
+        colourSizes = new int[0];
+        edgeColour = new int[INITIAL_CAPACITY];
+        edgeSlot = new int[INITIAL_CAPACITY];
+        usedColours = new BitSet();
         random = new Random();
         refreshVertexOrders();
     }
 
+    /**
+     * Rebuilds the edge index from scratch from the edge collection. Call this after modifying the collection
+     * directly. Vertices that are still linked keep their ids, the ids of the others are freed, and every vertex that
+     * had an edge counts as changed (see {@link #takeChangedVertices()}), as any of them may have lost one.
+     */
     public void refreshVertexOrders() {
-        vertexOrders = new HashMap<>();
-        bias = new HashMap<>();
-        strengths = new HashMap<>();
+        for (int id = 0; id < idCount; id++) {
+            if (degrees[id] > 0) changedIds.set(id);
+        }
+        Arrays.fill(degrees, 0);
+        edgeIndices.clear();
+        Arrays.fill(edgeByIndex, null);
+        edgeCount = 0;
+        isColouringDirty = true;
+        incidentEdges = null;
+        for (Edge edge : edges) index(edge);
+        for (int id = 0; id < idCount; id++) {
+            if (vertexById[id] != null && degrees[id] == 0) freeId(id);
+        }
+        for (int e = 0; e < edgeCount; e++) refreshCoefficients(e);
+        dirtyVertices.clear();
+    }
+
+    public void addEdge(Edge edge) {
+        edges.add(edge);
+        index(edge);
+    }
+
+    public void addEdges(Collection<Edge> edges) {
+        edges.forEach(this::addEdge);
+    }
+
+    public boolean removeEdge(Edge edge) {
+        Integer index = edgeIndices.remove(edge);
+        if (index == null) return false;
+        edges.remove(edge);
+        int source = sources[index], target = targets[index];
+        if (incidentEdges != null) removeIncidence(source, index);
+        degrees[source]--;
+        if (incidentEdges != null) removeIncidence(target, index);
+        degrees[target]--;
+        dirtyVertices.set(source);
+        dirtyVertices.set(target);
+        changedIds.set(source);
+        changedIds.set(target);
+        if (!isColouringDirty) uncolour(index);
+        if (degrees[source] == 0) freeId(source);
+        if (target != source && degrees[target] == 0) freeId(target);
+
+        // Move the last edge into the vacated slot
+        int last = --edgeCount;
+        if (index != last) {
+            edgeByIndex[index] = edgeByIndex[last];
+            sources[index] = sources[last];
+            targets[index] = targets[last];
+            bias[index] = bias[last];
+            strengths[index] = strengths[last];
+            edgeIndices.put(edgeByIndex[index], index);
+            if (incidentEdges != null) {
+                replaceIncidence(sources[index], last, index);
+                replaceIncidence(targets[index], last, index);
+            }
+            if (!isColouringDirty) {
+                edgeColour[index] = edgeColour[last];
+                edgeSlot[index] = edgeSlot[last];
+                colourEdges[edgeColour[index]][edgeSlot[index]] = index;
+            }
+        }
+        edgeByIndex[last] = null;
+        return true;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the edge at the given index, from 0 to {@link #edgeCount()}. Edges are applied in index order, except
+     * in parallel mode.
+     */
+    public Edge edge(int index) {
+        if (index < 0 || index >= edgeCount) throw new IndexOutOfBoundsException(index);
+        return edgeByIndex[index];
+    }
+
+    /**
+     * Returns the vertices linked to the given vertex, once for each edge between them. The first call builds a list
+     * of incident edges for every vertex, which {@link #addEdge(Edge)} and {@link #removeEdge(Edge)} then keep up to
+     * date, so that later calls take time proportional to the vertex's degree.
+     */
+    public List<Vertex> neighbours(Vertex vertex) {
+        checkIndex();
+        Integer id = vertexIds.get(vertex);
+        if (id == null) return List.of();
+        if (incidentEdges == null) buildIncidence();
+        List<Vertex> neighbours = new ArrayList<>(degrees[id]);
+        for (int i = 0; i < degrees[id]; i++) {
+            int e = incidentEdges[id][i];
+            neighbours.add(vertexById[sources[e] == id ? targets[e] : sources[e]]);
+        }
+        return neighbours;
+    }
+
+    /**
+     * Returns the vertices that have had an edge added or removed since the last call, each once, and forgets them.
+     * The vertices that lost their last edge are only kept for this from the first call on.
+     */
+    public List<Vertex> takeChangedVertices() {
+        checkIndex();
+        isTrackingChanges = true;
+        List<Vertex> changed = new ArrayList<>(changedIds.cardinality() + freedChanged.size());
+        for (int id = changedIds.nextSetBit(0); id >= 0; id = changedIds.nextSetBit(id + 1)) changed.add(vertexById[id]);
+        changed.addAll(freedChanged);
+        changedIds.clear();
+        freedChanged.clear();
+        return changed;
+    }
+
+    private void buildIncidence() {
+        incidentEdges = new int[vertexById.length][];
+        int[] counts = new int[vertexById.length];
+        for (int v = 0; v < idCount; v++) incidentEdges[v] = new int[Math.max(1, degrees[v])];
+        for (int e = 0; e < edgeCount; e++) {
+            incidentEdges[sources[e]][counts[sources[e]]++] = e;
+            incidentEdges[targets[e]][counts[targets[e]]++] = e;
+        }
+    }
+
+    /**
+     * Appends an edge to a vertex's incident edges, whose degree already counts it.
+     */
+    private void addIncidence(int vertex, int edge) {
+        int[] incident = incidentEdges[vertex];
+        if (incident == null) incident = incidentEdges[vertex] = new int[1];
+        else if (degrees[vertex] > incident.length) incident = incidentEdges[vertex] = Arrays.copyOf(incident, incident.length * 2);
+        incident[degrees[vertex] - 1] = edge;
+    }
+
+    /**
+     * Removes an edge from a vertex's incident edges, whose degree still counts it.
+     */
+    private void removeIncidence(int vertex, int edge) {
+        int[] incident = incidentEdges[vertex];
+        int last = degrees[vertex] - 1;
+        for (int i = 0; i <= last; i++) {
+            if (incident[i] == edge) {
+                incident[i] = incident[last];
+                return;
+            }
+        }
+    }
+
+    private void replaceIncidence(int vertex, int edge, int newEdge) {
+        int[] incident = incidentEdges[vertex];
+        for (int i = 0; i < degrees[vertex]; i++) {
+            if (incident[i] == edge) {
+                incident[i] = newEdge;
+                return;
+            }
+        }
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public double getStrength() {
+        return baseStrength;
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Sets the source of the random jiggle that separates coincident vertices. A seeded source makes layouts
+     * reproducible.
+     */
+    public LinkForce setRandom(Random value) {
+        random = requireNonNull(value);
+        return this;
+    }
+
+    public boolean isParallel() {
+        return isParallel;
+    }
 
-        if (vertices().isEmpty()) return;
+    /**
+     * Sets whether the edges are applied in colour order, so that a simulation can split each colour class across
+     * threads. Only the passes of parallel mode produce the same results as each other, whether split across threads
+     * or not; the order differs from the index order applied outside it, so turning parallel mode on changes the
+     * trajectory of a layout.
+     * <p>
+     * The colouring is built in full on the first pass and after {@link #refreshVertexOrders()}, taking one pass over
+     * the uncoloured edges per colour. {@link #addEdge(Edge)} gives a new edge the first colour that is free at both
+     * its endpoints, or else adds it to the final, serial class, and {@link #removeEdge(Edge)} just takes an edge out
+     * of its class, so each edit takes time proportional to the degrees of its endpoints. Many edits can leave the
+     * colouring unbalanced, with more edges in the serial class; {@link #refreshVertexOrders()} recolours in full.
+     */
+    public LinkForce setParallel(boolean value) {
+        isParallel = value;
+        return this;
+    }
+
+    private void index(Edge edge) {
+        if (edgeCount == sources.length) {
+            int newCapacity = sources.length * 2;
+            edgeByIndex = Arrays.copyOf(edgeByIndex, newCapacity);
+            sources = Arrays.copyOf(sources, newCapacity);
+            targets = Arrays.copyOf(targets, newCapacity);
+            bias = Arrays.copyOf(bias, newCapacity);
+            strengths = Arrays.copyOf(strengths, newCapacity);
+            edgeColour = Arrays.copyOf(edgeColour, newCapacity);
+            edgeSlot = Arrays.copyOf(edgeSlot, newCapacity);
+        }
+        if (!isColouringDirty && incidentEdges == null) buildIncidence(); // colouring an edge looks at its neighbours
+        int source = vertexId(edge.source()), target = vertexId(edge.target());
+        int index = edgeCount++;
+        edgeByIndex[index] = edge;
+        sources[index] = source;
+        targets[index] = target;
+        edgeIndices.put(edge, index);
+        degrees[source]++;
+        if (incidentEdges != null) addIncidence(source, index);
+        degrees[target]++;
+        if (incidentEdges != null) addIncidence(target, index);
+        dirtyVertices.set(source);
+        dirtyVertices.set(target);
+        changedIds.set(source);
+        changedIds.set(target);
+        if (!isColouringDirty) colour(index);
+    }
 
-        for (Edge edge : edges) {
-            vertexOrders.merge(edge.source(), 1, Integer::sum);
-            vertexOrders.merge(edge.target(), 1, Integer::sum);
+    private int vertexId(Vertex vertex) {
+        Integer id = vertexIds.get(vertex);
+        if (id != null) return id;
+        int newId = freeIdCount > 0 ? freeIds[--freeIdCount] : idCount++;
+        if (newId == vertexById.length) {
+            vertexById = Arrays.copyOf(vertexById, newId * 2);
+            degrees = Arrays.copyOf(degrees, newId * 2);
+            if (incidentEdges != null) incidentEdges = Arrays.copyOf(incidentEdges, newId * 2);
         }
-        for (Edge edge : edges) {
-            bias.put(edge, (double) vertexOrders.get(edge.source()) / (vertexOrders.get(edge.source()) + vertexOrders.get(edge.target())));
-            strengths.put(edge, baseStrength / Math.min(vertexOrders.get(edge.source()), vertexOrders.get(edge.target())));
+        vertexById[newId] = vertex;
+        vertexIds.put(vertex, newId);
+        return newId;
+    }
+
+    /**
+     * Forgets a vertex that has no edges left, so that its id can be handed to another vertex.
+     */
+    private void freeId(int id) {
+        Vertex vertex = vertexById[id];
+        vertexIds.remove(vertex);
+        if (changedIds.get(id)) {
+            changedIds.clear(id);
+            if (isTrackingChanges) freedChanged.add(vertex);
         }
+        vertexById[id] = null;
+        if (incidentEdges != null) incidentEdges[id] = null;
+        if (freeIdCount == freeIds.length) freeIds = Arrays.copyOf(freeIds, Math.max(16, 2 * freeIdCount));
+        freeIds[freeIdCount++] = id;
+    }
+
+    /**
+     * Recomputes the bias and strength of every edge incident to a vertex whose degree has changed, listing the
+     * incident edges of every vertex if they are not listed yet.
+     */
+    private void refreshCoefficients() {
+        if (dirtyVertices.isEmpty()) return;
+        if (incidentEdges == null) buildIncidence();
+        for (int v = dirtyVertices.nextSetBit(0); v >= 0; v = dirtyVertices.nextSetBit(v + 1)) {
+            for (int i = 0; i < degrees[v]; i++) refreshCoefficients(incidentEdges[v][i]);
+        }
+        dirtyVertices.clear();
+    }
+
+    private void refreshCoefficients(int e) {
+        int source = sources[e], target = targets[e];
+        bias[e] = (double) degrees[source] / (degrees[source] + degrees[target]);
+        strengths[e] = baseStrength / Math.min(degrees[source], degrees[target]);
     }
 
     @Override
@@ -53,21 +386,213 @@ public class LinkForce extends BaseForce {
 
     @Override
     public void apply(Collection<Vertex> vertexPartition, double alpha) {
-        refreshVertexOrders(); // TODO: only refresh if graph has changed since last refresh
-        for (Edge edge : edges) {
-            double deltaX = edge.target().getX() + edge.target().getVX() - edge.source().getX() - edge.source().getVX();
-            double x = deltaX != 0 ? deltaX : jiggle(random::nextDouble);
-            double deltaY = edge.target().getY() + edge.target().getVY() - edge.source().getY() - edge.source().getVY();
-            double y = deltaY != 0 ? deltaY : jiggle(random::nextDouble);
-            double length = Math.sqrt(x*x + y*y);
-            double l = (length - distance) / length * alpha * strengths.get(edge);
-            x *= l; y *= l;
-            double targetBias = bias.get(edge);
-            double sourceBias = 1 - targetBias;
-            edge.target().setVX(edge.target().getVX() - x * targetBias);
-            edge.target().setVY(edge.target().getVY() - y * targetBias);
-            edge.source().setVX(edge.source().getVX() + x * sourceBias);
-            edge.source().setVY(edge.source().getVY() + y * sourceBias);
+        refreshIndex();
+        if (!isParallel) {
+            for (int e = 0; e < edgeCount; e++) apply(e, alpha);
+        } else {
+            passSeed = random.nextLong();
+            refreshColouring();
+            for (int c = 0; c < colourCount; c++) {
+                for (int i = 0; i < colourSizes[c]; i++) apply(colourEdges[c][i], alpha);
+            }
         }
     }
+
+    /**
+     * Applies this force with each colour class split across the given executor. Produces the same result as
+     * {@link #apply(double)} in parallel mode.
+     */
+    public void apply(double alpha, ExecutorService executor, int parallelism) {
+        refreshIndex();
+        refreshColouring();
+        passSeed = random.nextLong();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < colourCount; c++) {
+            int[] colour = colourEdges[c];
+            int size = colourSizes[c];
+            if (c == colourCount - 1 || size < MIN_PARALLEL_COLOUR_SIZE || parallelism == 1) {
+                for (int i = 0; i < size; i++) apply(colour[i], alpha);
+            } else {
+                futures.clear();
+                for (int t = 0; t < parallelism; t++) {
+                    int from = (int) ((long) size * t / parallelism);
+                    int to = (int) ((long) size * (t + 1) / parallelism);
+                    futures.add(executor.submit(() -> {
+                        for (int i = from; i < to; i++) apply(colour[i], alpha);
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies this force only to the edges incident to the given vertices, and only moves those vertices: the other
+     * endpoint of such an edge is held where it is. Takes time proportional to the degrees of the given vertices, once the
+     * incident edges of every vertex have been listed (see {@link #neighbours(Vertex)}).
+     */
+    public void applyIncident(Collection<Vertex> endpoints, double alpha) {
+        refreshIndex();
+        if (isParallel) passSeed = random.nextLong();
+        if (incidentEdges == null) buildIncidence();
+        movedIds.clear();
+        for (Vertex vertex : endpoints) {
+            Integer id = vertexIds.get(vertex);
+            if (id != null) movedIds.set(id);
+        }
+        for (int id = movedIds.nextSetBit(0); id >= 0; id = movedIds.nextSetBit(id + 1)) {
+            for (int i = 0; i < degrees[id]; i++) {
+                int e = incidentEdges[id][i];
+                int other = sources[e] == id ? targets[e] : sources[e];
+                if (other == id || (other < id && movedIds.get(other))) continue; // a self-loop, or applied from the other endpoint
+                apply(e, alpha, movedIds.get(sources[e]), movedIds.get(targets[e]));
+            }
+        }
+    }
+
+    /**
+     * Brings the index up to date before the edges are applied.
+     */
+    private void refreshIndex() {
+        if (edges.size() != edgeCount) refreshVertexOrders(); // the edge collection was modified directly
+        else refreshCoefficients();
+    }
+
+    /**
+     * Brings the index up to date before it is queried. Only a change in the size of the edge collection is noticed.
+     */
+    private void checkIndex() {
+        if (edges.size() != edgeCount) refreshVertexOrders(); // the edge collection was modified directly
+    }
+
+    /**
+     * Greedily partitions the edges into colour classes, each a matching in which no two edges share a vertex.
+     * Classes are built one at a time from the remaining edges. Once a class would be too small to be worth
+     * splitting across threads, all remaining edges form one final class, which is applied serially. There is always
+     * a final serial class, even if it is empty, for the edges added later that fit in no other class.
+     */
+    private void refreshColouring() {
+        if (!isColouringDirty) return;
+        int[] colourOrder = new int[edgeCount];
+        int[] vertexColour = new int[vertexById.length];
+        Arrays.fill(vertexColour, -1);
+        List<Integer> colourEnds = new ArrayList<>();
+        for (int e = 0; e < edgeCount; e++) colourOrder[e] = e;
+        int coloured = 0, colour = 0;
+        boolean isSerialLast = false;
+        while (coloured < edgeCount) {
+            // Move every edge whose endpoints are both free in this colour to the front of the remaining edges
+            int end = coloured;
+            for (int i = coloured; i < edgeCount; i++) {
+                int e = colourOrder[i];
+                if (vertexColour[sources[e]] == colour || vertexColour[targets[e]] == colour) continue;
+                vertexColour[sources[e]] = colour;
+                vertexColour[targets[e]] = colour;
+                colourOrder[i] = colourOrder[end];
+                colourOrder[end++] = e;
+            }
+            if (end - coloured < MIN_PARALLEL_COLOUR_SIZE) {
+                // Too small to parallelise: restore index order for the rest and finish with one serial class
+                Arrays.sort(colourOrder, coloured, edgeCount);
+                end = edgeCount;
+                isSerialLast = true;
+            }
+            colourEnds.add(end);
+            coloured = end;
+            colour++;
+        }
+        if (!isSerialLast) colourEnds.add(edgeCount);
+        colourCount = colourEnds.size();
+        colourEdges = new int[colourCount][];
+        colourSizes = new int[colourCount];
+        int start = 0;
+        for (int c = 0; c < colourCount; c++) {
+            int end = colourEnds.get(c);
+            colourEdges[c] = Arrays.copyOfRange(colourOrder, start, Math.max(end, start + 1));
+            colourSizes[c] = end - start;
+            for (int i = start; i < end; i++) {
+                edgeColour[colourOrder[i]] = c;
+                edgeSlot[colourOrder[i]] = i - start;
+            }
+            start = end;
+        }
+        isColouringDirty = false;
+    }
+
+    /**
+     * Adds a new edge to the first colour class that has no edge at either of its endpoints, or else to the final,
+     * serial class.
+     */
+    private void colour(int e) {
+        usedColours.clear();
+        markColours(sources[e], e);
+        markColours(targets[e], e);
+        int c = Math.min(usedColours.nextClearBit(0), colourCount - 1);
+        if (colourSizes[c] == colourEdges[c].length) colourEdges[c] = Arrays.copyOf(colourEdges[c], 2 * colourSizes[c]);
+        edgeColour[e] = c;
+        edgeSlot[e] = colourSizes[c];
+        colourEdges[c][colourSizes[c]++] = e;
+    }
+
+    private void markColours(int vertex, int e) {
+        for (int i = 0; i < degrees[vertex]; i++) {
+            int other = incidentEdges[vertex][i];
+            if (other != e) usedColours.set(edgeColour[other]);
+        }
+    }
+
+    /**
+     * Takes an edge out of its colour class, moving the class's last edge into its place.
+     */
+    private void uncolour(int e) {
+        int c = edgeColour[e];
+        int moved = colourEdges[c][--colourSizes[c]];
+        colourEdges[c][edgeSlot[e]] = moved;
+        edgeSlot[moved] = edgeSlot[e];
+    }
+
+    private void apply(int e, double alpha) {
+        apply(e, alpha, true, true);
+    }
+
+    private void apply(int e, double alpha, boolean isSourceMoved, boolean isTargetMoved) {
+        Vertex source = vertexById[sources[e]], target = vertexById[targets[e]];
+        double deltaX = target.getX() + target.getVX() - source.getX() - source.getVX();
+        double x = deltaX != 0 ? deltaX : jiggle(e, 0);
+        double deltaY = target.getY() + target.getVY() - source.getY() - source.getVY();
+        double y = deltaY != 0 ? deltaY : jiggle(e, 1);
+        double length = Math.sqrt(x*x + y*y);
+        double l = (length - distance) / length * alpha * strengths[e];
+        x *= l; y *= l;
+        double targetBias = bias[e];
+        double sourceBias = 1 - targetBias;
+        if (isTargetMoved) {
+            target.setVX(target.getVX() - x * targetBias);
+            target.setVY(target.getVY() - y * targetBias);
+        }
+        if (isSourceMoved) {
+            source.setVX(source.getVX() + x * sourceBias);
+            source.setVY(source.getVY() + y * sourceBias);
+        }
+    }
+
+    /**
+     * Returns a jiggle for one axis of an edge whose endpoints coincide on that axis. In parallel mode it is drawn
+     * from the edge and a seed taken once per pass rather than from the shared random source, so that it does not
+     * depend on which thread gets to the source first.
+     */
+    private double jiggle(int e, int axis) {
+        if (!isParallel) return RandomEffects.jiggle(random::nextDouble);
+        long z = passSeed + (2L * e + axis + 1) * 0x9E3779B97F4A7C15L; // the SplitMix64 finaliser
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        double value = ((z ^ (z >>> 31)) >>> 11) * 0x1.0p-53;
+        return RandomEffects.jiggle(() -> value);
+    }
 }
@@ -1,22 +1,29 @@
 package com.typedb.force.graph.force;
 
 import com.typedb.force.graph.api.Vertex;
-import com.typedb.force.graph.quadtree.Quadtree;
+import com.typedb.force.graph.quadtree.AggregateQuadtree;
+import com.typedb.force.graph.quadtree.ArrayQuadtree;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntToDoubleFunction;
 
 import static com.typedb.force.graph.util.RandomEffects.jiggle;
+import static java.util.Objects.requireNonNull;
 
 public class ManyBodyForce extends BaseForce {
     double strength;
     double distanceMin2;
     double distanceMax2;
     double theta2;
-    private Map<Quadtree<Vertex>.Node, QuadData> quads;
-    private Quadtree<Vertex> tree;
+    private final AggregateQuadtree tree;
+    private Vertex[] points;
+    private final IntToDoubleFunction pointX;
+    private final IntToDoubleFunction pointY;
+    private double refitThreshold;
+    private final LongAdder nodeVisits;
     Random random;
 
     public ManyBodyForce(Collection<Vertex> vertices, double strength) {
@@ -29,13 +36,104 @@ public class ManyBodyForce extends BaseForce {
         this.distanceMin2 = 1.0;
         this.distanceMax2 = distanceMax * distanceMax;
         this.theta2 = 0.81;
+        tree = new AggregateQuadtree();
+        points = new Vertex[0];
+        pointX = i -> points[i].getX();
+        pointY = i -> points[i].getY();
+        refitThreshold = 0;
+        nodeVisits = new LongAdder();
         random = new Random();
     }
 
+    public double getStrength() {
+        return strength;
+    }
+
+    public double getDistanceMin() {
+        return Math.sqrt(distanceMin2);
+    }
+
+    /**
+     * Sets the distance below which the force between two bodies stops growing, so that very close bodies are not
+     * thrown apart. Defaults to 1.
+     */
+    public ManyBodyForce setDistanceMin(double value) {
+        distanceMin2 = value * value;
+        return this;
+    }
+
+    public double getDistanceMax() {
+        return Math.sqrt(distanceMax2);
+    }
+
+    public double getTheta() {
+        return Math.sqrt(theta2);
+    }
+
+    /**
+     * Sets the Barnes-Hut approximation criterion: a cell is treated as a single body when its width divided by its
+     * distance is below theta. Defaults to 0.9; lower values are more accurate and slower.
+     */
+    public ManyBodyForce setTheta(double value) {
+        theta2 = value * value;
+        return this;
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Sets the source of the random jiggle that separates coincident vertices. A seeded source makes layouts
+     * reproducible.
+     */
+    public ManyBodyForce setRandom(Random value) {
+        random = requireNonNull(value);
+        return this;
+    }
+
+    public double getRefitThreshold() {
+        return refitThreshold;
+    }
+
+    /**
+     * Sets the fraction of vertices that may leave their quadtree cell between ticks for the tree to be refit in
+     * place rather than rebuilt. Refitting pays off late in a layout, when vertices barely move. A value of 0, the
+     * default, always rebuilds the tree.
+     */
+    public ManyBodyForce setRefitThreshold(double value) {
+        refitThreshold = value;
+        return this;
+    }
+
+    /**
+     * Returns the quadtree built by the last call to {@link #buildQuadtree()}, for inspection only.
+     */
+    public ArrayQuadtree quadtree() {
+        return tree;
+    }
+
+    /**
+     * Returns the total number of quadtree nodes visited by all applications of this force so far.
+     */
+    public long nodeVisits() {
+        return nodeVisits.sum();
+    }
+
     public void buildQuadtree() {
-        tree = new Quadtree<>(vertices(), Vertex::getX, Vertex::getY);
-        quads = new HashMap<>();
-        tree.visitAfter(this::accumulate);
+        points = vertices().toArray(points);
+        if (!refitQuadtree()) tree.build(vertices().size(), pointX, pointY);
+        tree.accumulateCharge(strength);
+    }
+
+    public void buildQuadtree(ExecutorService executor, int parallelism) {
+        points = vertices().toArray(points);
+        if (!refitQuadtree()) tree.build(vertices().size(), pointX, pointY, executor, parallelism);
+        tree.accumulateCharge(strength);
+    }
+
+    private boolean refitQuadtree() {
+        return refitThreshold > 0 && tree.refit(vertices().size(), pointX, pointY, refitThreshold);
     }
 
     @Override
@@ -46,40 +144,37 @@ public class ManyBodyForce extends BaseForce {
 
     @Override
     public void apply(Collection<Vertex> vertexPartition, double alpha) {
+        BodyVisitor visitor = new BodyVisitor(alpha);
+        long visits = 0;
         for (Vertex vertex : vertexPartition) {
-            tree.visit(quad -> {
-                QuadData q = quads.get(quad.node);
-                if (q == null || q.value == 0.0) return true;
-
-                double x = q.x - vertex.getX();
-                double y = q.y - vertex.getY();
-                double w = quad.x1 - quad.x0;
-                double len = x*x + y*y;
-
-                // Apply the Barnes-Hut approximation if possible.
-                // Limit forces for very close nodes; randomise direction if coincident
-                if (w*w / theta2 < len) {
-                    if (len < distanceMax2) {
-                        if (x == 0) {
-                            x = jiggle(random::nextDouble);
-                            len += x*x;
-                        }
-                        if (y == 0) {
-                            y = jiggle(random::nextDouble);
-                            len += y*y;
-                        }
-                        if (len < distanceMin2) len = Math.sqrt(distanceMin2 * len);
-                        vertex.setVX(vertex.getVX() + x * q.value * alpha / len);
-                        vertex.setVY(vertex.getVY() + y * q.value * alpha / len);
-                    }
-                    return true;
-                }
+            visitor.vertex = vertex;
+            visits += tree.visit(visitor);
+        }
+        nodeVisits.add(visits);
+    }
+
+    private class BodyVisitor implements ArrayQuadtree.Visitor {
+        private final double alpha;
+        private Vertex vertex;
+
+        private BodyVisitor(double alpha) {
+            this.alpha = alpha;
+        }
+
+        @Override
+        public boolean visit(int node, double x0, double y0, double x1, double y1) {
+            double value = tree.charge(node);
+            if (value == 0.0) return true;
 
-                // Otherwise, process points directly
-                if (!quad.node.children.isEmpty() || len >= distanceMax2) return false;
+            double x = tree.chargeX(node) - vertex.getX();
+            double y = tree.chargeY(node) - vertex.getY();
+            double w = x1 - x0;
+            double len = x*x + y*y;
 
-                // Limit forces for very close nodes; randomise direction if coincident
-                if (!quad.node.data.equals(vertex) || quad.node.next != null) {
+            // Apply the Barnes-Hut approximation if possible.
+            // Limit forces for very close nodes; randomise direction if coincident
+            if (w*w / theta2 < len) {
+                if (len < distanceMax2) {
                     if (x == 0) {
                         x = jiggle(random::nextDouble);
                         len += x*x;
@@ -89,62 +184,39 @@ public class ManyBodyForce extends BaseForce {
                         len += y*y;
                     }
                     if (len < distanceMin2) len = Math.sqrt(distanceMin2 * len);
+                    vertex.setVX(vertex.getVX() + x * value * alpha / len);
+                    vertex.setVY(vertex.getVY() + y * value * alpha / len);
                 }
+                return true;
+            }
 
-                Quadtree<Vertex>.Node n = quad.node;
-                do {
-                    if (!quad.node.data.equals(vertex)) {
-                        double u = strength * alpha / len;
-                        vertex.setVX(vertex.getVX() + x * u);
-                        vertex.setVY(vertex.getVY() + y * u);
-                    }
-                    n = n.next;
-                } while (n != null);
-
-                return false;
-            });
-        }
-    }
+            // Otherwise, process points directly
+            if (!tree.isLeaf(node) || len >= distanceMax2) return false;
 
-    private void accumulate(Quadtree<Vertex>.Quad quad) {
-        double strength = 0.0;
-
-        if (!quad.node.children.isEmpty()) {
-            // For internal nodes, accumulate forces from child quadrants
-            double weight = 0.0;
-            double x = 0.0, y = 0.0;
-            for (int i = 0; i < 4; i++) {
-                Quadtree<Vertex>.Node qi = quad.node.children.get(i);
-                if (qi == null) continue;
-                QuadData qiData = quads.get(qi);
-                if (qiData == null || qiData.value == 0.0) continue;
-                double c = Math.abs(qiData.value);
-                strength += qiData.value;
-                weight += c;
-                x += c * qiData.x; y += c * qiData.y;
+            // Limit forces for very close nodes; randomise direction if coincident
+            int p = tree.point(node);
+            if (points[p] != vertex || tree.nextPoint(p) >= 0) {
+                if (x == 0) {
+                    x = jiggle(random::nextDouble);
+                    len += x*x;
+                }
+                if (y == 0) {
+                    y = jiggle(random::nextDouble);
+                    len += y*y;
+                }
+                if (len < distanceMin2) len = Math.sqrt(distanceMin2 * len);
             }
-            quads.put(quad.node, new QuadData(x / weight, y / weight, strength));
-        } else {
-            // For leaf nodes, accumulate forces from coincident quadrants
-            Quadtree<Vertex>.Node n = quad.node;
-            quads.put(n, new QuadData(n.data.getX(), n.data.getY(), 0.0));
-            do {
-                strength += this.strength;
-                n = n.next;
-            } while (n != null);
-            quads.get(quad.node).value = strength;
-        }
-    }
 
-    private static class QuadData {
-        final double x;
-        final double y;
-        double value;
+            do {
+                if (points[p] != vertex) {
+                    double u = strength * alpha / len;
+                    vertex.setVX(vertex.getVX() + x * u);
+                    vertex.setVY(vertex.getVY() + y * u);
+                }
+                p = tree.nextPoint(p);
+            } while (p >= 0);
 
-        private QuadData(double x, double y, double value) {
-            this.x = x;
-            this.y = y;
-            this.value = value;
+            return false;
         }
     }
 }
@@ -25,6 +25,17 @@ public class XForce extends BaseForce {
         this.strength = strength;
     }
 
+    /**
+     * Returns the current target x coordinate.
+     */
+    public double getX() {
+        return x.get();
+    }
+
+    public double getStrength() {
+        return strength;
+    }
+
     @Override
     public void apply(Collection<Vertex> vertexPartition, double alpha) {
         for (Vertex vertex : vertexPartition) {
@@ -25,6 +25,17 @@ public class YForce extends BaseForce {
         this.strength = strength;
     }
 
+    /**
+     * Returns the current target y coordinate.
+     */
+    public double getY() {
+        return y.get();
+    }
+
+    public double getStrength() {
+        return strength;
+    }
+
     @Override
     public void apply(Collection<Vertex> vertexPartition, double alpha) {
         for (Vertex vertex : vertexPartition) {
@@ -0,0 +1,40 @@
+package com.typedb.force.graph.force.packed;
+
+import com.typedb.force.graph.api.Vertex;
+import com.typedb.force.graph.impl.PackedVertex;
+import com.typedb.force.graph.impl.PackedVertices;
+
+import java.util.Collection;
+
+public abstract class PackedBaseForce implements PackedForce {
+    final PackedVertices storage;
+
+    PackedBaseForce(PackedVertices storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public void prepare() {}
+
+    @Override
+    public Collection<Vertex> vertices() {
+        return storage.views();
+    }
+
+    @Override
+    public void apply(double alpha) {
+        prepare();
+        apply(0, storage.size(), alpha);
+    }
+
+    @Override
+    public void apply(Collection<Vertex> vertexPartition, double alpha) {
+        for (Vertex vertex : vertexPartition) {
+            if (!(vertex instanceof PackedVertex) || ((PackedVertex) vertex).storage() != storage) {
+                throw new IllegalArgumentException("Vertex is not stored in this force's packed storage");
+            }
+            int id = ((PackedVertex) vertex).id();
+            apply(id, id + 1, alpha);
+        }
+    }
+}
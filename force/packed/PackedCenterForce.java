@@ -0,0 +1,47 @@
+package com.typedb.force.graph.force.packed;
+
+import com.typedb.force.graph.impl.PackedVertices;
+
+public class PackedCenterForce extends PackedBaseForce {
+    double x;
+    double y;
+    double strength;
+    private double shiftX;
+    private double shiftY;
+
+    public PackedCenterForce(PackedVertices storage, double x, double y) {
+        this(storage, x, y, 1);
+    }
+
+    public PackedCenterForce(PackedVertices storage, double x, double y, double strength) {
+        super(storage);
+        this.x = x;
+        this.y = y;
+        this.strength = strength;
+    }
+
+    @Override
+    public void prepare() {
+        double[] xs = storage.x(), ys = storage.y();
+        int n = storage.size();
+        double sx = 0, sy = 0;
+        for (int i = 0; i < n; i++) {
+            sx += xs[i]; sy += ys[i];
+        }
+        shiftX = (sx / n - x) * strength;
+        shiftY = (sy / n - y) * strength;
+    }
+
+    @Override
+    public boolean isPartitionable() {
+        return false;
+    }
+
+    @Override
+    public void apply(int from, int to, double alpha) {
+        double[] xs = storage.x(), ys = storage.y();
+        for (int i = from; i < to; i++) {
+            xs[i] -= shiftX; ys[i] -= shiftY;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.typedb.force.graph.force.packed;
+
+import com.typedb.force.graph.impl.PackedVertices;
+import com.typedb.force.graph.quadtree.AggregateQuadtree;
+import com.typedb.force.graph.quadtree.ArrayQuadtree;
+
+import java.util.Random;
+import java.util.function.IntToDoubleFunction;
+
+import static com.typedb.force.graph.util.RandomEffects.jiggle;
+
+public class PackedCollideForce extends PackedBaseForce {
+    private final double radius;
+    private final AggregateQuadtree tree;
+    private final IntToDoubleFunction x;
+    private final IntToDoubleFunction y;
+    private double refitThreshold;
+    double strength;
+    Random random;
+
+    public PackedCollideForce(PackedVertices storage, double radius) {
+        this(storage, radius, 1);
+    }
+
+    public PackedCollideForce(PackedVertices storage, double radius, double strength) {
+        super(storage);
+        this.radius = radius;
+        this.strength = strength;
+        tree = new AggregateQuadtree();
+        x = id -> storage.x()[id] + storage.vx()[id];
+        y = id -> storage.y()[id] + storage.vy()[id];
+        refitThreshold = 0;
+        random = new Random();
+    }
+
+    public double getRefitThreshold() {
+        return refitThreshold;
+    }
+
+    /**
+     * Sets the fraction of vertices that may leave their quadtree cell between ticks for the tree to be refit in
+     * place rather than rebuilt. Refitting pays off late in a layout, when vertices barely move. A value of 0, the
+     * default, always rebuilds the tree.
+     */
+    public PackedCollideForce setRefitThreshold(double value) {
+        refitThreshold = value;
+        return this;
+    }
+
+    @Override
+    public void prepare() {
+        if (refitThreshold <= 0 || !tree.refit(storage.size(), x, y, refitThreshold)) tree.build(storage.size(), x, y);
+        tree.accumulateRadius(radius);
+    }
+
+    @Override
+    public boolean isPartitionable() {
+        return true;
+    }
+
+    @Override
+    public void apply(int from, int to, double alpha) {
+        CollisionVisitor visitor = new CollisionVisitor();
+        for (int id = from; id < to; id++) {
+            visitor.id = id;
+            visitor.xi = visitor.xs[id] + visitor.vxs[id];
+            visitor.yi = visitor.ys[id] + visitor.vys[id];
+            tree.visit(visitor);
+        }
+    }
+
+    private class CollisionVisitor implements ArrayQuadtree.Visitor {
+        private final double[] xs = storage.x();
+        private final double[] ys = storage.y();
+        private final double[] vxs = storage.vx();
+        private final double[] vys = storage.vy();
+        private int id;
+        private double xi;
+        private double yi;
+
+        @Override
+        public boolean visit(int node, double x0, double y0, double x1, double y1) {
+            double ri = radius; double ri2 = ri * ri;
+            double rj = tree.radius(node);
+            double r = ri + rj;
+            if (tree.isLeaf(node)) {
+                int data = tree.point(node);
+                if (data > id) {
+                    double x = xi - xs[data] - vxs[data];
+                    double y = yi - ys[data] - vys[data];
+                    double len = x*x + y*y;
+                    if (len < r*r) {
+                        if (x == 0) {
+                            x = jiggle(random::nextDouble);
+                            len += x*x;
+                        }
+                        if (y == 0) {
+                            y = jiggle(random::nextDouble);
+                            len += y*y;
+                        }
+                        len = Math.sqrt(len);
+                        len = (r - len) / len * strength;
+                        x *= len; y *= len; rj *= rj;
+                        r = rj / (ri2 + rj);
+                        vxs[id] += x * r;
+                        vys[id] += y * r;
+                        r = 1 - r;
+                        vxs[data] -= x * r;
+                        vys[data] -= y * r;
+                    }
+                }
+                return false;
+            }
+            return x0 > xi + r || x1 < xi - r || y0 > yi + r || y1 < yi - r;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.typedb.force.graph.force.packed;
+
+import com.typedb.force.graph.api.Force;
+
+/**
+ * A force that operates directly on {@link com.typedb.force.graph.impl.PackedVertices} by vertex id.
+ */
+public interface PackedForce extends Force {
+
+    /**
+     * Builds any per-tick acceleration structures. Called once per tick, before any call to {@link #apply(int, int, double)}.
+     */
+    void prepare();
+
+    /**
+     * Applies this force to the vertices with ids in {@code [from, to)}.
+     */
+    void apply(int from, int to, double alpha);
+
+    /**
+     * Whether {@link #apply(int, int, double)} may be called concurrently for disjoint id ranges.
+     */
+    boolean isPartitionable();
+}
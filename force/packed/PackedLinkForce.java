@@ -0,0 +1,99 @@
+package com.typedb.force.graph.force.packed;
+
+import com.typedb.force.graph.impl.PackedVertices;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.typedb.force.graph.util.RandomEffects.jiggle;
+
+public class PackedLinkForce extends PackedBaseForce {
+    private static final int INITIAL_CAPACITY = 64;
+
+    final double baseStrength;
+    double distance;
+    private int[] sources;
+    private int[] targets;
+    private double[] bias;
+    private double[] strengths;
+    private int[] degrees;
+    private int linkCount;
+    private boolean isDirty;
+    Random random;
+
+    public PackedLinkForce(PackedVertices storage, double distance, double strength) {
+        super(storage);
+        this.baseStrength = strength;
+        this.distance = distance;
+        sources = new int[INITIAL_CAPACITY];
+        targets = new int[INITIAL_CAPACITY];
+        bias = new double[INITIAL_CAPACITY];
+        strengths = new double[INITIAL_CAPACITY];
+        degrees = new int[INITIAL_CAPACITY];
+        linkCount = 0;
+        isDirty = false;
+        random = new Random();
+    }
+
+    public void addLink(int source, int target) {
+        if (linkCount == sources.length) {
+            int newCapacity = sources.length * 2;
+            sources = Arrays.copyOf(sources, newCapacity);
+            targets = Arrays.copyOf(targets, newCapacity);
+            bias = Arrays.copyOf(bias, newCapacity);
+            strengths = Arrays.copyOf(strengths, newCapacity);
+        }
+        int maxId = Math.max(source, target);
+        if (maxId >= degrees.length) degrees = Arrays.copyOf(degrees, Math.max(maxId + 1, degrees.length * 2));
+        sources[linkCount] = source;
+        targets[linkCount] = target;
+        linkCount++;
+        degrees[source]++;
+        degrees[target]++;
+        isDirty = true;
+    }
+
+    public int linkCount() {
+        return linkCount;
+    }
+
+    @Override
+    public void prepare() {
+        if (!isDirty) return;
+        for (int l = 0; l < linkCount; l++) {
+            int sourceDegree = degrees[sources[l]], targetDegree = degrees[targets[l]];
+            bias[l] = (double) sourceDegree / (sourceDegree + targetDegree);
+            strengths[l] = baseStrength / Math.min(sourceDegree, targetDegree);
+        }
+        isDirty = false;
+    }
+
+    @Override
+    public boolean isPartitionable() {
+        return false;
+    }
+
+    /**
+     * Links are not partitioned by vertex, so the id range is ignored and every link is applied.
+     */
+    @Override
+    public void apply(int from, int to, double alpha) {
+        double[] xs = storage.x(), ys = storage.y(), vxs = storage.vx(), vys = storage.vy();
+        for (int l = 0; l < linkCount; l++) {
+            int source = sources[l], target = targets[l];
+            double deltaX = xs[target] + vxs[target] - xs[source] - vxs[source];
+            double x = deltaX != 0 ? deltaX : jiggle(random::nextDouble);
+            double deltaY = ys[target] + vys[target] - ys[source] - vys[source];
+            double y = deltaY != 0 ? deltaY : jiggle(random::nextDouble);
+            double length = Math.sqrt(x*x + y*y);
+            double k = (length - distance) / length * alpha * strengths[l];
+            x *= k; y *= k;
+            double targetBias = bias[l];
+            double sourceBias = 1 - targetBias;
+            vxs[target] -= x * targetBias;
+            vys[target] -= y * targetBias;
+            vxs[source] += x * sourceBias;
+            vys[source] += y * sourceBias;
+        }
+    }
+}
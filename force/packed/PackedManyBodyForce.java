@@ -0,0 +1,148 @@
+package com.typedb.force.graph.force.packed;
+
+import com.typedb.force.graph.impl.PackedVertices;
+import com.typedb.force.graph.quadtree.AggregateQuadtree;
+import com.typedb.force.graph.quadtree.ArrayQuadtree;
+
+import java.util.Random;
+import java.util.function.IntToDoubleFunction;
+
+import static com.typedb.force.graph.util.RandomEffects.jiggle;
+
+public class PackedManyBodyForce extends PackedBaseForce {
+    double strength;
+    double distanceMin2;
+    double distanceMax2;
+    double theta2;
+    private final AggregateQuadtree tree;
+    private final IntToDoubleFunction pointX;
+    private final IntToDoubleFunction pointY;
+    private double refitThreshold;
+    Random random;
+
+    public PackedManyBodyForce(PackedVertices storage, double strength) {
+        this(storage, strength, Math.sqrt(Double.MAX_VALUE));
+    }
+
+    public PackedManyBodyForce(PackedVertices storage, double strength, double distanceMax) {
+        super(storage);
+        this.strength = strength;
+        this.distanceMin2 = 1.0;
+        this.distanceMax2 = distanceMax * distanceMax;
+        this.theta2 = 0.81;
+        tree = new AggregateQuadtree();
+        pointX = id -> storage.x()[id];
+        pointY = id -> storage.y()[id];
+        refitThreshold = 0;
+        random = new Random();
+    }
+
+    public double getRefitThreshold() {
+        return refitThreshold;
+    }
+
+    /**
+     * Sets the fraction of vertices that may leave their quadtree cell between ticks for the tree to be refit in
+     * place rather than rebuilt. Refitting pays off late in a layout, when vertices barely move. A value of 0, the
+     * default, always rebuilds the tree.
+     */
+    public PackedManyBodyForce setRefitThreshold(double value) {
+        refitThreshold = value;
+        return this;
+    }
+
+    @Override
+    public void prepare() {
+        if (refitThreshold <= 0 || !tree.refit(storage.size(), pointX, pointY, refitThreshold)) tree.build(storage.size(), pointX, pointY);
+        tree.accumulateCharge(strength);
+    }
+
+    @Override
+    public boolean isPartitionable() {
+        return true;
+    }
+
+    @Override
+    public void apply(int from, int to, double alpha) {
+        BodyVisitor visitor = new BodyVisitor(alpha);
+        for (int id = from; id < to; id++) {
+            visitor.id = id;
+            tree.visit(visitor);
+        }
+    }
+
+    private class BodyVisitor implements ArrayQuadtree.Visitor {
+        private final double alpha;
+        private final double[] xs;
+        private final double[] ys;
+        private final double[] vxs;
+        private final double[] vys;
+        private int id;
+
+        private BodyVisitor(double alpha) {
+            this.alpha = alpha;
+            xs = storage.x();
+            ys = storage.y();
+            vxs = storage.vx();
+            vys = storage.vy();
+        }
+
+        @Override
+        public boolean visit(int node, double x0, double y0, double x1, double y1) {
+            double value = tree.charge(node);
+            if (value == 0.0) return true;
+
+            double x = tree.chargeX(node) - xs[id];
+            double y = tree.chargeY(node) - ys[id];
+            double w = x1 - x0;
+            double len = x*x + y*y;
+
+            // Apply the Barnes-Hut approximation if possible.
+            // Limit forces for very close nodes; randomise direction if coincident
+            if (w*w / theta2 < len) {
+                if (len < distanceMax2) {
+                    if (x == 0) {
+                        x = jiggle(random::nextDouble);
+                        len += x*x;
+                    }
+                    if (y == 0) {
+                        y = jiggle(random::nextDouble);
+                        len += y*y;
+                    }
+                    if (len < distanceMin2) len = Math.sqrt(distanceMin2 * len);
+                    vxs[id] += x * value * alpha / len;
+                    vys[id] += y * value * alpha / len;
+                }
+                return true;
+            }
+
+            // Otherwise, process points directly
+            if (!tree.isLeaf(node) || len >= distanceMax2) return false;
+
+            // Limit forces for very close nodes; randomise direction if coincident
+            int p = tree.point(node);
+            if (p != id || tree.nextPoint(p) >= 0) {
+                if (x == 0) {
+                    x = jiggle(random::nextDouble);
+                    len += x*x;
+                }
+                if (y == 0) {
+                    y = jiggle(random::nextDouble);
+                    len += y*y;
+                }
+                if (len < distanceMin2) len = Math.sqrt(distanceMin2 * len);
+            }
+
+            do {
+                if (p != id) {
+                    double u = strength * alpha / len;
+                    vxs[id] += x * u;
+                    vys[id] += y * u;
+                }
+                p = tree.nextPoint(p);
+            } while (p >= 0);
+
+            return false;
+        }
+    }
+}
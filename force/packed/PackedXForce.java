@@ -0,0 +1,32 @@
+package com.typedb.force.graph.force.packed;
+
+import com.typedb.force.graph.impl.PackedVertices;
+
+public class PackedXForce extends PackedBaseForce {
+    double x;
+    double strength;
+
+    public PackedXForce(PackedVertices storage, double x) {
+        this(storage, x, 1);
+    }
+
+    public PackedXForce(PackedVertices storage, double x, double strength) {
+        super(storage);
+        this.x = x;
+        this.strength = strength;
+    }
+
+    @Override
+    public boolean isPartitionable() {
+        return true;
+    }
+
+    @Override
+    public void apply(int from, int to, double alpha) {
+        double[] xs = storage.x(), vxs = storage.vx();
+        double k = strength * alpha;
+        for (int i = from; i < to; i++) {
+            vxs[i] += (x - xs[i]) * k;
+        }
+    }
+}
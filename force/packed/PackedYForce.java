@@ -0,0 +1,32 @@
+package com.typedb.force.graph.force.packed;
+
+import com.typedb.force.graph.impl.PackedVertices;
+
+public class PackedYForce extends PackedBaseForce {
+    double y;
+    double strength;
+
+    public PackedYForce(PackedVertices storage, double y) {
+        this(storage, y, 1);
+    }
+
+    public PackedYForce(PackedVertices storage, double y, double strength) {
+        super(storage);
+        this.y = y;
+        this.strength = strength;
+    }
+
+    @Override
+    public boolean isPartitionable() {
+        return true;
+    }
+
+    @Override
+    public void apply(int from, int to, double alpha) {
+        double[] ys = storage.y(), vys = storage.vy();
+        double k = strength * alpha;
+        for (int i = from; i < to; i++) {
+            vys[i] += (y - ys[i]) * k;
+        }
+    }
+}
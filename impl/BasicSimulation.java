@@ -22,18 +22,30 @@ package com.typedb.force.graph.impl;
 import com.typedb.force.graph.api.Vertex;
 import com.typedb.force.graph.api.Simulation;
 import com.typedb.force.graph.api.Force;
+import com.typedb.force.graph.force.CenterForce;
 import com.typedb.force.graph.force.CollideForce;
+import com.typedb.force.graph.force.LinkForce;
 import com.typedb.force.graph.force.ManyBodyForce;
+import com.typedb.force.graph.quadtree.ArrayQuadtree;
+import com.typedb.force.graph.util.MortonCode;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 import static java.util.Objects.requireNonNull;
 
@@ -47,6 +59,37 @@ public class BasicSimulation implements Simulation {
     private final Forces forces;
     private final Forces localForces;
     private final List<Vertex> vertices;
+    private final List<Vertex> spatialOrder;
+    private long[] spatialKeys;
+    private int spatialReorderInterval;
+    private int ticksSinceSpatialReorder;
+    private int spatialOrderVersion; // the vertex version of the vertices in the spatial order
+    private double kineticEnergy;
+    private double maxDisplacement;
+    private final Map<Vertex, Integer> universeIndices;
+    private Vertex[] universe;
+    private int[] universeIds;
+    private int universeSize;
+    private int universeVertexCount;
+    private int universeLocalVertexCount;
+    private int universeLocalVersion;
+    private int universeVersion; // incremented whenever the universe is rebuilt and its indices change
+    private Vertex[] universeVertices; // the simulation's vertices by id, as of the last refresh of the universe
+    private int vertexVersion; // incremented whenever a vertex already in the universe is removed or replaced
+    private Vertex[] universeLocalVertices; // the vertices of the local forces in turn, as of the last rebuild
+    private final PositionSnapshots snapshots;
+    private boolean isPublishingSnapshots;
+    private boolean isPlacingNearNeighbours;
+    private final Set<Vertex> placedVertices;
+    private List<Vertex> activeVertices; // null unless reheated locally
+    private final Set<Vertex> activeSet;
+    private double sleepSpeed;
+    private int sleepTicks;
+    private double wakeRadius;
+    private SleepTracker sleeper; // null unless sleeping is on
+    private int activatedAwakeVersion; // the version of the sleeper's awake list when the forces were last activated
+    private MetricsRecorder metrics;
+    private ChangeFeed changes;
 
     private static final int INITIAL_PLACEMENT_RADIUS = 10;
     private static final double INITIAL_PLACEMENT_ANGLE = Math.PI * (3 - Math.sqrt(5));
@@ -55,15 +98,50 @@ public class BasicSimulation implements Simulation {
         this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
     }
 
+    /**
+     * Creates a simulation that runs on its own pool of the given number of threads. The pool is only started on
+     * the first parallel tick, and is shut down by {@link #close()}.
+     */
     public BasicSimulation(int parallelism) {
+        this(null, parallelism);
+    }
+
+    /**
+     * Creates a simulation that runs on the given fork-join pool, with the pool's parallelism. The pool may be shared
+     * between simulations, and is not shut down by {@link #close()}.
+     */
+    public BasicSimulation(ForkJoinPool pool) {
+        this(requireNonNull(pool), pool.getParallelism());
+    }
+
+    /**
+     * Creates a simulation that splits its work into the given number of tasks on the given executor, such as a
+     * pool shared between simulations or, on Java 21 and later, a virtual-thread-per-task executor. The executor is
+     * not shut down by {@link #close()}. Executors other than a {@link ForkJoinPool} do not support work-stealing,
+     * so the inter-body forces are instead applied by tasks that claim blocks of vertices in turn, and
+     * {@link #tick(int)} runs its ticks one at a time.
+     */
+    public BasicSimulation(ExecutorService executor, int parallelism) {
         alpha = 1;
         alphaMin = 0.001;
         alphaDecay = 1 - Math.pow(alphaMin, 1.0 / 300);
         alphaTarget = 0;
         velocityDecay = 0.6;
         vertices = Collections.synchronizedList(new ArrayList<>());
-        forces = Forces.global(vertices, parallelism);
+        forces = Forces.global(vertices, parallelism, executor);
         localForces = Forces.local();
+        spatialOrder = new ArrayList<>();
+        spatialKeys = new long[0];
+        spatialReorderInterval = 0;
+        universeIndices = new HashMap<>();
+        universe = new Vertex[0];
+        universeIds = new int[0];
+        universeVertices = universeLocalVertices = new Vertex[0];
+        snapshots = new PositionSnapshots();
+        isPublishingSnapshots = false;
+        isPlacingNearNeighbours = false;
+        placedVertices = new HashSet<>();
+        activeSet = new HashSet<>();
     }
 
     @Override
@@ -84,27 +162,549 @@ public class BasicSimulation implements Simulation {
     @Override
     public synchronized void tick() {
         alpha += (alphaTarget - alpha) * alphaDecay;
+        if (metrics != null) metrics.beginTick(alpha, vertices.size(), forces.forces, localForces.forces);
+        refreshUniverse();
+        boolean isSleeping = false;
+        if (activeVertices != null) {
+            forces.partitionOrder = activeVertices;
+        } else if (sleeper != null) {
+            wakeDisturbed();
+            isSleeping = sleeper.sleepingCount() > 0;
+            List<Vertex> awake = isSleeping ? sleeper.awakeVertices() : null;
+            if (awake != forces.activeVertices || sleeper.awakeVersion() != activatedAwakeVersion) {
+                forces.activate(awake, isSleeping ? sleeper.awakeSet() : null);
+                localForces.activate(awake, isSleeping ? sleeper.awakeSet() : null);
+                activatedAwakeVersion = sleeper.awakeVersion();
+            }
+            if (isSleeping) forces.partitionOrder = awake;
+            else refreshPartitionOrder();
+            if (metrics != null) metrics.recordSleeping(sleeper.sleepingCount());
+        } else {
+            refreshPartitionOrder();
+        }
 
         forces.applyAll(alpha);
         localForces.applyAll(alpha);
 
-        Collection<Vertex> allVertices = Stream.concat(
-                getVertices().stream(),
-                localForces.forces.stream().flatMap(force -> force.vertices().stream())
-        ).collect(Collectors.toSet());
+        long integrationStart = metrics == null ? 0 : System.nanoTime();
+        if (changes != null) changes.prepare(vertices.size(), universeSize);
+        double energy = 0, maxDisplacement2 = 0;
+        if (isSleeping) {
+            int[] awake = sleeper.awakeIndices();
+            for (int a = 0, count = sleeper.awakeCount(); a < count; a++) {
+                int i = awake[a];
+                Vertex vertex = universe[i];
+                double v2 = integrate(vertex);
+                energy += v2;
+                if (v2 > maxDisplacement2) maxDisplacement2 = v2;
+                sleeper.settle(i, v2);
+                if (changes != null && universeIds[i] >= 0) changes.track(0, universeIds[i], vertex.getX(), vertex.getY());
+            }
+        } else if (activeVertices == null) {
+            for (int i = 0; i < universeSize; i++) {
+                Vertex vertex = universe[i];
+                double v2 = integrate(vertex);
+                energy += v2;
+                if (v2 > maxDisplacement2) maxDisplacement2 = v2;
+                if (sleeper != null) sleeper.settle(i, v2);
+                if (changes != null && universeIds[i] >= 0) changes.track(0, universeIds[i], vertex.getX(), vertex.getY());
+            }
+        } else {
+            for (Vertex vertex : activeVertices) {
+                Integer index = universeIndices.get(vertex);
+                if (index == null) continue; // removed from the simulation since it was reheated
+                double v2 = integrate(vertex);
+                energy += v2;
+                if (v2 > maxDisplacement2) maxDisplacement2 = v2;
+                if (changes != null && universeIds[index] >= 0) changes.track(0, universeIds[index], vertex.getX(), vertex.getY());
+            }
+        }
+        if (sleeper != null && activeVertices == null) sleeper.endTick(universe);
+        kineticEnergy = energy / 2;
+        maxDisplacement = Math.sqrt(maxDisplacement2);
+        publishSnapshot();
+        if (changes != null) changes.publish();
+        if (metrics != null) {
+            metrics.recordIntegration(System.nanoTime() - integrationStart);
+            metrics.endTick();
+        }
+        if (activeVertices != null && alpha <= alphaMin) endLocalReheat();
+    }
+
+    /**
+     * Applies velocity decay to a vertex and moves it by its velocity, and returns its squared displacement.
+     */
+    private double integrate(Vertex vertex) {
+        if (vertex.isXFixed()) vertex.setVX(0);
+        else {
+            vertex.setVX(vertex.getVX() * velocityDecay);
+            vertex.setX(vertex.getX() + vertex.getVX());
+        }
+        if (vertex.isYFixed()) vertex.setVY(0);
+        else {
+            vertex.setVY(vertex.getVY() * velocityDecay);
+            vertex.setY(vertex.getY() + vertex.getVY());
+        }
+        return vertex.getVX() * vertex.getVX() + vertex.getVY() * vertex.getVY();
+    }
+
+    /**
+     * Reheats part of a settled layout, such as the vertices just added or moved, without reheating the rest. The
+     * given vertices, the vertices within the given number of {@link LinkForce} hops of them, and the vertices within
+     * the given distance of them become active, and alpha is set to the given value. Until alpha has decayed to
+     * alphaMin again, or {@link #endLocalReheat()} is called, ticks only apply forces to and integrate the active
+     * vertices. The other vertices stay frozen, but still act on the active ones through the quadtrees and links, so
+     * a tick costs time proportional to the active vertices, apart from building the quadtrees. A
+     * {@link CenterForce} is not applied, as it would pull the active vertices away from the frozen ones.
+     * <p>
+     * Vertices placed while reheated locally are active, and reheating again adds to the active vertices. A radius
+     * of 0 or less selects no vertices by distance; selecting them scans every vertex once.
+     */
+    public synchronized BasicSimulation reheat(Collection<Vertex> vertices, int hops, double radius, double alpha) {
+        refreshUniverse();
+        wakeAll();
+        if (activeVertices == null) {
+            activeVertices = new ArrayList<>();
+            activeSet.clear();
+        }
+        List<Vertex> frontier = new ArrayList<>();
+        for (Vertex vertex : vertices) {
+            if (universeIndices.containsKey(vertex) && activeSet.add(vertex)) activeVertices.add(vertex);
+            frontier.add(vertex);
+        }
+        if (radius > 0) activateWithin(frontier, radius);
+        for (int hop = 0; hop < hops && !frontier.isEmpty(); hop++) {
+            List<Vertex> next = new ArrayList<>();
+            for (List<Force> forceList : List.of(forces.forces, localForces.forces)) {
+                for (Force force : forceList) {
+                    if (!(force instanceof LinkForce)) continue;
+                    for (Vertex vertex : frontier) {
+                        for (Vertex neighbour : ((LinkForce) force).neighbours(vertex)) {
+                            if (universeIndices.containsKey(neighbour) && activeSet.add(neighbour)) {
+                                activeVertices.add(neighbour);
+                                next.add(neighbour);
+                            }
+                        }
+                    }
+                }
+            }
+            frontier = next;
+        }
+        this.alpha = alpha;
+        forces.activate(activeVertices, activeSet);
+        localForces.activate(activeVertices, activeSet);
+        return this;
+    }
 
-        for (Vertex vertex : allVertices) {
-            if (vertex.isXFixed()) vertex.setVX(0);
-            else {
-                vertex.setVX(vertex.getVX() * velocityDecay);
-                vertex.setX(vertex.getX() + vertex.getVX());
+    /**
+     * Activates every vertex within the given distance of one of the given vertices, which are bucketed into a grid of
+     * cells as wide as the distance, so that each vertex only has to be compared with those in the cells around it.
+     */
+    private void activateWithin(List<Vertex> centres, double radius) {
+        Map<Long, List<Vertex>> cells = new HashMap<>();
+        for (Vertex centre : centres) {
+            cells.computeIfAbsent(cell(Math.floor(centre.getX() / radius), Math.floor(centre.getY() / radius)), key -> new ArrayList<>()).add(centre);
+        }
+        double radius2 = radius * radius;
+        for (int i = 0; i < universeSize; i++) {
+            Vertex vertex = universe[i];
+            if (activeSet.contains(vertex)) continue;
+            double cellX = Math.floor(vertex.getX() / radius), cellY = Math.floor(vertex.getY() / radius);
+            search:
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (Vertex centre : cells.getOrDefault(cell(cellX + dx, cellY + dy), List.of())) {
+                        double x = vertex.getX() - centre.getX(), y = vertex.getY() - centre.getY();
+                        if (x*x + y*y <= radius2) {
+                            activeSet.add(vertex);
+                            activeVertices.add(vertex);
+                            break search;
+                        }
+                    }
+                }
             }
-            if (vertex.isYFixed()) vertex.setVY(0);
-            else {
-                vertex.setVY(vertex.getVY() * velocityDecay);
-                vertex.setY(vertex.getY() + vertex.getVY());
+        }
+    }
+
+    private static long cell(double x, double y) {
+        return ((long) x << 32) ^ ((long) y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Ends a local reheat (see {@link #reheat(Collection, int, double, double)}), so that every vertex is active
+     * again. Alpha is left as it is.
+     */
+    public synchronized BasicSimulation endLocalReheat() {
+        activeVertices = null;
+        activeSet.clear();
+        forces.activate(null, null);
+        localForces.activate(null, null);
+        forces.partitionOrder = spatialReorderInterval > 0 && isSpatialOrderCurrent() ? spatialOrder : vertices;
+        return this;
+    }
+
+    public boolean isReheatedLocally() {
+        return activeVertices != null;
+    }
+
+    /**
+     * Returns the vertices that ticks apply forces to: those of a local reheat, or otherwise all of them.
+     */
+    public synchronized List<Vertex> getActiveVertices() {
+        return Collections.unmodifiableList(activeVertices == null ? vertices : activeVertices);
+    }
+
+    /**
+     * Lets settled vertices fall asleep, so that the slow tail of a layout only costs time for the vertices that are
+     * still moving. A vertex that moves no further than the given speed in each of the given number of consecutive
+     * ticks falls asleep: its velocity is zeroed, and ticks neither apply forces to it nor integrate it, though it
+     * still acts on the awake vertices through the quadtrees and links. A sleeping vertex wakes when an awake vertex
+     * within the wake radius of it moves faster than the sleep speed, when an edge of a {@link LinkForce} to it is
+     * added or removed, when its position is changed from outside the simulation, as when it is dragged, or when it
+     * is passed to {@link #wake(Collection)}. While any vertex sleeps, a {@link CenterForce} is not applied, as it
+     * would pull the awake vertices away from the sleeping ones.
+     * <p>
+     * A speed of 0 or less turns sleeping off and wakes every vertex, as do removing vertices and a local reheat (see
+     * {@link #reheat(Collection, int, double, double)}), during which sleeping is suspended. A tick still builds the
+     * quadtrees over every vertex, and checks each sleeping vertex for a change of position.
+     */
+    public synchronized BasicSimulation setSleeping(double speed, int ticks, double wakeRadius) {
+        if (ticks < 1) throw new IllegalArgumentException("A vertex must be calm for at least one tick to fall asleep.");
+        sleepSpeed = Math.max(0, speed);
+        sleepTicks = ticks;
+        this.wakeRadius = wakeRadius;
+        if (sleeper != null) wakeAll();
+        sleeper = sleepSpeed > 0 ? new SleepTracker(sleepSpeed, ticks, wakeRadius) : null;
+        return this;
+    }
+
+    /**
+     * Returns the speed below which vertices fall asleep, or 0 if sleeping is off.
+     */
+    public double getSleepSpeed() {
+        return sleepSpeed;
+    }
+
+    public int getSleepTicks() {
+        return sleepTicks;
+    }
+
+    public double getWakeRadius() {
+        return wakeRadius;
+    }
+
+    /**
+     * Wakes the given vertices, such as those about to be moved by hand, if they are asleep.
+     */
+    public synchronized BasicSimulation wake(Collection<Vertex> vertices) {
+        if (sleeper == null) return this;
+        for (Vertex vertex : vertices) {
+            Integer index = universeIndices.get(vertex);
+            if (index != null) sleeper.wake(index);
+        }
+        if (sleeper.hasWoken()) sleeper.refreshAwake(universe);
+        return this;
+    }
+
+    public synchronized boolean isAsleep(Vertex vertex) {
+        Integer index = universeIndices.get(vertex);
+        return sleeper != null && index != null && sleeper.isAsleep(index);
+    }
+
+    public synchronized int getSleepingVertexCount() {
+        return sleeper == null ? 0 : sleeper.sleepingCount();
+    }
+
+    private void wakeAll() {
+        if (sleeper == null) return;
+        sleeper.wakeAll(universe);
+        forces.activate(activeVertices, activeVertices == null ? null : activeSet);
+        localForces.activate(activeVertices, activeVertices == null ? null : activeSet);
+    }
+
+    /**
+     * Wakes the sleeping vertices whose links have changed, or that have been moved since they fell asleep. Vertices
+     * added to the simulation start awake.
+     */
+    private void wakeDisturbed() {
+        sleeper.refresh(universe, universeSize, universeVersion);
+        for (List<Force> forceList : List.of(forces.forces, localForces.forces)) {
+            for (Force force : forceList) {
+                if (!(force instanceof LinkForce)) continue;
+                for (Vertex vertex : ((LinkForce) force).takeChangedVertices()) {
+                    Integer index = universeIndices.get(vertex);
+                    if (index != null) sleeper.wake(index);
+                }
             }
         }
+        sleeper.wakeMoved(universe);
+        if (sleeper.hasWoken()) sleeper.refreshAwake(universe);
+    }
+
+    /**
+     * Adds a listener that is passed the timings and statistics of every tick (see {@link TickMetrics}). Metrics are
+     * only recorded while at least one listener is registered; otherwise ticks carry no instrumentation.
+     */
+    public synchronized BasicSimulation addMetricsListener(MetricsListener listener) {
+        if (metrics == null) {
+            metrics = new MetricsRecorder(forces.workerSlotCount());
+            forces.metrics = localForces.metrics = metrics;
+        }
+        metrics.listeners().add(requireNonNull(listener));
+        return this;
+    }
+
+    /**
+     * Sets the listener that is passed, at the end of every tick, the vertices that have moved by more than the given
+     * distance since they were last passed to it, with their new positions (see {@link ChangeSet}). Vertices are
+     * collected while they are integrated, so the cost of the feed scales with the number of vertices that move
+     * rather than with the size of the graph. The first tick after the listener is set, or after vertices have been
+     * removed, reports every vertex. A null listener turns the feed off.
+     */
+    public synchronized BasicSimulation setChangeListener(ChangeListener listener, double epsilon) {
+        if (listener == null) changes = null;
+        else changes = new ChangeFeed(listener, epsilon, forces.threadCount);
+        return this;
+    }
+
+    public synchronized boolean removeMetricsListener(MetricsListener listener) {
+        if (metrics == null || !metrics.listeners().remove(listener)) return false;
+        if (metrics.listeners().isEmpty()) metrics = forces.metrics = localForces.metrics = null;
+        return true;
+    }
+
+    public PositionSnapshots snapshots() {
+        return snapshots;
+    }
+
+    public boolean isPublishingSnapshots() {
+        return isPublishingSnapshots;
+    }
+
+    /**
+     * Sets whether the vertex positions are published to {@link #snapshots()} at the end of every tick, for threads
+     * that read positions while the simulation is ticking.
+     */
+    public synchronized BasicSimulation setPublishingSnapshots(boolean value) {
+        isPublishingSnapshots = value;
+        return this;
+    }
+
+    private void publishSnapshot() {
+        if (!isPublishingSnapshots) return;
+        synchronized (vertices) {
+            int size = vertices.size();
+            PositionSnapshots.Buffer buffer = snapshots.beginFrame(size);
+            double[] x = buffer.x(), y = buffer.y();
+            for (int i = 0; i < size; i++) {
+                Vertex vertex = vertices.get(i);
+                x[i] = vertex.getX();
+                y[i] = vertex.getY();
+            }
+            snapshots.endFrame(buffer);
+        }
+    }
+
+    /**
+     * Brings the set of vertices to integrate up to date: every vertex of the simulation and of its local forces, each
+     * once. Vertices placed since the last tick are appended. The set is rebuilt when the vertices that were already
+     * in it have changed: when a local force has been added or removed, or the vertices of the simulation or of a
+     * local force are no longer those indexed, one for one, as after a vertex has been removed or replaced. Checking
+     * them costs a reference comparison per vertex.
+     */
+    private void refreshUniverse() {
+        int localVertexCount = 0;
+        for (Force force : localForces.forces) localVertexCount += force.vertices().size();
+        boolean isLocalStale = localForces.version != universeLocalVersion || localVertexCount != universeLocalVertexCount || !isLocalUnchanged();
+        boolean isVertexStale = vertices.size() < universeVertexCount || !isVertexUnchanged();
+        if (isLocalStale || isVertexStale) {
+            // Removing or replacing vertices changes which vertex has each id, so every position must be reported afresh
+            if (isVertexStale) {
+                vertexVersion++;
+                if (changes != null) changes.reset();
+            }
+            universeIndices.clear();
+            universeSize = 0;
+            universeVersion++;
+            forces.refreshTargets();
+            localForces.refreshTargets();
+            if (universeLocalVertices.length < localVertexCount) universeLocalVertices = new Vertex[localVertexCount];
+            int local = 0;
+            for (Force force : localForces.forces) {
+                for (Vertex vertex : force.vertices()) {
+                    universeLocalVertices[local++] = vertex;
+                    addToUniverse(vertex);
+                }
+            }
+            universeVertexCount = 0;
+            universeLocalVertexCount = localVertexCount;
+            universeLocalVersion = localForces.version;
+        }
+        synchronized (vertices) {
+            int vertexCount = vertices.size();
+            if (universeVertices.length < vertexCount) universeVertices = Arrays.copyOf(universeVertices, Math.max(vertexCount, 2 * universeVertices.length));
+            for (int i = universeVertexCount; i < vertexCount; i++) {
+                Vertex vertex = vertices.get(i);
+                universeVertices[i] = vertex;
+                int index = addToUniverse(vertex);
+                universeIds[index] = i;
+            }
+            universeVertexCount = vertexCount;
+        }
+    }
+
+    private boolean isLocalUnchanged() {
+        int local = 0;
+        for (Force force : localForces.forces) {
+            for (Vertex vertex : force.vertices()) {
+                if (universeLocalVertices[local++] != vertex) return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isVertexUnchanged() {
+        synchronized (vertices) {
+            for (int i = 0; i < universeVertexCount; i++) {
+                if (vertices.get(i) != universeVertices[i]) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the vertex to the universe if it is not already there, initially without an id, and returns its index.
+     */
+    private int addToUniverse(Vertex vertex) {
+        Integer index = universeIndices.putIfAbsent(vertex, universeSize);
+        if (index != null) return index;
+        if (universeSize == universe.length) {
+            universe = Arrays.copyOf(universe, Math.max(16, 2 * universeSize));
+            universeIds = Arrays.copyOf(universeIds, universe.length);
+        }
+        universeIds[universeSize] = -1; // vertices only subject to local forces have no id
+        universe[universeSize] = vertex;
+        return universeSize++;
+    }
+
+    /**
+     * Runs the given number of ticks in a single parallel region. One worker per thread runs for the whole batch, the
+     * calling thread being the first, and the workers meet at a barrier between the phases of each tick: building
+     * the quadtrees, applying the inter-body forces, applying the remaining forces, and integrating. The vertex set
+     * to integrate is refreshed once per batch, so vertices and forces must not be changed during the batch.
+     */
+    @Override
+    public synchronized void tick(int ticks) {
+        if (ticks <= 0) return;
+        if (activeVertices != null || sleeper != null || (forces.threadCount > 1 && !(forces.executor() instanceof ForkJoinPool))) {
+            // Workers waiting at a barrier could hold every thread of a shared executor, so tick one at a time; a
+            // local reheat is small enough to gain little from a batch, and sleeping changes the active vertices
+            // from one tick to the next
+            for (int t = 0; t < ticks; t++) tick();
+            return;
+        }
+        new Batch(ticks).run();
+    }
+
+    @Override
+    public double getKineticEnergy() {
+        return kineticEnergy;
+    }
+
+    @Override
+    public double getMaxDisplacement() {
+        return maxDisplacement;
+    }
+
+    public int getSpatialReorderInterval() {
+        return spatialReorderInterval;
+    }
+
+    /**
+     * Sets how often, in ticks, the order in which vertices are partitioned across threads is re-sorted along a
+     * Z-order (Morton) curve, so that each partition holds spatially close vertices that walk the same parts of the
+     * quadtrees. The order returned by {@link #getVertices()} is unaffected. A value of 0 disables reordering.
+     */
+    public synchronized BasicSimulation setSpatialReorderInterval(int ticks) {
+        spatialReorderInterval = ticks;
+        ticksSinceSpatialReorder = 0;
+        spatialOrder.clear();
+        return this;
+    }
+
+    /**
+     * Returns the spatial partition order, or an empty list if the vertices have changed since it was last sorted.
+     */
+    synchronized List<Vertex> spatialOrder() {
+        refreshUniverse();
+        return isSpatialOrderCurrent() ? spatialOrder : List.of();
+    }
+
+    int ticksSinceSpatialReorder() {
+        return ticksSinceSpatialReorder;
+    }
+
+    /**
+     * Restores the state that a tick carries over to the next, other than the vertices and forces, as saved by a
+     * {@link Checkpoint}.
+     */
+    synchronized void restoreTickState(double kineticEnergy, double maxDisplacement, List<Vertex> spatialOrder,
+                                       int ticksSinceSpatialReorder) {
+        this.kineticEnergy = kineticEnergy;
+        this.maxDisplacement = maxDisplacement;
+        refreshUniverse();
+        this.spatialOrder.clear();
+        this.spatialOrder.addAll(spatialOrder);
+        spatialOrderVersion = vertexVersion;
+        this.ticksSinceSpatialReorder = ticksSinceSpatialReorder;
+        if (!spatialOrder.isEmpty()) forces.partitionOrder = this.spatialOrder;
+    }
+
+    private void refreshPartitionOrder() {
+        if (spatialReorderInterval <= 0) {
+            forces.partitionOrder = vertices;
+            return;
+        }
+        boolean isStale = !isSpatialOrderCurrent();
+        if (!isStale && ++ticksSinceSpatialReorder < spatialReorderInterval) return;
+        if (isStale) {
+            spatialOrder.clear();
+            spatialOrder.addAll(vertices);
+            spatialOrderVersion = vertexVersion;
+        }
+        sortSpatially();
+        ticksSinceSpatialReorder = 0;
+        forces.partitionOrder = spatialOrder;
+    }
+
+    /**
+     * Returns whether the spatial order holds the simulation's vertices, which must have been refreshed into the
+     * universe: none have been placed, removed or replaced since it was last rebuilt.
+     */
+    private boolean isSpatialOrderCurrent() {
+        return spatialOrder.size() == vertices.size() && spatialOrderVersion == vertexVersion;
+    }
+
+    private void sortSpatially() {
+        int n = spatialOrder.size();
+        double x0 = Double.MAX_VALUE, y0 = x0, x1 = -x0, y1 = x1;
+        for (int i = 0; i < n; i++) {
+            Vertex vertex = spatialOrder.get(i);
+            x0 = Math.min(x0, vertex.getX()); x1 = Math.max(x1, vertex.getX());
+            y0 = Math.min(y0, vertex.getY()); y1 = Math.max(y1, vertex.getY());
+        }
+        double size = Math.max(x1 - x0, y1 - y0);
+        // Each key holds the unsigned Morton code above the vertex's current position, which fits in 31 bits, so that
+        // every key is positive and the keys sort in curve order
+        if (spatialKeys.length < n) spatialKeys = new long[n];
+        for (int i = 0; i < n; i++) {
+            Vertex vertex = spatialOrder.get(i);
+            spatialKeys[i] = (Integer.toUnsignedLong(MortonCode.encode(vertex.getX(), vertex.getY(), x0, y0, size)) << 31) | i;
+        }
+        Arrays.sort(spatialKeys, 0, n);
+        Vertex[] sorted = new Vertex[n];
+        for (int i = 0; i < n; i++) sorted[i] = spatialOrder.get((int) (spatialKeys[i] & Integer.MAX_VALUE));
+        for (int i = 0; i < n; i++) spatialOrder.set(i, sorted[i]);
     }
 
     @Override
@@ -115,13 +715,91 @@ public class BasicSimulation implements Simulation {
     @Override
     public synchronized void placeVertex(Vertex vertex) {
         int id = vertices.size();
-        double radius = INITIAL_PLACEMENT_RADIUS * Math.sqrt(0.5 + id);
         double angle = id * INITIAL_PLACEMENT_ANGLE;
+        if (activeVertices != null && activeSet.add(vertex)) activeVertices.add(vertex); // the forces see it as they check the active count
+        if (isPlacingNearNeighbours) {
+            refreshPlacedVertices();
+            placedVertices.add(vertex);
+            if (placeNearNeighbours(vertex, angle)) {
+                vertices.add(vertex);
+                return;
+            }
+        }
+        double radius = INITIAL_PLACEMENT_RADIUS * Math.sqrt(0.5 + id);
         vertex.setX(vertex.getX() + (vertex.isXFixed() ? 0 : radius * Math.cos(angle)));
         vertex.setY(vertex.getY() + (vertex.isYFixed() ? 0 : radius * Math.sin(angle)));
         vertices.add(vertex);
     }
 
+    public boolean isSchedulingByCost() {
+        return forces.isSchedulingByCost;
+    }
+
+    /**
+     * Sets whether a single parallel tick on a {@link ForkJoinPool} splits the inter-body forces recursively at
+     * midpoints weighted by each block's wall time on the previous tick, with idle workers stealing the halves others
+     * have not started. By default the work is instead cut into a fixed number of equal tasks. Scheduling by cost is
+     * meant to cut the tail latency of ticks on graphs with very uneven density, but is off until it has been measured
+     * on several cores.
+     */
+    public synchronized BasicSimulation setSchedulingByCost(boolean value) {
+        forces.isSchedulingByCost = value;
+        return this;
+    }
+
+    public boolean isPlacingNearNeighbours() {
+        return isPlacingNearNeighbours;
+    }
+
+    /**
+     * Sets whether {@link #placeVertex(Vertex)} places a vertex that a {@link LinkForce} links to vertices already in
+     * the simulation near the barycentre of those neighbours, rather than on the placement spiral. It is placed a small
+     * step away from the barycentre, or a link's distance away if it has only one such neighbour, in the direction it
+     * would have taken on the spiral. A vertex added to a settled layout then starts close to
+     * where it belongs, and settles in a few ticks rather than a full alpha cycle. The edges of a vertex must be added
+     * to the link forces before the vertex is placed.
+     */
+    public synchronized BasicSimulation setPlacingNearNeighbours(boolean value) {
+        isPlacingNearNeighbours = value;
+        if (!value) placedVertices.clear();
+        return this;
+    }
+
+    /**
+     * Brings the set of placed vertices up to date with the vertex list, if vertices have been added to or removed
+     * from it directly.
+     */
+    private void refreshPlacedVertices() {
+        if (placedVertices.size() == vertices.size()) return;
+        placedVertices.clear();
+        synchronized (vertices) {
+            placedVertices.addAll(vertices);
+        }
+    }
+
+    private boolean placeNearNeighbours(Vertex vertex, double angle) {
+        double x = 0, y = 0, distance = 0;
+        int count = 0;
+        for (List<Force> forceList : List.of(forces.forces, localForces.forces)) {
+            for (Force force : forceList) {
+                if (!(force instanceof LinkForce)) continue;
+                for (Vertex neighbour : ((LinkForce) force).neighbours(vertex)) {
+                    if (neighbour == vertex || !placedVertices.contains(neighbour)) continue;
+                    x += neighbour.getX();
+                    y += neighbour.getY();
+                    distance = ((LinkForce) force).getDistance();
+                    count++;
+                }
+            }
+        }
+        if (count == 0) return false;
+        // A vertex with one neighbour goes where its link would pull it; one with more is pulled between them
+        double radius = count == 1 ? distance : INITIAL_PLACEMENT_RADIUS;
+        if (!vertex.isXFixed()) vertex.setX(x / count + radius * Math.cos(angle));
+        if (!vertex.isYFixed()) vertex.setY(y / count + radius * Math.sin(angle));
+        return true;
+    }
+
     @Override
     public double getAlpha() {
         return alpha;
@@ -177,33 +855,294 @@ public class BasicSimulation implements Simulation {
         return this;
     }
 
+    /**
+     * Shuts down the simulation's own thread pool, if it has started one. An executor passed in by the caller is left
+     * running. The simulation cannot tick in parallel once closed.
+     */
+    @Override
+    public synchronized void close() {
+        forces.close();
+    }
+
     @Override
     public synchronized void clear() {
+        endLocalReheat();
+        wakeAll();
         forces.clear();
         vertices.clear();
+        spatialOrder.clear();
+        kineticEnergy = 0;
+        maxDisplacement = 0;
+    }
+
+    private class Batch {
+        private final int ticks;
+        private final int workerCount;
+        private final Phaser phaser;
+        private final List<Force> treeForces;
+        private final List<Force> singleBodyForces;
+        private final int[] treeForceIndices;
+        private final int[] singleBodyForceIndices;
+        private final MetricsRecorder metrics;
+        private final List<List<Vertex>> blocks;
+        private final AtomicInteger nextBlock;
+        private final double[] energies;
+        private final double[] maxDisplacements2;
+        private volatile Throwable failure;
+
+        private Batch(int ticks) {
+            this.ticks = ticks;
+            workerCount = forces.threadCount;
+            phaser = new Phaser(workerCount);
+            refreshUniverse();
+            if (changes != null) changes.prepare(vertices.size(), universeSize / workerCount + 1);
+            treeForces = new ArrayList<>();
+            singleBodyForces = new ArrayList<>();
+            treeForceIndices = new int[forces.forces.size()];
+            singleBodyForceIndices = new int[forces.forces.size()];
+            for (int f = 0; f < forces.forces.size(); f++) {
+                Force force = forces.forces.get(f);
+                if (force instanceof ManyBodyForce || force instanceof CollideForce) {
+                    treeForceIndices[treeForces.size()] = f;
+                    treeForces.add(force);
+                } else {
+                    singleBodyForceIndices[singleBodyForces.size()] = f;
+                    singleBodyForces.add(force);
+                }
+            }
+            metrics = BasicSimulation.this.metrics;
+            // The partition order keeps its size during the batch, so it is only ever re-sorted in place
+            refreshPartitionOrder();
+            List<Vertex> partitionOrder = forces.partitionOrder;
+            blocks = new ArrayList<>();
+            for (int from = 0; from < partitionOrder.size(); from += Forces.BLOCK_SIZE) {
+                blocks.add(partitionOrder.subList(from, Math.min(partitionOrder.size(), from + Forces.BLOCK_SIZE)));
+            }
+            nextBlock = new AtomicInteger();
+            energies = new double[workerCount];
+            maxDisplacements2 = new double[workerCount];
+        }
+
+        private void run() {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int w = 1; w < workerCount; w++) {
+                int worker = w;
+                workers.add(forces.executor().submit(() -> work(worker)));
+            }
+            work(0);
+            for (Future<?> future : workers) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            if (failure != null) throw new RuntimeException(failure);
+            reduceEnergy();
+            publishSnapshot();
+            if (changes != null) changes.publish();
+            if (metrics != null) metrics.endTick();
+        }
+
+        /**
+         * When metrics are recorded, worker 0 also times each phase from one barrier to the next, and the other
+         * workers wait at an extra barrier at the start of each tick while it hands over the previous tick's metrics.
+         */
+        private void work(int worker) {
+            try {
+                long phaseStart = 0;
+                for (int t = 0; t < ticks; t++) {
+                    if (worker == 0) {
+                        if (t > 0) {
+                            reduceEnergy();
+                            publishSnapshot();
+                            if (changes != null) changes.publish();
+                            if (metrics != null) metrics.endTick();
+                            refreshPartitionOrder();
+                        }
+                        alpha += (alphaTarget - alpha) * alphaDecay;
+                        nextBlock.set(0);
+                        if (metrics != null) {
+                            metrics.beginTick(alpha, vertices.size(), forces.forces, localForces.forces);
+                            phaseStart = System.nanoTime();
+                        }
+                    }
+                    if (metrics != null && phaser.arriveAndAwaitAdvance() < 0) return;
+
+                    for (int i = worker; i < treeForces.size(); i += workerCount) {
+                        long start = metrics == null ? 0 : System.nanoTime();
+                        Forces.buildQuadtree(treeForces.get(i));
+                        if (metrics != null) metrics.recordQuadtree(treeForceIndices[i], System.nanoTime() - start);
+                    }
+                    if (phaser.arriveAndAwaitAdvance() < 0) return;
+                    if (worker == 0 && metrics != null) {
+                        long now = System.nanoTime();
+                        metrics.recordQuadtrees(now - phaseStart);
+                        phaseStart = now;
+                    }
+
+                    for (int b = nextBlock.getAndIncrement(); b < blocks.size(); b = nextBlock.getAndIncrement()) {
+                        if (metrics == null) {
+                            for (Force force : treeForces) force.apply(blocks.get(b), alpha);
+                        } else {
+                            for (int i = 0; i < treeForces.size(); i++) {
+                                long start = System.nanoTime();
+                                treeForces.get(i).apply(blocks.get(b), alpha);
+                                metrics.recordInterBody(worker, treeForceIndices[i], System.nanoTime() - start);
+                            }
+                        }
+                    }
+                    if (phaser.arriveAndAwaitAdvance() < 0) return;
+                    if (worker == 0 && metrics != null) {
+                        long now = System.nanoTime();
+                        metrics.recordInterBody(now - phaseStart);
+                        phaseStart = now;
+                    }
+
+                    // A parallel LinkForce applies its edges serially in colour order here, with the same result
+                    if (worker == 0) {
+                        for (int i = 0; i < singleBodyForces.size(); i++) {
+                            long start = metrics == null ? 0 : System.nanoTime();
+                            singleBodyForces.get(i).apply(alpha);
+                            if (metrics != null) metrics.recordForce(singleBodyForceIndices[i], System.nanoTime() - start);
+                        }
+                        if (metrics != null) metrics.recordSingleBody(System.nanoTime() - phaseStart);
+                        localForces.applyAll(alpha);
+                    }
+                    if (phaser.arriveAndAwaitAdvance() < 0) return;
+                    if (worker == 0 && metrics != null) phaseStart = System.nanoTime();
+
+                    integrate(worker);
+                    if (phaser.arriveAndAwaitAdvance() < 0) return;
+                    if (worker == 0 && metrics != null) metrics.recordIntegration(System.nanoTime() - phaseStart);
+                }
+            } catch (Throwable e) {
+                failure = e;
+                phaser.forceTermination();
+            }
+        }
+
+        private void integrate(int worker) {
+            double energy = 0, maxDisplacement2 = 0;
+            int from = (int) ((long) universeSize * worker / workerCount);
+            int to = (int) ((long) universeSize * (worker + 1) / workerCount);
+            for (int i = from; i < to; i++) {
+                Vertex vertex = universe[i];
+                if (vertex.isXFixed()) vertex.setVX(0);
+                else {
+                    vertex.setVX(vertex.getVX() * velocityDecay);
+                    vertex.setX(vertex.getX() + vertex.getVX());
+                }
+                if (vertex.isYFixed()) vertex.setVY(0);
+                else {
+                    vertex.setVY(vertex.getVY() * velocityDecay);
+                    vertex.setY(vertex.getY() + vertex.getVY());
+                }
+                double v2 = vertex.getVX() * vertex.getVX() + vertex.getVY() * vertex.getVY();
+                energy += v2;
+                if (v2 > maxDisplacement2) maxDisplacement2 = v2;
+                if (changes != null && universeIds[i] >= 0) changes.track(worker, universeIds[i], vertex.getX(), vertex.getY());
+            }
+            energies[worker] = energy;
+            maxDisplacements2[worker] = maxDisplacement2;
+        }
+
+        private void reduceEnergy() {
+            double energy = 0, maxDisplacement2 = 0;
+            for (int w = 0; w < workerCount; w++) {
+                energy += energies[w];
+                maxDisplacement2 = Math.max(maxDisplacement2, maxDisplacements2[w]);
+            }
+            kineticEnergy = energy / 2;
+            maxDisplacement = Math.sqrt(maxDisplacement2);
+        }
     }
 
     public static class Forces implements Simulation.Forces {
-        final Collection<Force> forces;
+        final List<Force> forces;
         final List<Vertex> vertices;
+        List<Vertex> partitionOrder;
         private final boolean isLocal;
+        private int version;
         private final int threadCount;
-        private final ExecutorService executor;
+        private ExecutorService executor;
+        private final boolean ownsExecutor;
+        private boolean isClosed;
+        private boolean isSchedulingByCost;
+        private final List<Force> interBodyForces;
+        private int[] interBodyIndices;
+        private long[] blockCosts;
+        private long[] costPrefix;
+        private List<Vertex> activeVertices; // null unless reheated locally or some vertices are asleep
+        private Set<Vertex> activeSet;
+        private int activeVersion; // incremented whenever the active vertices are replaced or may have changed
+        private final Map<Force, ActiveTargets> activeTargets;
+        MetricsRecorder metrics;
+
+        private static final int BLOCK_SIZE = 64;
 
-        private Forces(List<Vertex> vertices, boolean isLocal, int parallelism) {
+        private Forces(List<Vertex> vertices, boolean isLocal, int parallelism, ExecutorService executor) {
             forces = new ArrayList<>();
             this.vertices = vertices;
+            this.partitionOrder = vertices;
             this.isLocal = isLocal;
             threadCount = parallelism;
-            executor = isLocal ? null : Executors.newFixedThreadPool(threadCount);
+            this.executor = executor;
+            ownsExecutor = executor == null;
+            isClosed = false;
+            isSchedulingByCost = false;
+            interBodyForces = new ArrayList<>();
+            interBodyIndices = new int[0];
+            blockCosts = new long[0];
+            costPrefix = new long[1];
+            activeTargets = new IdentityHashMap<>();
         }
 
-        static Forces global(List<Vertex> vertices, int parallelism) {
-            return new Forces(vertices, false, parallelism);
+        static Forces global(List<Vertex> vertices, int parallelism, ExecutorService executor) {
+            return new Forces(vertices, false, parallelism, executor);
         }
 
         static Forces local() {
-            return new Forces(null, true, 1);
+            return new Forces(null, true, 1, null);
+        }
+
+        private ExecutorService executor() {
+            if (isClosed) throw new IllegalStateException("The simulation has been closed.");
+            if (executor == null) executor = new ForkJoinPool(threadCount);
+            return executor;
+        }
+
+        /**
+         * Returns the number of threads expected to apply inter-body forces, each of which records its metrics in its
+         * own slot. Any further threads of a fork-join pool claim slots as they first need them.
+         */
+        int workerSlotCount() {
+            if (executor instanceof ForkJoinPool) return Math.max(threadCount, ((ForkJoinPool) executor).getParallelism());
+            return threadCount;
+        }
+
+        void close() {
+            isClosed = true;
+            if (ownsExecutor && executor != null) executor.shutdown();
+        }
+
+        /**
+         * Restricts the forces to the given active vertices, or lifts the restriction if they are null. The active
+         * vertices of a force with its own vertices are found afresh once the active vertices are next used. The given
+         * list may grow until the next activation, but any other change to it needs a new activation.
+         */
+        void activate(List<Vertex> activeVertices, Set<Vertex> activeSet) {
+            this.activeVertices = activeVertices;
+            this.activeSet = activeSet;
+            activeVersion++;
+            if (activeVertices == null) activeTargets.clear();
+        }
+
+        /**
+         * Finds the active vertices of each force with its own vertices afresh, as those vertices may have changed.
+         */
+        void refreshTargets() {
+            activeVersion++;
         }
 
         void applyAll(double alpha) {
@@ -212,66 +1151,294 @@ public class BasicSimulation implements Simulation {
         }
 
         private void applyAllSerial(double alpha) {
-            forces.forEach(force -> force.apply(alpha));
+            if (metrics == null) {
+                forces.forEach(force -> apply(force, alpha));
+                return;
+            }
+            long start = System.nanoTime(), forceStart = start;
+            for (int f = 0; f < forces.size(); f++) {
+                apply(forces.get(f), alpha);
+                long end = System.nanoTime();
+                metrics.recordLocalForce(f, end - forceStart);
+                forceStart = end;
+            }
+            metrics.recordLocal(forceStart - start);
         }
 
         private void applyAllParallel(double alpha) {
+            if (metrics == null) {
+                buildQuadtrees();
+                applyInterBodyForcesParallel(alpha);
+                applySingleBodyForces(alpha);
+                return;
+            }
+            long start = System.nanoTime();
             buildQuadtrees();
+            long built = System.nanoTime();
+            metrics.recordQuadtrees(built - start);
             applyInterBodyForcesParallel(alpha);
+            long applied = System.nanoTime();
+            metrics.recordInterBody(applied - built);
             applySingleBodyForces(alpha);
+            metrics.recordSingleBody(System.nanoTime() - applied);
         }
 
         private void buildQuadtrees() {
+            int treeCount = 0, largestTree = 0;
             for (Force force : forces) {
-                if (force instanceof CollideForce) ((CollideForce) force).buildQuadtree();
-                else if (force instanceof ManyBodyForce) ((ManyBodyForce) force).buildQuadtree();
+                if (force instanceof CollideForce || force instanceof ManyBodyForce) {
+                    treeCount++;
+                    largestTree = Math.max(largestTree, force.vertices().size());
+                }
+            }
+            if (treeCount == 0) return;
+            if (threadCount == 1 || (treeCount == 1 && largestTree < ArrayQuadtree.PARALLEL_BUILD_THRESHOLD)) {
+                for (int f = 0; f < forces.size(); f++) buildQuadtree(f, false);
+            } else if (largestTree >= ArrayQuadtree.PARALLEL_BUILD_THRESHOLD) {
+                // Large trees are built one at a time, each split across the whole pool
+                for (int f = 0; f < forces.size(); f++) buildQuadtree(f, true);
+            } else {
+                // Smaller trees are independent of each other, so they are built concurrently
+                ArrayList<Future<?>> futures = new ArrayList<>();
+                for (int f = 0; f < forces.size(); f++) {
+                    int index = f;
+                    Force force = forces.get(f);
+                    if (force instanceof CollideForce || force instanceof ManyBodyForce) futures.add(executor().submit(() -> buildQuadtree(index, false)));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
             }
         }
 
+        private void buildQuadtree(int index, boolean isParallel) {
+            Force force = forces.get(index);
+            if (!(force instanceof CollideForce) && !(force instanceof ManyBodyForce)) return;
+            long start = metrics == null ? 0 : System.nanoTime();
+            if (!isParallel) buildQuadtree(force);
+            else if (force instanceof CollideForce) ((CollideForce) force).buildQuadtree(executor(), threadCount);
+            else ((ManyBodyForce) force).buildQuadtree(executor(), threadCount);
+            if (metrics != null) metrics.recordQuadtree(index, System.nanoTime() - start);
+        }
+
+        private static void buildQuadtree(Force force) {
+            if (force instanceof CollideForce) ((CollideForce) force).buildQuadtree();
+            else if (force instanceof ManyBodyForce) ((ManyBodyForce) force).buildQuadtree();
+        }
+
+        /**
+         * Applies the inter-body forces across the executor. The partition order is cut into fixed-size blocks, and on
+         * a fork-join pool the blocks are shared equally between a fixed number of tasks, more tasks than threads
+         * because some blocks may need more time to compute. When scheduling by cost, each block's wall time is
+         * instead recorded so that the next tick can split the block range recursively at cost-weighted midpoints,
+         * and idle workers steal the unsplit halves. On executors other than a fork-join pool, tasks claim one block
+         * at a time until none are left.
+         */
         private void applyInterBodyForcesParallel(double alpha) {
-            int taskCount = 8 * threadCount; // We make more tasks than threads because some tasks may need more time to compute.
-            ArrayList<Future<?>> futures = new ArrayList<>();
-            for (int t = taskCount; t > 0; t--) {
-                int from = (int) Math.floor(vertices.size() * (t - 1) / taskCount);
-                int to = (int) Math.floor(vertices.size() * t / taskCount);
-                Future<?> future = executor.submit(() -> {
-                    final List<Vertex> vertexPartition = vertices.subList(from, to);
-                    for (Force force : forces) {
-                        if (force instanceof ManyBodyForce || force instanceof CollideForce) force.apply(vertexPartition, alpha);
+            interBodyForces.clear();
+            if (interBodyIndices.length < forces.size()) interBodyIndices = new int[forces.size()];
+            for (int f = 0; f < forces.size(); f++) {
+                Force force = forces.get(f);
+                if (force instanceof ManyBodyForce || force instanceof CollideForce) {
+                    interBodyIndices[interBodyForces.size()] = f;
+                    interBodyForces.add(force);
+                }
+            }
+            if (interBodyForces.isEmpty() || partitionOrder.isEmpty()) return;
+            int blockCount = (partitionOrder.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            if (blockCosts.length != blockCount) {
+                // Without costs from a previous tick of the same size, assume every block costs the same
+                blockCosts = new long[blockCount];
+                Arrays.fill(blockCosts, 1);
+                costPrefix = new long[blockCount + 1];
+            }
+            if (threadCount == 1) {
+                applyBlocks(0, blockCount, alpha, 0);
+            } else if (executor() instanceof ForkJoinPool && isSchedulingByCost) {
+                for (int b = 0; b < blockCount; b++) costPrefix[b + 1] = costPrefix[b] + blockCosts[b];
+                long grain = Math.max(1, costPrefix[blockCount] / (8L * threadCount)); // Splitting finer than this would only add overhead
+                ((ForkJoinPool) executor()).invoke(new InterBodyTask(0, blockCount, grain, alpha));
+            } else if (executor() instanceof ForkJoinPool) {
+                int taskCount = 8 * threadCount;
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < taskCount; t++) {
+                    int from = (int) ((long) blockCount * t / taskCount);
+                    int to = (int) ((long) blockCount * (t + 1) / taskCount);
+                    if (from < to) futures.add(executor().submit(() -> applyBlocks(from, to, alpha, metrics == null ? 0 : metrics.workerSlot())));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
                     }
-                });
-                futures.add(future);
+                }
+            } else {
+                AtomicInteger nextBlock = new AtomicInteger();
+                IntConsumer claimBlocks = worker -> {
+                    for (int b = nextBlock.getAndIncrement(); b < blockCount; b = nextBlock.getAndIncrement()) applyBlocks(b, b + 1, alpha, worker);
+                };
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 1; t < threadCount; t++) {
+                    int worker = t;
+                    futures.add(executor().submit(() -> claimBlocks.accept(worker)));
+                }
+                claimBlocks.accept(0); // the calling thread claims blocks too, so a busy shared executor cannot stall the tick
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
             }
-            for (Future<?> future : futures) {
-                try {
-                    future.get();
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
+        }
+
+        private void applyBlocks(int fromBlock, int toBlock, double alpha, int worker) {
+            for (int b = fromBlock; b < toBlock; b++) {
+                long start = System.nanoTime();
+                List<Vertex> vertexPartition = partitionOrder.subList(b * BLOCK_SIZE, Math.min(partitionOrder.size(), (b + 1) * BLOCK_SIZE));
+                if (metrics == null) {
+                    for (Force force : interBodyForces) apply(force, vertexPartition, alpha);
+                } else {
+                    long forceStart = start;
+                    for (int f = 0; f < interBodyForces.size(); f++) {
+                        apply(interBodyForces.get(f), vertexPartition, alpha);
+                        long end = System.nanoTime();
+                        metrics.recordInterBody(worker, interBodyIndices[f], end - forceStart);
+                        forceStart = end;
+                    }
                 }
+                blockCosts[b] = Math.max(1, System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * The active vertices of a force with its own vertices, and what they were found from.
+         */
+        private static final class ActiveTargets {
+            private final List<Vertex> vertices;
+            private final int activeVersion;
+            private final int activeCount;
+            private final Collection<Vertex> forceVertices;
+            private final int forceVertexCount;
+
+            private ActiveTargets(List<Vertex> vertices, int activeVersion, int activeCount, Collection<Vertex> forceVertices) {
+                this.vertices = vertices;
+                this.activeVersion = activeVersion;
+                this.activeCount = activeCount;
+                this.forceVertices = forceVertices;
+                forceVertexCount = forceVertices.size();
+            }
+        }
+
+        private class InterBodyTask extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int fromBlock;
+            private final int toBlock;
+            private final long grain;
+            private final double alpha;
+
+            private InterBodyTask(int fromBlock, int toBlock, long grain, double alpha) {
+                this.fromBlock = fromBlock;
+                this.toBlock = toBlock;
+                this.grain = grain;
+                this.alpha = alpha;
+            }
+
+            @Override
+            protected void compute() {
+                if (toBlock - fromBlock > 1 && costPrefix[toBlock] - costPrefix[fromBlock] > grain) {
+                    long half = (costPrefix[fromBlock] + costPrefix[toBlock]) / 2;
+                    int mid = Arrays.binarySearch(costPrefix, fromBlock + 1, toBlock, half);
+                    if (mid < 0) mid = -mid - 1;
+                    mid = Math.max(fromBlock + 1, Math.min(toBlock - 1, mid));
+                    invokeAll(new InterBodyTask(fromBlock, mid, grain, alpha), new InterBodyTask(mid, toBlock, grain, alpha));
+                    return;
+                }
+                applyBlocks(fromBlock, toBlock, alpha, metrics == null ? 0 : metrics.workerSlot());
             }
         }
 
         private void applySingleBodyForces(double alpha) {
-            for (Force force : forces) {
-                if (!(force instanceof ManyBodyForce) && !(force instanceof CollideForce)) {
-                    force.apply(alpha);
+            for (int f = 0; f < forces.size(); f++) {
+                Force force = forces.get(f);
+                if (force instanceof ManyBodyForce || force instanceof CollideForce) continue;
+                long start = metrics == null ? 0 : System.nanoTime();
+                if (force instanceof LinkForce && ((LinkForce) force).isParallel() && threadCount > 1 && activeVertices == null) {
+                    ((LinkForce) force).apply(alpha, executor(), threadCount);
+                } else {
+                    apply(force, alpha);
                 }
+                if (metrics != null) metrics.recordForce(f, System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Applies an inter-body force, whose quadtree has been built, to a partition of the vertices. When only some
+         * vertices are active, the partition holds active vertices only, and collisions only push them.
+         */
+        private void apply(Force force, List<Vertex> vertexPartition, double alpha) {
+            if (activeVertices != null && force instanceof CollideForce) ((CollideForce) force).applyToTargets(vertexPartition, alpha);
+            else force.apply(vertexPartition, alpha);
+        }
+
+        /**
+         * Applies a force in full or, when only some vertices are active, to the active vertices only.
+         */
+        private void apply(Force force, double alpha) {
+            if (activeVertices == null) {
+                force.apply(alpha);
+            } else if (force instanceof LinkForce) {
+                ((LinkForce) force).applyIncident(activeVertices, alpha);
+            } else if (!(force instanceof CenterForce)) {
+                buildQuadtree(force);
+                apply(force, force.vertices() == vertices ? activeVertices : activeTargets(force), alpha);
+            }
+        }
+
+        /**
+         * Returns the active vertices among a force's own vertices. They are only found afresh after an activation or
+         * a change in the number of active vertices or of the force's vertices, so a vertex of a global force that is
+         * replaced in place while some vertices are active is only noticed then. The vertices of local forces are
+         * checked on every tick.
+         */
+        private List<Vertex> activeTargets(Force force) {
+            Collection<Vertex> forceVertices = force.vertices();
+            ActiveTargets targets = activeTargets.get(force);
+            if (targets != null && targets.activeVersion == activeVersion && targets.activeCount == activeVertices.size()
+                    && targets.forceVertices == forceVertices && targets.forceVertexCount == forceVertices.size()) {
+                return targets.vertices;
+            }
+            List<Vertex> vertices = new ArrayList<>();
+            for (Vertex vertex : forceVertices) {
+                if (activeSet.contains(vertex)) vertices.add(vertex);
             }
+            activeTargets.put(force, new ActiveTargets(vertices, activeVersion, activeVertices.size(), forceVertices));
+            return vertices;
         }
 
         public <FORCE extends Force> FORCE add(FORCE force) {
             forces.add(requireNonNull(force));
+            version++;
             return force;
         }
 
         @Override
         public boolean remove(Force force) {
+            version++;
             return forces.remove(force);
         }
 
         @Override
         public void clear() {
             forces.clear();
+            version++;
         }
     }
 }
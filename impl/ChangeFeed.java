@@ -0,0 +1,96 @@
+package com.typedb.force.graph.impl;
+
+import java.util.Arrays;
+
+/**
+ * Tracks the position at which each vertex was last reported to a {@link ChangeListener}, and collects the vertices
+ * that have since moved by more than the epsilon while they are integrated. Each integrating worker collects changes
+ * from its own range of vertices into its own buffer, and the buffers are concatenated once every worker is done.
+ */
+final class ChangeFeed {
+    private final ChangeListener listener;
+    private final double epsilon2;
+    private final ChangeSet changes;
+    private double[] reportedX;
+    private double[] reportedY;
+    private int[][] workerIds;
+    private double[][] workerX;
+    private double[][] workerY;
+    private final int[] workerSizes;
+    private long tickCount;
+
+    ChangeFeed(ChangeListener listener, double epsilon, int workerCount) {
+        this.listener = listener;
+        epsilon2 = epsilon * epsilon;
+        changes = new ChangeSet();
+        reportedX = reportedY = new double[0];
+        workerIds = new int[workerCount][0];
+        workerX = new double[workerCount][0];
+        workerY = new double[workerCount][0];
+        workerSizes = new int[workerCount];
+    }
+
+    /**
+     * Makes room for the given number of vertices, split into ranges of at most the given size, one per worker.
+     * Vertices added since the last call have never been reported, so they count as changed in the next tick.
+     */
+    void prepare(int vertexCount, int rangeSize) {
+        if (reportedX.length < vertexCount) {
+            int capacity = Math.max(vertexCount, 2 * reportedX.length);
+            int oldCapacity = reportedX.length;
+            reportedX = Arrays.copyOf(reportedX, capacity);
+            reportedY = Arrays.copyOf(reportedY, capacity);
+            Arrays.fill(reportedX, oldCapacity, capacity, Double.NaN);
+            Arrays.fill(reportedY, oldCapacity, capacity, Double.NaN);
+        }
+        for (int w = 0; w < workerSizes.length; w++) {
+            if (workerIds[w].length < rangeSize) {
+                workerIds[w] = new int[rangeSize];
+                workerX[w] = new double[rangeSize];
+                workerY[w] = new double[rangeSize];
+            }
+        }
+    }
+
+    /**
+     * Forgets every reported position, so that every vertex is reported in the next tick. Called when vertex ids
+     * have been reassigned.
+     */
+    void reset() {
+        Arrays.fill(reportedX, Double.NaN);
+        Arrays.fill(reportedY, Double.NaN);
+    }
+
+    void track(int worker, int id, double x, double y) {
+        double dx = x - reportedX[id], dy = y - reportedY[id];
+        if (dx * dx + dy * dy <= epsilon2) return; // never true for an unreported vertex, whose distance is NaN
+        reportedX[id] = x;
+        reportedY[id] = y;
+        int i = workerSizes[worker]++;
+        workerIds[worker][i] = id;
+        workerX[worker][i] = x;
+        workerY[worker][i] = y;
+    }
+
+    void publish() {
+        int size = 0;
+        for (int count : workerSizes) size += count;
+        if (changes.ids.length < size) {
+            int capacity = Math.max(size, 2 * changes.ids.length);
+            changes.ids = new int[capacity];
+            changes.x = new double[capacity];
+            changes.y = new double[capacity];
+        }
+        int offset = 0;
+        for (int w = 0; w < workerSizes.length; w++) {
+            System.arraycopy(workerIds[w], 0, changes.ids, offset, workerSizes[w]);
+            System.arraycopy(workerX[w], 0, changes.x, offset, workerSizes[w]);
+            System.arraycopy(workerY[w], 0, changes.y, offset, workerSizes[w]);
+            offset += workerSizes[w];
+            workerSizes[w] = 0;
+        }
+        changes.size = size;
+        changes.tick = tickCount++;
+        listener.onChanges(changes);
+    }
+}
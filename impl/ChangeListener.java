@@ -0,0 +1,15 @@
+package com.typedb.force.graph.impl;
+
+/**
+ * Receives the vertices that have moved noticeably in each tick of a {@link BasicSimulation} (see
+ * {@link BasicSimulation#setChangeListener(ChangeListener, double)}). The listener is called on the ticking thread at
+ * the end of every tick, including ticks in which nothing has moved.
+ */
+@FunctionalInterface
+public interface ChangeListener {
+    /**
+     * Called with the changes of a tick that has just ended. The change set's arrays are reused for the next tick,
+     * so they must be serialised or copied before this call returns.
+     */
+    void onChanges(ChangeSet changes);
+}
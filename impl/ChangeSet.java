@@ -0,0 +1,45 @@
+package com.typedb.force.graph.impl;
+
+/**
+ * The vertices whose position has moved by more than the change epsilon since they were last reported, with their
+ * new positions. Vertices are identified by their index in {@link BasicSimulation#getVertices()}. Only the first
+ * {@link #size()} elements of each array are valid; the arrays are reused from tick to tick.
+ */
+public final class ChangeSet {
+    long tick;
+    int size;
+    int[] ids;
+    double[] x;
+    double[] y;
+
+    ChangeSet() {
+        tick = -1;
+        size = 0;
+        ids = new int[0];
+        x = y = new double[0];
+    }
+
+    /**
+     * Returns the number of the tick at whose end these changes were taken, starting from 0 for the first tick after
+     * the listener was set.
+     */
+    public long tick() {
+        return tick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int[] ids() {
+        return ids;
+    }
+
+    public double[] x() {
+        return x;
+    }
+
+    public double[] y() {
+        return y;
+    }
+}
@@ -0,0 +1,501 @@
+package com.typedb.force.graph.impl;
+
+import com.typedb.force.graph.api.Edge;
+import com.typedb.force.graph.api.Force;
+import com.typedb.force.graph.api.Simulation;
+import com.typedb.force.graph.api.Vertex;
+import com.typedb.force.graph.force.BaseForce;
+import com.typedb.force.graph.force.CenterForce;
+import com.typedb.force.graph.force.CollideForce;
+import com.typedb.force.graph.force.LinkForce;
+import com.typedb.force.graph.force.ManyBodyForce;
+import com.typedb.force.graph.force.XForce;
+import com.typedb.force.graph.force.YForce;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Saves the state of a {@link BasicSimulation} to a compact binary file, and restores it into a simulation that
+ * carries on ticking from where the saved one stopped, without starting the layout again from a cold alpha. A
+ * checkpoint is laid out as follows, with every field little-endian:
+ * <pre>
+ * offset  size  field
+ *      0     4  magic: the bytes "FGCK" (0x4B434746 as an int32)
+ *      4     2  format version: 1
+ *      6     2  reserved: 0
+ *      8     4  simulation vertex count, n (int32)
+ *     12     4  total vertex count, N, including the vertices only reached through forces and edges (int32)
+ *     16    40  alpha, alpha min, alpha decay, alpha target and velocity decay (float64 each)
+ *     56    16  kinetic energy and max displacement of the last tick (float64 each)
+ *     72     8  spatial reorder interval, and ticks since the last spatial reorder (int32 each)
+ *     80     8  global force count, and local force count (int32 each)
+ *     88  4*8N  the x of each vertex (float64), then in the same way its y, vx and vy
+ *            N  the flags of each vertex: bit 0 if x is fixed, bit 1 if y is fixed
+ *               the spatial partition order: a count (int32), then that many vertex ids (int32)
+ *               the global forces, then the local forces
+ * </pre>
+ * Every section after the header starts on an 8-byte boundary. Vertices are referred to by id: first the
+ * simulation's vertices in order, then every other vertex that a force or edge refers to. Each force starts with a
+ * type tag and its vertices (int32 each), which are either -1 for the simulation's own vertex list, or a count
+ * followed by that many ids. Then come its parameters; a {@link LinkForce} also stores its edges as pairs of vertex
+ * ids in index order, and the forces that jiggle coincident vertices store the state of their {@link Random}, so
+ * that the jiggles carry on the same sequence.
+ * <p>
+ * A restored simulation that is ticked serially moves its vertices bit-for-bit as the saved one would have, except
+ * that: quadtree refitting depends on the previous tick's tree, which is not saved, so forces with a refit threshold
+ * above 0 rebuild their tree on the first tick after a restore; an {@link XForce} or {@link YForce} with a moving
+ * target is restored with a fixed target at its value when saved; a subclass of {@link Random} is replaced by a
+ * new, unseeded {@link Random}; a {@link LinkForce} in parallel mode is coloured afresh, so if edges were added to or
+ * removed from it since it was last coloured in full, it applies its edges in a different order; and neither a local
+ * reheat nor the sleeping vertices are saved, so every vertex of the restored simulation starts awake and active. Only the forces of the {@code force} package can be saved.
+ * Checkpoints are loaded through a memory-mapped file, so a large graph is read straight out of the page cache into
+ * primitive arrays.
+ */
+public final class Checkpoint {
+    public static final int MAGIC = 0x4B434746;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 88;
+
+    private static final int SIMULATION_VERTICES = -1;
+    private static final int MANY_BODY = 1;
+    private static final int COLLIDE = 2;
+    private static final int LINK = 3;
+    private static final int CENTER = 4;
+    private static final int X = 5;
+    private static final int Y = 6;
+
+    private static final int X_FIXED = 1;
+    private static final int Y_FIXED = 2;
+
+    private Checkpoint() {}
+
+    /**
+     * Saves the given simulation to the given file, replacing it. The checkpoint is written to a temporary file in the
+     * same directory, forced to disk and then moved over the given file atomically, so a crash or failure during the
+     * save leaves the previous checkpoint intact. Ticks of the simulation wait for the save to finish.
+     *
+     * @throws IllegalArgumentException if the simulation has a force that is not of the {@code force} package
+     */
+    public static void save(BasicSimulation simulation, Path path) throws IOException {
+        synchronized (simulation) {
+            Encoder encoder = new Encoder(simulation);
+            Writer counter = new Writer(null);
+            encoder.write(counter);
+            if (counter.position > Integer.MAX_VALUE) throw new IllegalArgumentException("The simulation is too large for a checkpoint.");
+            Path directory = path.toAbsolutePath().getParent();
+            Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temporary, READ, WRITE)) {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, counter.position);
+                    encoder.write(new Writer(buffer.order(ByteOrder.LITTLE_ENDIAN)));
+                    buffer.force();
+                    channel.force(true);
+                }
+                Files.move(temporary, path, ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    /**
+     * Restores a checkpoint into a new simulation with the default parallelism.
+     */
+    public static BasicSimulation restore(Path path) throws IOException {
+        return restore(path, new BasicSimulation());
+    }
+
+    /**
+     * Restores a checkpoint into the given simulation, which must have no vertices or forces, so that the
+     * parallelism or executor of the restored simulation can be chosen. Returns the given simulation.
+     *
+     * @throws IOException if the file does not hold a checkpoint of a supported version, or is truncated or corrupt
+     */
+    public static BasicSimulation restore(Path path, BasicSimulation simulation) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC) throw new IOException("The file does not hold a checkpoint.");
+        if (buffer.getShort(4) != VERSION) throw new IOException("Unsupported checkpoint version: " + buffer.getShort(4) + ".");
+        synchronized (simulation) {
+            if (!simulation.getVertices().isEmpty() || !forces(simulation.getForces()).isEmpty() || !forces(simulation.getLocalForces()).isEmpty()) {
+                throw new IllegalArgumentException("A checkpoint can only be restored into an empty simulation.");
+            }
+            try {
+                new Decoder(buffer, simulation).read();
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                // Parameters that a simulation or force rejects are as corrupt as counts that overrun the file
+                throw new IOException("The checkpoint is truncated or corrupt.", e);
+            }
+        }
+        return simulation;
+    }
+
+    private static List<Force> forces(Simulation.Forces forces) {
+        return ((BasicSimulation.Forces) forces).forces;
+    }
+
+    /**
+     * Numbers the vertices of a simulation and its forces, and writes them out. Writing is run twice: once to count
+     * the bytes, so that the file can be mapped at its final size, and once to fill it.
+     */
+    private static class Encoder {
+        private final BasicSimulation simulation;
+        private final List<Force> globalForces;
+        private final List<Force> localForces;
+        private final Map<Vertex, Integer> ids;
+        private final List<Vertex> vertices;
+        private final Map<Random, byte[]> randomStates;
+
+        private Encoder(BasicSimulation simulation) throws IOException {
+            this.simulation = simulation;
+            globalForces = forces(simulation.getForces());
+            localForces = forces(simulation.getLocalForces());
+            ids = new IdentityHashMap<>();
+            vertices = new ArrayList<>();
+            randomStates = new IdentityHashMap<>();
+            simulation.getVertices().forEach(this::id);
+            for (Force force : globalForces) index(force);
+            for (Force force : localForces) index(force);
+        }
+
+        private int id(Vertex vertex) {
+            Integer id = ids.get(vertex);
+            if (id != null) return id;
+            ids.put(vertex, vertices.size());
+            vertices.add(vertex);
+            return vertices.size() - 1;
+        }
+
+        private void index(Force force) throws IOException {
+            Collection<Vertex> forceVertices = vertices(force);
+            if (forceVertices != simulation.getVertices()) forceVertices.forEach(this::id);
+            if (force instanceof LinkForce) {
+                LinkForce link = (LinkForce) force;
+                for (int e = 0; e < link.edgeCount(); e++) {
+                    id(link.edge(e).source());
+                    id(link.edge(e).target());
+                }
+                randomStates.put(link.getRandom(), serialize(link.getRandom()));
+            } else if (force instanceof ManyBodyForce) {
+                randomStates.put(((ManyBodyForce) force).getRandom(), serialize(((ManyBodyForce) force).getRandom()));
+            } else if (force instanceof CollideForce) {
+                randomStates.put(((CollideForce) force).getRandom(), serialize(((CollideForce) force).getRandom()));
+            }
+        }
+
+        private static Collection<Vertex> vertices(Force force) {
+            if (force instanceof CollideForce) return ((CollideForce) force).vertices();
+            if (force instanceof ManyBodyForce || force instanceof LinkForce || force instanceof CenterForce
+                    || force instanceof XForce || force instanceof YForce) {
+                return ((BaseForce) force).vertices();
+            }
+            throw new IllegalArgumentException("Unsupported force in a checkpoint: " + force.getClass().getName() + ".");
+        }
+
+        private static byte[] serialize(Random random) throws IOException {
+            if (random.getClass() != Random.class) return new byte[0];
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(random);
+            }
+            return bytes.toByteArray();
+        }
+
+        private void write(Writer out) {
+            List<Vertex> spatialOrder = simulation.spatialOrder();
+            out.putInt(MAGIC);
+            out.putShort(VERSION);
+            out.putShort(0);
+            out.putInt(simulation.getVertices().size());
+            out.putInt(vertices.size());
+            out.putDouble(simulation.getAlpha());
+            out.putDouble(simulation.getAlphaMin());
+            out.putDouble(simulation.getAlphaDecay());
+            out.putDouble(simulation.getAlphaTarget());
+            out.putDouble(simulation.getVelocityDecay());
+            out.putDouble(simulation.getKineticEnergy());
+            out.putDouble(simulation.getMaxDisplacement());
+            out.putInt(simulation.getSpatialReorderInterval());
+            out.putInt(simulation.ticksSinceSpatialReorder());
+            out.putInt(globalForces.size());
+            out.putInt(localForces.size());
+
+            for (Vertex vertex : vertices) out.putDouble(vertex.getX());
+            for (Vertex vertex : vertices) out.putDouble(vertex.getY());
+            for (Vertex vertex : vertices) out.putDouble(vertex.getVX());
+            for (Vertex vertex : vertices) out.putDouble(vertex.getVY());
+            for (Vertex vertex : vertices) out.putByte((vertex.isXFixed() ? X_FIXED : 0) | (vertex.isYFixed() ? Y_FIXED : 0));
+            out.align();
+
+            out.putInt(spatialOrder.size());
+            for (Vertex vertex : spatialOrder) out.putInt(ids.get(vertex));
+            out.align();
+
+            for (Force force : globalForces) writeForce(out, force);
+            for (Force force : localForces) writeForce(out, force);
+        }
+
+        private void writeForce(Writer out, Force force) {
+            Collection<Vertex> forceVertices = vertices(force);
+            if (force instanceof ManyBodyForce) out.putInt(MANY_BODY);
+            else if (force instanceof CollideForce) out.putInt(COLLIDE);
+            else if (force instanceof LinkForce) out.putInt(LINK);
+            else if (force instanceof CenterForce) out.putInt(CENTER);
+            else if (force instanceof XForce) out.putInt(X);
+            else out.putInt(Y);
+            if (forceVertices == simulation.getVertices()) {
+                out.putInt(SIMULATION_VERTICES);
+            } else {
+                out.putInt(forceVertices.size());
+                for (Vertex vertex : forceVertices) out.putInt(ids.get(vertex));
+            }
+            out.align();
+
+            if (force instanceof ManyBodyForce) {
+                ManyBodyForce manyBody = (ManyBodyForce) force;
+                out.putDouble(manyBody.getStrength());
+                out.putDouble(manyBody.getDistanceMin());
+                out.putDouble(manyBody.getDistanceMax());
+                out.putDouble(manyBody.getTheta());
+                out.putDouble(manyBody.getRefitThreshold());
+                writeRandom(out, manyBody.getRandom());
+            } else if (force instanceof CollideForce) {
+                CollideForce collide = (CollideForce) force;
+                out.putDouble(collide.getRadius());
+                out.putDouble(collide.getStrength());
+                out.putDouble(collide.getRefitThreshold());
+                writeRandom(out, collide.getRandom());
+            } else if (force instanceof LinkForce) {
+                LinkForce link = (LinkForce) force;
+                out.putDouble(link.getDistance());
+                out.putDouble(link.getStrength());
+                out.putInt(link.isParallel() ? 1 : 0);
+                out.putInt(link.edgeCount());
+                for (int e = 0; e < link.edgeCount(); e++) {
+                    Edge edge = link.edge(e);
+                    out.putInt(ids.get(edge.source()));
+                    out.putInt(ids.get(edge.target()));
+                }
+                out.align();
+                writeRandom(out, link.getRandom());
+            } else if (force instanceof CenterForce) {
+                CenterForce center = (CenterForce) force;
+                out.putDouble(center.getX());
+                out.putDouble(center.getY());
+                out.putDouble(center.getStrength());
+            } else if (force instanceof XForce) {
+                out.putDouble(((XForce) force).getX());
+                out.putDouble(((XForce) force).getStrength());
+            } else {
+                out.putDouble(((YForce) force).getY());
+                out.putDouble(((YForce) force).getStrength());
+            }
+        }
+
+        private void writeRandom(Writer out, Random random) {
+            byte[] state = randomStates.get(random);
+            out.putInt(state.length);
+            for (byte b : state) out.putByte(b);
+            out.align();
+        }
+    }
+
+    /**
+     * Writes little-endian fields to a buffer, or only counts their bytes if there is no buffer.
+     */
+    private static class Writer {
+        private final ByteBuffer buffer;
+        private long position;
+
+        private Writer(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private void putByte(int value) {
+            if (buffer != null) buffer.put((byte) value);
+            position += Byte.BYTES;
+        }
+
+        private void putShort(int value) {
+            if (buffer != null) buffer.putShort((short) value);
+            position += Short.BYTES;
+        }
+
+        private void putInt(int value) {
+            if (buffer != null) buffer.putInt(value);
+            position += Integer.BYTES;
+        }
+
+        private void putDouble(double value) {
+            if (buffer != null) buffer.putDouble(value);
+            position += Double.BYTES;
+        }
+
+        private void align() {
+            while (position % Double.BYTES != 0) putByte(0);
+        }
+    }
+
+    private static class Decoder {
+        private final ByteBuffer buffer;
+        private final BasicSimulation simulation;
+        private Vertex[] vertices;
+
+        private Decoder(ByteBuffer buffer, BasicSimulation simulation) {
+            this.buffer = buffer;
+            this.simulation = simulation;
+        }
+
+        private void read() throws IOException {
+            buffer.position(8);
+            int simulationVertexCount = buffer.getInt();
+            int vertexCount = checkCount(buffer.getInt(), 4 * Double.BYTES + 1);
+            if (simulationVertexCount < 0 || simulationVertexCount > vertexCount) throw corrupt("simulation vertex count", simulationVertexCount);
+            simulation.setAlpha(buffer.getDouble());
+            simulation.setAlphaMin(buffer.getDouble());
+            simulation.setAlphaDecay(buffer.getDouble());
+            simulation.setAlphaTarget(buffer.getDouble());
+            simulation.setVelocityDecay(buffer.getDouble());
+            double kineticEnergy = buffer.getDouble();
+            double maxDisplacement = buffer.getDouble();
+            simulation.setSpatialReorderInterval(buffer.getInt());
+            int ticksSinceSpatialReorder = buffer.getInt();
+            int globalForceCount = checkCount(buffer.getInt(), 2 * Integer.BYTES);
+            int localForceCount = checkCount(buffer.getInt(), 2 * Integer.BYTES);
+
+            // Bulk-copy each coordinate array out of the mapped file
+            double[] x = readDoubles(vertexCount);
+            double[] y = readDoubles(vertexCount);
+            double[] vx = readDoubles(vertexCount);
+            double[] vy = readDoubles(vertexCount);
+            byte[] flags = new byte[vertexCount];
+            buffer.get(flags);
+            align();
+            vertices = new Vertex[vertexCount];
+            for (int i = 0; i < vertexCount; i++) {
+                vertices[i] = new BasicVertex(x[i], y[i], (flags[i] & X_FIXED) != 0, (flags[i] & Y_FIXED) != 0);
+                vertices[i].setVX(vx[i]);
+                vertices[i].setVY(vy[i]);
+            }
+            simulation.getVertices().addAll(List.of(vertices).subList(0, simulationVertexCount));
+
+            List<Vertex> spatialOrder = readVertices(checkCount(buffer.getInt(), Integer.BYTES));
+            align();
+
+            for (int f = 0; f < globalForceCount; f++) simulation.getForces().add(readForce());
+            for (int f = 0; f < localForceCount; f++) simulation.getLocalForces().add(readForce());
+            simulation.restoreTickState(kineticEnergy, maxDisplacement, spatialOrder, ticksSinceSpatialReorder);
+        }
+
+        /**
+         * Returns the given count read from the checkpoint, after checking that it is not negative and that the
+         * remaining bytes could hold that many items of the given size.
+         */
+        private int checkCount(int count, int itemBytes) throws IOException {
+            if (count < 0 || (long) count * itemBytes > buffer.remaining()) throw corrupt("count", count);
+            return count;
+        }
+
+        private static IOException corrupt(String field, int value) {
+            return new IOException("The checkpoint is truncated or corrupt: invalid " + field + " " + value + ".");
+        }
+
+        private double[] readDoubles(int count) {
+            double[] values = new double[count];
+            buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values);
+            buffer.position(buffer.position() + count * Double.BYTES);
+            return values;
+        }
+
+        private List<Vertex> readVertices(int count) {
+            List<Vertex> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) list.add(vertices[buffer.getInt()]);
+            return list;
+        }
+
+        private void align() {
+            buffer.position((buffer.position() + Double.BYTES - 1) & -Double.BYTES);
+        }
+
+        private Force readForce() throws IOException {
+            int type = buffer.getInt();
+            int count = buffer.getInt();
+            List<Vertex> forceVertices = count == SIMULATION_VERTICES ? (List<Vertex>) simulation.getVertices() : readVertices(checkCount(count, Integer.BYTES));
+            align();
+
+            switch (type) {
+                case MANY_BODY: {
+                    double strength = buffer.getDouble(), distanceMin = buffer.getDouble(), distanceMax = buffer.getDouble();
+                    double theta = buffer.getDouble(), refitThreshold = buffer.getDouble();
+                    ManyBodyForce force = new ManyBodyForce(forceVertices, strength, distanceMax);
+                    // Squaring a parameter that was saved as a square root may not round-trip, so defaults are kept
+                    if (theta != force.getTheta()) force.setTheta(theta);
+                    if (distanceMin != force.getDistanceMin()) force.setDistanceMin(distanceMin);
+                    force.setRefitThreshold(refitThreshold);
+                    return force.setRandom(readRandom());
+                }
+                case COLLIDE: {
+                    double radius = buffer.getDouble(), strength = buffer.getDouble(), refitThreshold = buffer.getDouble();
+                    CollideForce force = new CollideForce(forceVertices, radius, strength);
+                    force.setRefitThreshold(refitThreshold);
+                    return force.setRandom(readRandom());
+                }
+                case LINK: {
+                    double distance = buffer.getDouble(), strength = buffer.getDouble();
+                    boolean isParallel = buffer.getInt() != 0;
+                    int edgeCount = checkCount(buffer.getInt(), 2 * Integer.BYTES);
+                    List<Edge> edges = new ArrayList<>(edgeCount);
+                    for (int e = 0; e < edgeCount; e++) edges.add(new BasicEdge(vertices[buffer.getInt()], vertices[buffer.getInt()]));
+                    align();
+                    return new LinkForce(forceVertices, edges, distance, strength).setParallel(isParallel).setRandom(readRandom());
+                }
+                case CENTER:
+                    return new CenterForce(forceVertices, buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+                case X:
+                    return new XForce(forceVertices, buffer.getDouble(), buffer.getDouble());
+                case Y:
+                    return new YForce(forceVertices, buffer.getDouble(), buffer.getDouble());
+                default:
+                    throw new IOException("Unknown force type in checkpoint: " + type + ".");
+            }
+        }
+
+        private Random readRandom() throws IOException {
+            byte[] state = new byte[checkCount(buffer.getInt(), 1)];
+            buffer.get(state);
+            align();
+            if (state.length == 0) return new Random();
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(state))) {
+                // Only a plain Random may be deserialised, so a crafted checkpoint cannot instantiate other classes
+                in.setObjectInputFilter(ObjectInputFilter.Config.createFilter("maxdepth=1;java.util.Random;!*"));
+                return (Random) in.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.typedb.force.graph.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Emits the metrics of every tick as Java Flight Recorder events: one {@code com.typedb.force.graph.Tick} event per
+ * tick, and one {@code com.typedb.force.graph.ForceTick} event per force. The events are only committed while a
+ * recording has them enabled, so the listener can be left registered in production.
+ */
+public class JfrMetricsListener implements MetricsListener {
+    @Override
+    public void onTick(TickMetrics metrics) {
+        TickEvent tick = new TickEvent();
+        if (tick.shouldCommit()) {
+            tick.tick = metrics.tick();
+            tick.alpha = metrics.alpha();
+            tick.vertexCount = metrics.vertexCount();
+            tick.sleepingVertexCount = metrics.sleepingVertexCount();
+            tick.tickDuration = metrics.tickNanos();
+            tick.quadtreeDuration = metrics.quadtreeNanos();
+            tick.interBodyDuration = metrics.interBodyNanos();
+            tick.singleBodyDuration = metrics.singleBodyNanos();
+            tick.localDuration = metrics.localNanos();
+            tick.integrationDuration = metrics.integrationNanos();
+            tick.partitionImbalance = metrics.partitionImbalance();
+            tick.allocated = metrics.allocatedBytes();
+            tick.commit();
+        }
+        for (TickMetrics.ForceMetrics forceMetrics : metrics.forces()) {
+            ForceTickEvent force = new ForceTickEvent();
+            if (!force.shouldCommit()) return;
+            force.tick = metrics.tick();
+            force.force = forceMetrics.force().getClass().getSimpleName();
+            force.isLocal = forceMetrics.isLocal();
+            force.forceDuration = forceMetrics.nanos();
+            force.quadtreeDuration = forceMetrics.quadtreeNanos();
+            force.quadtreeNodeCount = forceMetrics.quadtreeNodeCount();
+            force.quadtreeDepth = forceMetrics.quadtreeDepth();
+            force.nodeVisits = forceMetrics.nodeVisits();
+            force.commit();
+        }
+    }
+
+    @Name("com.typedb.force.graph.Tick")
+    @Label("Simulation Tick")
+    @Category({"TypeDB", "Force Graph"})
+    static class TickEvent extends Event {
+        @Label("Tick")
+        long tick;
+
+        @Label("Alpha")
+        double alpha;
+
+        @Label("Vertex Count")
+        int vertexCount;
+
+        @Label("Sleeping Vertex Count")
+        int sleepingVertexCount;
+
+        @Label("Tick Duration")
+        @Timespan
+        long tickDuration;
+
+        @Label("Quadtree Build Duration")
+        @Timespan
+        long quadtreeDuration;
+
+        @Label("Inter-body Force Duration")
+        @Timespan
+        long interBodyDuration;
+
+        @Label("Single-body Force Duration")
+        @Timespan
+        long singleBodyDuration;
+
+        @Label("Local Force Duration")
+        @Timespan
+        long localDuration;
+
+        @Label("Integration Duration")
+        @Timespan
+        long integrationDuration;
+
+        @Label("Partition Imbalance")
+        @Description("The busiest thread's inter-body time divided by the mean time per thread")
+        double partitionImbalance;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+
+    @Name("com.typedb.force.graph.ForceTick")
+    @Label("Force Tick")
+    @Category({"TypeDB", "Force Graph"})
+    static class ForceTickEvent extends Event {
+        @Label("Tick")
+        long tick;
+
+        @Label("Force")
+        String force;
+
+        @Label("Local")
+        boolean isLocal;
+
+        @Label("Force Duration")
+        @Timespan
+        long forceDuration;
+
+        @Label("Quadtree Build Duration")
+        @Timespan
+        long quadtreeDuration;
+
+        @Label("Quadtree Node Count")
+        int quadtreeNodeCount;
+
+        @Label("Quadtree Depth")
+        int quadtreeDepth;
+
+        @Label("Node Visits")
+        long nodeVisits;
+    }
+}
@@ -0,0 +1,117 @@
+package com.typedb.force.graph.impl;
+
+import com.typedb.force.graph.api.Vertex;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Collection;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A file holding a single frame of vertex positions in the {@link PositionFormat}, mapped into memory. The writer
+ * rewrites the frame in place, and readers in other processes map the same file and read frames straight out of
+ * shared memory; the frame's sequence number tells a reader whether its copy overlapped a write. The file grows when
+ * a frame no longer fits, after which readers must map it again; {@link #read(PositionFrame)} does so. Readers should
+ * open the file with {@link #openReadOnly(Path)}, which never creates, grows or writes to it.
+ */
+public class MappedPositionFile implements AutoCloseable {
+    private final FileChannel channel;
+    private final PositionFormat.Precision precision;
+    private MappedByteBuffer buffer;
+
+    /**
+     * Opens the given file for writing frames of the given precision, creating it if it does not exist.
+     */
+    public MappedPositionFile(Path path, PositionFormat.Precision precision) throws IOException {
+        this.precision = requireNonNull(precision);
+        channel = FileChannel.open(path, CREATE, READ, WRITE);
+        map(Math.max(channel.size(), PositionFormat.HEADER_SIZE));
+    }
+
+    private MappedPositionFile(Path path) throws IOException {
+        precision = null;
+        channel = FileChannel.open(path, READ);
+        map(channel.size());
+    }
+
+    /**
+     * Opens an existing file for reading frames only. The file is mapped read-only, at its current size.
+     */
+    public static MappedPositionFile openReadOnly(Path path) throws IOException {
+        return new MappedPositionFile(path);
+    }
+
+    public boolean isReadOnly() {
+        return precision == null;
+    }
+
+    private void map(long size) throws IOException {
+        buffer = channel.map(isReadOnly() ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Maps enough of the file for a frame of the given number of vertices, growing the file with room to spare.
+     */
+    private void ensureCapacity(int vertexCount) throws IOException {
+        if (isReadOnly()) throw new IllegalStateException("The file was opened read-only.");
+        int size = PositionFormat.frameSize(vertexCount, precision);
+        if (size > buffer.capacity()) map(Math.max(size, Math.min(Integer.MAX_VALUE, 2L * buffer.capacity())));
+    }
+
+    public synchronized void write(PositionFrame frame) throws IOException {
+        ensureCapacity(frame.size());
+        PositionFormat.write(buffer, frame, precision);
+    }
+
+    public synchronized void write(Collection<Vertex> vertices, long tick) throws IOException {
+        ensureCapacity(vertices.size());
+        PositionFormat.write(buffer, vertices, precision, tick);
+    }
+
+    public synchronized void write(double[] x, double[] y, int count, long tick) throws IOException {
+        ensureCapacity(count);
+        PositionFormat.write(buffer, x, y, count, precision, tick);
+    }
+
+    /**
+     * Reads the latest frame into the given frame, growing it if necessary, and returns it. If the writer has grown
+     * the file since it was mapped, it is mapped again.
+     *
+     * @throws IllegalStateException if no complete frame could be read within the
+     *                               {@link PositionFormat#DEFAULT_READ_TIMEOUT}
+     */
+    public synchronized PositionFrame read(PositionFrame frame) throws IOException {
+        if (buffer.capacity() < PositionFormat.HEADER_SIZE && channel.size() > buffer.capacity()) map(channel.size()); // the writer had not yet written a frame
+        while (true) {
+            try {
+                return PositionFormat.read(buffer, frame);
+            } catch (BufferUnderflowException e) {
+                long size = channel.size();
+                if (size <= buffer.capacity()) throw e;
+                map(size);
+            }
+        }
+    }
+
+    /**
+     * Returns the mapped frame, for readers that process it in place. The buffer is replaced when the file grows.
+     */
+    public synchronized MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Closes the file. The mapping itself is only released once the buffer is garbage-collected.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
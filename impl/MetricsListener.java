@@ -0,0 +1,15 @@
+package com.typedb.force.graph.impl;
+
+/**
+ * Receives the metrics of every tick of a {@link BasicSimulation} (see
+ * {@link BasicSimulation#addMetricsListener(MetricsListener)}). Listeners are called on the ticking thread, at the end
+ * of each tick, so a slow listener slows the simulation down.
+ */
+@FunctionalInterface
+public interface MetricsListener {
+    /**
+     * Called with the metrics of a tick that has just ended. The metrics object is reused for the next tick, so
+     * anything kept beyond this call must be copied out of it.
+     */
+    void onTick(TickMetrics metrics);
+}
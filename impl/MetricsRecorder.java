@@ -0,0 +1,250 @@
+package com.typedb.force.graph.impl;
+
+import com.typedb.force.graph.api.Force;
+import com.typedb.force.graph.force.CollideForce;
+import com.typedb.force.graph.force.ManyBodyForce;
+import com.typedb.force.graph.quadtree.ArrayQuadtree;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the metrics of each tick of a {@link BasicSimulation} and passes them to its listeners. Forces are indexed
+ * by their position among the simulation's forces, followed by the local forces. Inter-body timings are accumulated
+ * in a separate slot per worker thread, so recording them needs no synchronisation; the slots are only reduced once
+ * every worker has finished the tick. Threads of a fork-join pool each claim a slot of their own the first time they
+ * ask for one, since a pool may run more threads than its parallelism, and their pool indices can exceed it.
+ */
+final class MetricsRecorder {
+    private final List<MetricsListener> listeners;
+    private final TickMetrics metrics;
+    private final int workerCount;
+    private final AtomicInteger nextSlot;
+    private final ThreadLocal<Integer> claimedSlot;
+    private final com.sun.management.ThreadMXBean threads;
+    private long tickCount;
+    private long tickStart;
+    private int forceCount;
+    private int globalForceCount;
+    private volatile WorkerSlot[] workerSlots;
+    private long[] forceNanos;
+    private long[] quadtreeNanos;
+    private long[] nodeVisits;
+    private long[] knownThreads;
+    private long[] knownAllocatedBytes;
+    private int knownThreadCount;
+
+    MetricsRecorder(int workerCount) {
+        listeners = new ArrayList<>();
+        metrics = new TickMetrics();
+        this.workerCount = workerCount;
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threads = (com.sun.management.ThreadMXBean) bean;
+            threads.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            threads = null;
+        }
+        nextSlot = new AtomicInteger();
+        claimedSlot = ThreadLocal.withInitial(this::claimSlot);
+        workerSlots = new WorkerSlot[workerCount];
+        for (int w = 0; w < workerCount; w++) workerSlots[w] = new WorkerSlot(0);
+        forceNanos = quadtreeNanos = nodeVisits = new long[0];
+        knownThreads = knownAllocatedBytes = new long[0];
+    }
+
+    List<MetricsListener> listeners() {
+        return listeners;
+    }
+
+    /**
+     * Returns the slot of the current thread when it applies the inter-body forces in a fork-join pool. Every thread
+     * that asks gets a slot that no other thread uses, including a thread that submitted the work and runs part of it.
+     */
+    int workerSlot() {
+        return claimedSlot.get();
+    }
+
+    private int claimSlot() {
+        int slot = nextSlot.getAndIncrement();
+        if (slot >= workerSlots.length) growSlots(slot + 1);
+        return slot;
+    }
+
+    /**
+     * Adds slots for threads beyond the expected number. Existing slots are carried over rather than copied, so
+     * threads recording into them at the same time lose nothing.
+     */
+    private synchronized void growSlots(int slotCount) {
+        WorkerSlot[] slots = workerSlots;
+        if (slots.length >= slotCount) return;
+        WorkerSlot[] grown = Arrays.copyOf(slots, Math.max(slotCount, 2 * slots.length));
+        for (int w = slots.length; w < grown.length; w++) grown[w] = new WorkerSlot(forceNanos.length);
+        workerSlots = grown;
+    }
+
+    void beginTick(double alpha, int vertexCount, List<Force> globalForces, List<Force> localForces) {
+        globalForceCount = globalForces.size();
+        forceCount = globalForceCount + localForces.size();
+        if (forceNanos.length < forceCount) {
+            int capacity = Math.max(forceCount, 2 * forceNanos.length);
+            forceNanos = new long[capacity];
+            quadtreeNanos = new long[capacity];
+            nodeVisits = new long[capacity];
+            for (WorkerSlot slot : workerSlots) slot.nanos = new long[capacity];
+        }
+        while (metrics.forces.size() < forceCount) metrics.forces.add(new TickMetrics.ForceMetrics());
+        while (metrics.forces.size() > forceCount) metrics.forces.remove(metrics.forces.size() - 1);
+        for (int f = 0; f < forceCount; f++) {
+            Force force = f < globalForceCount ? globalForces.get(f) : localForces.get(f - globalForceCount);
+            TickMetrics.ForceMetrics forceMetrics = metrics.forces.get(f);
+            forceMetrics.force = force;
+            forceMetrics.isLocal = f >= globalForceCount;
+            nodeVisits[f] = nodeVisits(force);
+        }
+        Arrays.fill(forceNanos, 0);
+        Arrays.fill(quadtreeNanos, 0);
+        for (WorkerSlot slot : workerSlots) Arrays.fill(slot.nanos, 0);
+        metrics.alpha = alpha;
+        metrics.vertexCount = vertexCount;
+        metrics.sleepingVertexCount = 0;
+        metrics.quadtreeNanos = metrics.interBodyNanos = metrics.singleBodyNanos = metrics.localNanos = metrics.integrationNanos = 0;
+        track(Thread.currentThread().getId());
+        tickStart = System.nanoTime();
+    }
+
+    void recordSleeping(int vertexCount) {
+        metrics.sleepingVertexCount = vertexCount;
+    }
+
+    void recordQuadtrees(long nanos) {
+        metrics.quadtreeNanos += nanos;
+    }
+
+    void recordInterBody(long nanos) {
+        metrics.interBodyNanos += nanos;
+    }
+
+    void recordSingleBody(long nanos) {
+        metrics.singleBodyNanos += nanos;
+    }
+
+    void recordLocal(long nanos) {
+        metrics.localNanos += nanos;
+    }
+
+    void recordIntegration(long nanos) {
+        metrics.integrationNanos += nanos;
+    }
+
+    void recordQuadtree(int force, long nanos) {
+        quadtreeNanos[force] += nanos;
+    }
+
+    void recordInterBody(int worker, int force, long nanos) {
+        WorkerSlot slot = workerSlots[worker];
+        slot.nanos[force] += nanos;
+        slot.thread = Thread.currentThread().getId();
+    }
+
+    void recordForce(int force, long nanos) {
+        forceNanos[force] += nanos;
+    }
+
+    void recordLocalForce(int force, long nanos) {
+        forceNanos[globalForceCount + force] += nanos;
+    }
+
+    void endTick() {
+        metrics.tickNanos = System.nanoTime() - tickStart;
+        metrics.tick = tickCount++;
+        WorkerSlot[] slots = workerSlots;
+        double busiest = 0, total = 0;
+        for (WorkerSlot slot : slots) {
+            long busy = 0;
+            for (int f = 0; f < forceCount; f++) busy += slot.nanos[f];
+            busiest = Math.max(busiest, busy);
+            total += busy;
+        }
+        metrics.partitionImbalance = total == 0 ? 0 : busiest / (total / workerCount);
+        for (int f = 0; f < forceCount; f++) {
+            TickMetrics.ForceMetrics forceMetrics = metrics.forces.get(f);
+            long nanos = forceNanos[f];
+            for (WorkerSlot slot : slots) nanos += slot.nanos[f];
+            forceMetrics.nanos = nanos;
+            forceMetrics.quadtreeNanos = quadtreeNanos[f];
+            ArrayQuadtree tree = quadtree(forceMetrics.force);
+            forceMetrics.quadtreeNodeCount = tree == null ? 0 : tree.liveNodeCount();
+            forceMetrics.quadtreeDepth = tree == null ? -1 : tree.depth();
+            forceMetrics.nodeVisits = nodeVisits(forceMetrics.force) - nodeVisits[f];
+        }
+        metrics.allocatedBytes = allocatedBytes();
+        for (MetricsListener listener : listeners) listener.onTick(metrics);
+    }
+
+    /**
+     * Returns the bytes allocated by every tracked thread since the last call. Threads are tracked from the first
+     * time they tick or apply inter-body forces, so what a thread allocates before it is first seen is not counted.
+     */
+    private long allocatedBytes() {
+        if (threads == null) return -1;
+        for (WorkerSlot slot : workerSlots) {
+            if (slot.thread != 0) track(slot.thread);
+        }
+        long allocated = 0;
+        for (int i = 0; i < knownThreadCount; i++) {
+            long bytes = threads.getThreadAllocatedBytes(knownThreads[i]);
+            if (bytes < 0) {
+                // The thread has died, so stop tracking it
+                knownThreadCount--;
+                knownThreads[i] = knownThreads[knownThreadCount];
+                knownAllocatedBytes[i--] = knownAllocatedBytes[knownThreadCount];
+                continue;
+            }
+            allocated += bytes - knownAllocatedBytes[i];
+            knownAllocatedBytes[i] = bytes;
+        }
+        return allocated;
+    }
+
+    private void track(long thread) {
+        if (threads == null) return;
+        for (int i = 0; i < knownThreadCount; i++) {
+            if (knownThreads[i] == thread) return;
+        }
+        if (knownThreadCount == knownThreads.length) {
+            knownThreads = Arrays.copyOf(knownThreads, Math.max(4, 2 * knownThreadCount));
+            knownAllocatedBytes = Arrays.copyOf(knownAllocatedBytes, knownThreads.length);
+        }
+        knownThreads[knownThreadCount] = thread;
+        knownAllocatedBytes[knownThreadCount++] = threads.getThreadAllocatedBytes(thread);
+    }
+
+    private static ArrayQuadtree quadtree(Force force) {
+        if (force instanceof ManyBodyForce) return ((ManyBodyForce) force).quadtree();
+        if (force instanceof CollideForce) return ((CollideForce) force).quadtree();
+        return null;
+    }
+
+    private static long nodeVisits(Force force) {
+        if (force instanceof ManyBodyForce) return ((ManyBodyForce) force).nodeVisits();
+        if (force instanceof CollideForce) return ((CollideForce) force).nodeVisits();
+        return 0;
+    }
+
+    /**
+     * The inter-body timings of one worker thread in the current tick, by force.
+     */
+    private static final class WorkerSlot {
+        long[] nanos;
+        long thread;
+
+        WorkerSlot(int forceCapacity) {
+            nanos = new long[forceCapacity];
+        }
+    }
+}
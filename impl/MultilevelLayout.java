@@ -0,0 +1,384 @@
+package com.typedb.force.graph.impl;
+
+import com.typedb.force.graph.api.Edge;
+import com.typedb.force.graph.api.Vertex;
+import com.typedb.force.graph.force.LinkForce;
+import com.typedb.force.graph.force.ManyBodyForce;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lays out a large graph in levels, with a {@link ManyBodyForce} and a {@link LinkForce}. The graph is repeatedly
+ * coarsened by merging matched pairs of linked vertices, until it has at most {@link #getCoarsestSize()} vertices or
+ * stops shrinking. The coarsest graph is laid out from scratch. Each finer level then starts with its vertices
+ * placed around the vertex they were merged into, and is refined with a short, cool simulation, so that the forces
+ * only have to settle local detail rather than untangle the whole graph. On large sparse graphs this takes a
+ * fraction of the ticks of laying out the full graph directly, and folds it less.
+ * <p>
+ * Matching visits vertices in random order and merges each with its unmatched neighbour of least weight, the number
+ * of original vertices it stands for, so that merged vertices stay of similar size. A vertex left with only matched
+ * neighbours joins the lightest of them, so that stars and trees shrink as fast as other graphs.
+ */
+public class MultilevelLayout {
+    private final List<Vertex> vertices;
+    private final Collection<Edge> edges;
+    private double strength;
+    private double linkDistance;
+    private double linkStrength;
+    private int coarsestSize;
+    private int coarsestTicks;
+    private int refineTicks;
+    private double refineAlpha;
+    private int parallelism;
+    private Random random;
+    private int levelCount;
+    private long tickCount;
+
+    private static final double MIN_SHRINK = 0.95; // coarsening stops once a level is larger than this of the last
+    private static final int MAX_LEVELS = 64;
+
+    /**
+     * Creates a layout of the given vertices, linked by the given edges, each of whose endpoints must be one of the
+     * vertices. The layout moves the vertices when run, and keeps the positions of fixed vertices.
+     */
+    public MultilevelLayout(List<Vertex> vertices, Collection<Edge> edges) {
+        this.vertices = vertices;
+        this.edges = edges;
+        strength = -30;
+        linkDistance = 30;
+        linkStrength = 1;
+        coarsestSize = 100;
+        coarsestTicks = 300;
+        refineTicks = 20;
+        refineAlpha = 0.3;
+        parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        random = new Random();
+    }
+
+    public double getStrength() {
+        return strength;
+    }
+
+    /**
+     * Sets the strength of the {@link ManyBodyForce} at every level. Defaults to -30.
+     */
+    public MultilevelLayout setStrength(double value) {
+        strength = value;
+        return this;
+    }
+
+    public double getLinkDistance() {
+        return linkDistance;
+    }
+
+    public MultilevelLayout setLinkDistance(double value) {
+        linkDistance = value;
+        return this;
+    }
+
+    public double getLinkStrength() {
+        return linkStrength;
+    }
+
+    public MultilevelLayout setLinkStrength(double value) {
+        linkStrength = value;
+        return this;
+    }
+
+    public int getCoarsestSize() {
+        return coarsestSize;
+    }
+
+    /**
+     * Sets the number of vertices at or below which coarsening stops. Defaults to 100.
+     */
+    public MultilevelLayout setCoarsestSize(int value) {
+        coarsestSize = value;
+        return this;
+    }
+
+    public int getCoarsestTicks() {
+        return coarsestTicks;
+    }
+
+    /**
+     * Sets the number of ticks of the layout of the coarsest level, which starts from alpha 1. Defaults to 300.
+     */
+    public MultilevelLayout setCoarsestTicks(int value) {
+        coarsestTicks = value;
+        return this;
+    }
+
+    public int getRefineTicks() {
+        return refineTicks;
+    }
+
+    /**
+     * Sets the number of ticks of the refinement of each finer level. Defaults to 20.
+     */
+    public MultilevelLayout setRefineTicks(int value) {
+        refineTicks = value;
+        return this;
+    }
+
+    public double getRefineAlpha() {
+        return refineAlpha;
+    }
+
+    /**
+     * Sets the alpha that the refinement of each finer level starts from, which decays to the default alphaMin over
+     * the refinement ticks. Defaults to 0.3.
+     */
+    public MultilevelLayout setRefineAlpha(double value) {
+        refineAlpha = value;
+        return this;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads that each level's simulation runs on, for the duration of {@link #run()}.
+     */
+    public MultilevelLayout setParallelism(int value) {
+        parallelism = value;
+        return this;
+    }
+
+    /**
+     * Sets the source of the random matching order and initial placement. A seeded source makes the coarsening
+     * reproducible.
+     */
+    public MultilevelLayout setRandom(Random value) {
+        random = requireNonNull(value);
+        return this;
+    }
+
+    /**
+     * Returns the number of levels of the last run, including the original graph.
+     */
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    /**
+     * Returns the number of ticks of the last run, summed over every level.
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Coarsens the graph, lays out the coarsest level and refines every finer level in turn, leaving the vertices at
+     * their final positions with no velocity.
+     *
+     * @throws IllegalArgumentException if an edge has an endpoint that is not one of the vertices
+     */
+    public void run() {
+        List<Level> levels = new ArrayList<>();
+        levels.add(Level.of(vertices, edges));
+        while (levels.size() < MAX_LEVELS && levels.get(levels.size() - 1).size > coarsestSize) {
+            Level fine = levels.get(levels.size() - 1);
+            Level coarse = fine.coarsen(random);
+            if (coarse.size > fine.size * MIN_SHRINK) {
+                fine.parents = null;
+                break;
+            }
+            levels.add(coarse);
+        }
+        levelCount = levels.size();
+        tickCount = 0;
+
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            Level coarsest = levels.get(levels.size() - 1);
+            if (coarsest.vertices == null) coarsest.createVertices();
+            BasicSimulation simulation = newSimulation(pool, coarsest);
+            simulation.placeVertices(Arrays.asList(coarsest.vertices));
+            simulate(simulation, coarsestTicks);
+
+            for (int l = levels.size() - 2; l >= 0; l--) {
+                Level fine = levels.get(l);
+                if (fine.vertices == null) fine.createVertices();
+                interpolate(fine, levels.get(l + 1));
+                simulation = newSimulation(pool, fine);
+                simulation.getVertices().addAll(Arrays.asList(fine.vertices));
+                simulation.setAlpha(refineAlpha);
+                simulation.setAlphaDecay(1 - Math.pow(simulation.getAlphaMin() / refineAlpha, 1.0 / refineTicks));
+                simulate(simulation, refineTicks);
+            }
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+        for (Vertex vertex : vertices) {
+            vertex.setVX(0);
+            vertex.setVY(0);
+        }
+    }
+
+    private BasicSimulation newSimulation(ForkJoinPool pool, Level level) {
+        BasicSimulation simulation = pool == null ? new BasicSimulation(1) : new BasicSimulation(pool);
+        List<Edge> levelEdges = new ArrayList<>(level.sources.length);
+        for (int e = 0; e < level.sources.length; e++) {
+            levelEdges.add(new BasicEdge(level.vertices[level.sources[e]], level.vertices[level.targets[e]]));
+        }
+        simulation.getForces().add(new ManyBodyForce(simulation.getVertices(), strength));
+        simulation.getForces().add(new LinkForce(simulation.getVertices(), levelEdges, linkDistance, linkStrength));
+        return simulation;
+    }
+
+    private void simulate(BasicSimulation simulation, int ticks) {
+        simulation.tick(ticks);
+        simulation.close();
+        tickCount += ticks;
+    }
+
+    /**
+     * Places each vertex of the fine level at random around the vertex it was merged into. The coarse layout is
+     * spread out first, so that the fine level takes up the area it would have on its own at the same link distance.
+     */
+    private void interpolate(Level fine, Level coarse) {
+        double scale = Math.sqrt((double) fine.size / coarse.size);
+        int[] childCounts = new int[coarse.size];
+        for (int v = 0; v < fine.size; v++) childCounts[fine.parents[v]]++;
+        for (int v = 0; v < fine.size; v++) {
+            Vertex parent = coarse.vertices[fine.parents[v]];
+            Vertex vertex = fine.vertices[v];
+            double radius = linkDistance / 2 * Math.sqrt(childCounts[fine.parents[v]] * random.nextDouble());
+            double angle = 2 * Math.PI * random.nextDouble();
+            if (!vertex.isXFixed()) vertex.setX(parent.getX() * scale + radius * Math.cos(angle));
+            if (!vertex.isYFixed()) vertex.setY(parent.getY() * scale + radius * Math.sin(angle));
+            vertex.setVX(0);
+            vertex.setVY(0);
+        }
+    }
+
+    /**
+     * One level of the graph, with its vertices numbered from 0 and its edges as pairs of vertex numbers, without
+     * duplicates or self-loops.
+     */
+    private static class Level {
+        private final int size;
+        private final int[] sources;
+        private final int[] targets;
+        private final int[] weights;
+        private int[] parents; // the vertex of the next coarser level that each vertex was merged into
+        private Vertex[] vertices;
+
+        private Level(int size, int[] sources, int[] targets, int[] weights) {
+            this.size = size;
+            this.sources = sources;
+            this.targets = targets;
+            this.weights = weights;
+        }
+
+        private static Level of(List<Vertex> vertices, Collection<Edge> edges) {
+            Map<Vertex, Integer> ids = new HashMap<>();
+            for (Vertex vertex : vertices) ids.put(vertex, ids.size());
+            long[] keys = new long[edges.size()];
+            int keyCount = 0;
+            for (Edge edge : edges) {
+                Integer source = ids.get(edge.source()), target = ids.get(edge.target());
+                if (source == null || target == null) throw new IllegalArgumentException("An edge has an endpoint that is not one of the layout's vertices.");
+                if (!source.equals(target)) keys[keyCount++] = key(source, target);
+            }
+            int[] weights = new int[vertices.size()];
+            Arrays.fill(weights, 1);
+            Level level = fromKeys(vertices.size(), keys, keyCount, weights);
+            level.vertices = vertices.toArray(new Vertex[0]);
+            return level;
+        }
+
+        private static long key(int a, int b) {
+            return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+        }
+
+        private static Level fromKeys(int size, long[] keys, int keyCount, int[] weights) {
+            Arrays.sort(keys, 0, keyCount);
+            int edgeCount = 0;
+            for (int i = 0; i < keyCount; i++) {
+                if (i == 0 || keys[i] != keys[i - 1]) keys[edgeCount++] = keys[i];
+            }
+            int[] sources = new int[edgeCount], targets = new int[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                sources[e] = (int) (keys[e] >>> 32);
+                targets[e] = (int) keys[e];
+            }
+            return new Level(size, sources, targets, weights);
+        }
+
+        private void createVertices() {
+            vertices = new Vertex[size];
+            for (int v = 0; v < size; v++) vertices[v] = new BasicVertex(0, 0);
+        }
+
+        private Level coarsen(Random random) {
+            // Adjacency lists in compressed sparse row form
+            int[] offsets = new int[size + 1];
+            for (int e = 0; e < sources.length; e++) {
+                offsets[sources[e] + 1]++;
+                offsets[targets[e] + 1]++;
+            }
+            for (int v = 0; v < size; v++) offsets[v + 1] += offsets[v];
+            int[] neighbours = new int[offsets[size]];
+            int[] next = Arrays.copyOf(offsets, size);
+            for (int e = 0; e < sources.length; e++) {
+                neighbours[next[sources[e]]++] = targets[e];
+                neighbours[next[targets[e]]++] = sources[e];
+            }
+
+            int[] order = new int[size];
+            for (int v = 0; v < size; v++) order[v] = v;
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i]; order[i] = order[j]; order[j] = swap;
+            }
+
+            parents = new int[size];
+            Arrays.fill(parents, -1);
+            int coarseSize = 0;
+            for (int v : order) {
+                if (parents[v] >= 0) continue;
+                int match = -1;
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    int u = neighbours[i];
+                    if (parents[u] < 0 && (match < 0 || weights[u] < weights[match])) match = u;
+                }
+                if (match >= 0) parents[v] = parents[match] = coarseSize++;
+            }
+            int[] coarseWeights = new int[size];
+            for (int v = 0; v < size; v++) {
+                if (parents[v] >= 0) coarseWeights[parents[v]] += weights[v];
+            }
+            for (int v : order) {
+                if (parents[v] >= 0) continue;
+                // Every neighbour of an unmatched vertex has been matched
+                int lightest = -1;
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    int parent = parents[neighbours[i]];
+                    if (lightest < 0 || coarseWeights[parent] < coarseWeights[lightest]) lightest = parent;
+                }
+                parents[v] = lightest >= 0 ? lightest : coarseSize++;
+                coarseWeights[parents[v]] += weights[v];
+            }
+
+            long[] keys = new long[sources.length];
+            int keyCount = 0;
+            for (int e = 0; e < sources.length; e++) {
+                int source = parents[sources[e]], target = parents[targets[e]];
+                if (source != target) keys[keyCount++] = key(source, target);
+            }
+            return fromKeys(coarseSize, keys, keyCount, Arrays.copyOf(coarseWeights, coarseSize));
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.typedb.force.graph.impl;
+
+import com.typedb.force.graph.api.Force;
+import com.typedb.force.graph.api.Simulation;
+import com.typedb.force.graph.api.Vertex;
+import com.typedb.force.graph.force.packed.PackedForce;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Simulation} that keeps vertex state in {@link PackedVertices} rather than in individual {@link Vertex}
+ * objects. {@link PackedForce}s run directly on the packed arrays; any other {@link Force} is applied through the
+ * {@link PackedVertex} views returned by {@link #getVertices()}.
+ * <p>
+ * Vertices passed to {@link #placeVertex(Vertex)} are copied into packed storage: their state is read once, and
+ * the simulation's own views must be used to observe positions afterwards.
+ */
+public class PackedSimulation implements Simulation {
+
+    private double alpha;
+    private double alphaMin;
+    private double alphaDecay;
+    private double alphaTarget;
+    private double velocityDecay;
+    private final PackedVertices storage;
+    private final Forces forces;
+    private final Forces localForces;
+    private double kineticEnergy;
+    private double maxDisplacement;
+    private final PositionSnapshots snapshots;
+    private boolean isPublishingSnapshots;
+
+    private static final int INITIAL_PLACEMENT_RADIUS = 10;
+    private static final double INITIAL_PLACEMENT_ANGLE = Math.PI * (3 - Math.sqrt(5));
+
+    public PackedSimulation() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Creates a simulation that runs on its own pool of the given number of threads. The pool is only started on
+     * the first parallel tick, and is shut down by {@link #close()}.
+     */
+    public PackedSimulation(int parallelism) {
+        this(null, parallelism);
+    }
+
+    /**
+     * Creates a simulation that splits its work into tasks for the given number of threads on the given executor,
+     * such as a pool shared between simulations or, on Java 21 and later, a virtual-thread-per-task executor. The
+     * executor is not shut down by {@link #close()}.
+     */
+    public PackedSimulation(ExecutorService executor, int parallelism) {
+        alpha = 1;
+        alphaMin = 0.001;
+        alphaDecay = 1 - Math.pow(alphaMin, 1.0 / 300);
+        alphaTarget = 0;
+        velocityDecay = 0.6;
+        storage = new PackedVertices();
+        forces = Forces.global(storage, parallelism, executor);
+        localForces = Forces.local(storage);
+        snapshots = new PositionSnapshots();
+        isPublishingSnapshots = false;
+    }
+
+    public PackedVertices storage() {
+        return storage;
+    }
+
+    @Override
+    public List<Vertex> getVertices() {
+        return storage.views();
+    }
+
+    @Override
+    public Simulation.Forces getForces() {
+        return forces;
+    }
+
+    @Override
+    public Simulation.Forces getLocalForces() {
+        return localForces;
+    }
+
+    @Override
+    public synchronized void tick() {
+        alpha += (alphaTarget - alpha) * alphaDecay;
+
+        forces.applyAll(alpha);
+        localForces.applyAll(alpha);
+
+        double[] x = storage.x(), y = storage.y(), vx = storage.vx(), vy = storage.vy();
+        BitSet xFixed = storage.xFixed(), yFixed = storage.yFixed();
+        double energy = 0, maxDisplacement2 = 0;
+        for (int i = 0, n = storage.size(); i < n; i++) {
+            if (xFixed.get(i)) vx[i] = 0;
+            else {
+                vx[i] *= velocityDecay;
+                x[i] += vx[i];
+            }
+            if (yFixed.get(i)) vy[i] = 0;
+            else {
+                vy[i] *= velocityDecay;
+                y[i] += vy[i];
+            }
+            double v2 = vx[i] * vx[i] + vy[i] * vy[i];
+            energy += v2;
+            if (v2 > maxDisplacement2) maxDisplacement2 = v2;
+        }
+        kineticEnergy = energy / 2;
+        maxDisplacement = Math.sqrt(maxDisplacement2);
+        if (isPublishingSnapshots) {
+            PositionSnapshots.Buffer buffer = snapshots.beginFrame(storage.size());
+            System.arraycopy(x, 0, buffer.x(), 0, storage.size());
+            System.arraycopy(y, 0, buffer.y(), 0, storage.size());
+            snapshots.endFrame(buffer);
+        }
+    }
+
+    public PositionSnapshots snapshots() {
+        return snapshots;
+    }
+
+    public boolean isPublishingSnapshots() {
+        return isPublishingSnapshots;
+    }
+
+    /**
+     * Sets whether the vertex positions are published to {@link #snapshots()} at the end of every tick, for threads
+     * that read positions while the simulation is ticking.
+     */
+    public synchronized PackedSimulation setPublishingSnapshots(boolean value) {
+        isPublishingSnapshots = value;
+        return this;
+    }
+
+    @Override
+    public double getKineticEnergy() {
+        return kineticEnergy;
+    }
+
+    @Override
+    public double getMaxDisplacement() {
+        return maxDisplacement;
+    }
+
+    @Override
+    public void placeVertices(Collection<Vertex> vertices) {
+        vertices.forEach(this::placeVertex);
+    }
+
+    @Override
+    public synchronized void placeVertex(Vertex vertex) {
+        placeVertex(vertex.getX(), vertex.getY(), vertex.getVX(), vertex.getVY(), vertex.isXFixed(), vertex.isYFixed());
+    }
+
+    public PackedVertex placeVertex(double x, double y) {
+        return placeVertex(x, y, 0, 0, false, false);
+    }
+
+    public synchronized PackedVertex placeVertex(double x, double y, double vx, double vy, boolean isXFixed, boolean isYFixed) {
+        int id = storage.size();
+        double radius = INITIAL_PLACEMENT_RADIUS * Math.sqrt(0.5 + id);
+        double angle = id * INITIAL_PLACEMENT_ANGLE;
+        x += isXFixed ? 0 : radius * Math.cos(angle);
+        y += isYFixed ? 0 : radius * Math.sin(angle);
+        return storage.view(storage.add(x, y, vx, vy, isXFixed, isYFixed));
+    }
+
+    @Override
+    public double getAlpha() {
+        return alpha;
+    }
+
+    @Override
+    public PackedSimulation setAlpha(double value) {
+        alpha = value;
+        return this;
+    }
+
+    @Override
+    public double getAlphaMin() {
+        return alphaMin;
+    }
+
+    @Override
+    public PackedSimulation setAlphaMin(double value) {
+        alphaMin = value;
+        return this;
+    }
+
+    @Override
+    public double getAlphaDecay() {
+        return alphaDecay;
+    }
+
+    @Override
+    public PackedSimulation setAlphaDecay(double value) {
+        alphaDecay = value;
+        return this;
+    }
+
+    @Override
+    public double getAlphaTarget() {
+        return alphaTarget;
+    }
+
+    @Override
+    public PackedSimulation setAlphaTarget(double value) {
+        alphaTarget = value;
+        return this;
+    }
+
+    @Override
+    public double getVelocityDecay() {
+        return velocityDecay;
+    }
+
+    @Override
+    public PackedSimulation setVelocityDecay(double value) {
+        velocityDecay = value;
+        return this;
+    }
+
+    /**
+     * Shuts down the simulation's own thread pool, if it has started one. An executor passed in by the caller is left
+     * running. The simulation cannot tick in parallel once closed.
+     */
+    @Override
+    public synchronized void close() {
+        forces.close();
+    }
+
+    @Override
+    public synchronized void clear() {
+        forces.clear();
+        storage.clear();
+        kineticEnergy = 0;
+        maxDisplacement = 0;
+    }
+
+    public static class Forces implements Simulation.Forces {
+        final Collection<Force> forces;
+        final PackedVertices storage;
+        private final boolean isLocal;
+        private final int threadCount;
+        private ExecutorService executor;
+        private final boolean ownsExecutor;
+        private boolean isClosed;
+
+        private Forces(PackedVertices storage, boolean isLocal, int parallelism, ExecutorService executor) {
+            forces = new ArrayList<>();
+            this.storage = storage;
+            this.isLocal = isLocal;
+            threadCount = parallelism;
+            this.executor = executor;
+            ownsExecutor = executor == null;
+            isClosed = false;
+        }
+
+        static Forces global(PackedVertices storage, int parallelism, ExecutorService executor) {
+            return new Forces(storage, false, parallelism, executor);
+        }
+
+        static Forces local(PackedVertices storage) {
+            return new Forces(storage, true, 1, null);
+        }
+
+        private ExecutorService executor() {
+            if (isClosed) throw new IllegalStateException("The simulation has been closed.");
+            if (executor == null) executor = Executors.newFixedThreadPool(threadCount);
+            return executor;
+        }
+
+        void close() {
+            isClosed = true;
+            if (ownsExecutor && executor != null) executor.shutdown();
+        }
+
+        void applyAll(double alpha) {
+            if (isLocal) applyAllSerial(alpha);
+            else applyAllParallel(alpha);
+        }
+
+        private void applyAllSerial(double alpha) {
+            forces.forEach(force -> force.apply(alpha));
+        }
+
+        private void applyAllParallel(double alpha) {
+            prepareAll();
+            applyPartitionableForcesParallel(alpha);
+            applySerialForces(alpha);
+        }
+
+        private void prepareAll() {
+            for (Force force : forces) {
+                if (force instanceof PackedForce) ((PackedForce) force).prepare();
+            }
+        }
+
+        private void applyPartitionableForcesParallel(double alpha) {
+            if (threadCount == 1) {
+                for (Force force : forces) {
+                    if (isPartitionable(force)) ((PackedForce) force).apply(0, storage.size(), alpha);
+                }
+                return;
+            }
+            int taskCount = 8 * threadCount; // We make more tasks than threads because some tasks may need more time to compute.
+            int size = storage.size();
+            ArrayList<Future<?>> futures = new ArrayList<>();
+            for (int t = taskCount; t > 0; t--) {
+                int from = (int) ((long) size * (t - 1) / taskCount);
+                int to = (int) ((long) size * t / taskCount);
+                if (from == to) continue;
+                Future<?> future = executor().submit(() -> {
+                    for (Force force : forces) {
+                        if (isPartitionable(force)) ((PackedForce) force).apply(from, to, alpha);
+                    }
+                });
+                futures.add(future);
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+
+        private void applySerialForces(double alpha) {
+            for (Force force : forces) {
+                if (force instanceof PackedForce) {
+                    if (!isPartitionable(force)) ((PackedForce) force).apply(0, storage.size(), alpha);
+                } else {
+                    force.apply(alpha);
+                }
+            }
+        }
+
+        private static boolean isPartitionable(Force force) {
+            return force instanceof PackedForce && ((PackedForce) force).isPartitionable();
+        }
+
+        public <FORCE extends Force> FORCE add(FORCE force) {
+            forces.add(requireNonNull(force));
+            return force;
+        }
+
+        @Override
+        public boolean remove(Force force) {
+            return forces.remove(force);
+        }
+
+        @Override
+        public void clear() {
+            forces.clear();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.typedb.force.graph.impl;
+
+import com.typedb.force.graph.api.Vertex;
+
+/**
+ * A {@link Vertex} view over a single slot of {@link PackedVertices}. Reads and writes go straight through to the
+ * packed arrays, so existing callers observe the same state as the packed forces.
+ */
+public class PackedVertex implements Vertex {
+    private final PackedVertices storage;
+    private final int id;
+
+    PackedVertex(PackedVertices storage, int id) {
+        this.storage = storage;
+        this.id = id;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public PackedVertices storage() {
+        return storage;
+    }
+
+    @Override
+    public boolean isXFixed() {
+        return storage.xFixed().get(id);
+    }
+
+    @Override
+    public boolean isYFixed() {
+        return storage.yFixed().get(id);
+    }
+
+    @Override
+    public void setXFixed(boolean value) {
+        storage.xFixed().set(id, value);
+    }
+
+    @Override
+    public void setYFixed(boolean value) {
+        storage.yFixed().set(id, value);
+    }
+
+    @Override
+    public double getX() {
+        return storage.x()[id];
+    }
+
+    @Override
+    public void setX(double value) {
+        storage.x()[id] = value;
+    }
+
+    @Override
+    public double getY() {
+        return storage.y()[id];
+    }
+
+    @Override
+    public void setY(double value) {
+        storage.y()[id] = value;
+    }
+
+    @Override
+    public double getVX() {
+        return storage.vx()[id];
+    }
+
+    @Override
+    public void setVX(double value) {
+        storage.vx()[id] = value;
+    }
+
+    @Override
+    public double getVY() {
+        return storage.vy()[id];
+    }
+
+    @Override
+    public void setVY(double value) {
+        storage.vy()[id] = value;
+    }
+}
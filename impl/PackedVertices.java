@@ -0,0 +1,105 @@
+package com.typedb.force.graph.impl;
+
+import com.typedb.force.graph.api.Vertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Structure-of-arrays vertex storage. Vertex state is kept in packed primitive arrays indexed by a dense int id,
+ * so that forces can iterate over positions and velocities without dereferencing a {@code Vertex} per access.
+ * The arrays are replaced when the storage grows, so callers must not hold on to them across insertions.
+ */
+public class PackedVertices {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private double[] x;
+    private double[] y;
+    private double[] vx;
+    private double[] vy;
+    private final BitSet xFixed;
+    private final BitSet yFixed;
+    private final List<Vertex> views;
+    private final List<Vertex> unmodifiableViews;
+    private int size;
+
+    public PackedVertices() {
+        x = new double[INITIAL_CAPACITY];
+        y = new double[INITIAL_CAPACITY];
+        vx = new double[INITIAL_CAPACITY];
+        vy = new double[INITIAL_CAPACITY];
+        xFixed = new BitSet();
+        yFixed = new BitSet();
+        views = new ArrayList<>();
+        unmodifiableViews = Collections.unmodifiableList(views);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int add(double x, double y, double vx, double vy, boolean isXFixed, boolean isYFixed) {
+        ensureCapacity(size + 1);
+        int id = size++;
+        this.x[id] = x;
+        this.y[id] = y;
+        this.vx[id] = vx;
+        this.vy[id] = vy;
+        xFixed.set(id, isXFixed);
+        yFixed.set(id, isYFixed);
+        views.add(new PackedVertex(this, id));
+        return id;
+    }
+
+    public void clear() {
+        size = 0;
+        xFixed.clear();
+        yFixed.clear();
+        views.clear();
+    }
+
+    public List<Vertex> views() {
+        return unmodifiableViews;
+    }
+
+    public PackedVertex view(int id) {
+        return (PackedVertex) views.get(id);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= x.length) return;
+        int newCapacity = Math.max(capacity, x.length * 2);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        vx = Arrays.copyOf(vx, newCapacity);
+        vy = Arrays.copyOf(vy, newCapacity);
+    }
+
+    public double[] x() {
+        return x;
+    }
+
+    public double[] y() {
+        return y;
+    }
+
+    public double[] vx() {
+        return vx;
+    }
+
+    public double[] vy() {
+        return vy;
+    }
+
+    public BitSet xFixed() {
+        return xFixed;
+    }
+
+    public BitSet yFixed() {
+        return yFixed;
+    }
+}
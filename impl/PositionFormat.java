@@ -0,0 +1,225 @@
+package com.typedb.force.graph.impl;
+
+import com.typedb.force.graph.api.Vertex;
+
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Writes vertex positions into a {@link ByteBuffer}, such as a direct buffer, a memory-mapped file (see
+ * {@link MappedPositionFile}) or, on Java 21 and later, {@code MemorySegment.asByteBuffer()}, and reads them back.
+ * A frame is laid out as follows, with every field little-endian:
+ * <pre>
+ * offset  size  field
+ *      0     4  magic: the bytes "FGPS" (0x53504746 as an int32)
+ *      4     2  format version: 1
+ *      6     2  bytes per coordinate: 4 for float32, 8 for float64
+ *      8     4  vertex count, n (int32)
+ *     12     4  reserved: 0
+ *     16     8  sequence number (int64): odd while the frame is being written
+ *     24     8  tick at which the positions were taken (int64), or -1 if unknown
+ *     32  n*2c  the x and y coordinate of each vertex in turn: x0, y0, x1, y1, ...
+ * </pre>
+ * The interleaved coordinates can be uploaded as they are to a GPU vertex buffer of 2-component vectors.
+ * <p>
+ * A frame may be rewritten in place while another thread or process reads it. Each write makes the sequence number
+ * odd, writes the frame and then makes it even again, so a reader that sees the same even sequence number before
+ * and after copying the frame knows that the copy is complete; {@link #read(ByteBuffer, PositionFrame)} does this.
+ * A writer that dies mid-frame leaves the sequence number odd, so readers give up after a timeout rather than wait
+ * for it forever.
+ */
+public final class PositionFormat {
+    public static final int MAGIC = 0x53504746;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(1);
+
+    private static final int VERSION_OFFSET = 4;
+    private static final int PRECISION_OFFSET = 6;
+    private static final int COUNT_OFFSET = 8;
+    private static final int SEQUENCE_OFFSET = 16;
+    private static final int TICK_OFFSET = 24;
+    private static final int SPINS_BEFORE_YIELDING = 100;
+
+    public enum Precision {
+        FLOAT32(Float.BYTES),
+        FLOAT64(Double.BYTES);
+
+        private final int bytes;
+
+        Precision(int bytes) {
+            this.bytes = bytes;
+        }
+
+        public int bytes() {
+            return bytes;
+        }
+
+        static Precision of(int bytes) {
+            if (bytes == Float.BYTES) return FLOAT32;
+            if (bytes == Double.BYTES) return FLOAT64;
+            throw new IllegalArgumentException("Unsupported coordinate size: " + bytes + " bytes.");
+        }
+    }
+
+    private PositionFormat() {}
+
+    public static int frameSize(int vertexCount, Precision precision) {
+        return HEADER_SIZE + 2 * vertexCount * precision.bytes;
+    }
+
+    /**
+     * Writes a frame of the given vertices' positions, in iteration order, at the target's position. The target's
+     * position, limit and byte order are left unchanged. The vertices must not be moved during the write, so for a
+     * simulation that is ticking on another thread, write a frame from its snapshots instead.
+     *
+     * @throws BufferOverflowException if the frame does not fit in the target's remaining bytes
+     */
+    public static void write(ByteBuffer target, Collection<Vertex> vertices, Precision precision, long tick) {
+        int count = vertices.size();
+        ByteBuffer buffer = begin(target, count, precision, tick);
+        int offset = HEADER_SIZE;
+        if (precision == Precision.FLOAT32) {
+            for (Vertex vertex : vertices) {
+                buffer.putFloat(offset, (float) vertex.getX());
+                buffer.putFloat(offset + Float.BYTES, (float) vertex.getY());
+                offset += 2 * Float.BYTES;
+            }
+        } else {
+            for (Vertex vertex : vertices) {
+                buffer.putDouble(offset, vertex.getX());
+                buffer.putDouble(offset + Double.BYTES, vertex.getY());
+                offset += 2 * Double.BYTES;
+            }
+        }
+        end(buffer);
+    }
+
+    /**
+     * Writes a frame taken from a simulation's snapshots at the target's position, with the frame's tick.
+     *
+     * @throws BufferOverflowException if the frame does not fit in the target's remaining bytes
+     */
+    public static void write(ByteBuffer target, PositionFrame frame, Precision precision) {
+        write(target, frame.x, frame.y, frame.size, precision, frame.tick);
+    }
+
+    /**
+     * Writes a frame of the first count positions of the given coordinate arrays, such as those of a
+     * {@link PackedVertices}, at the target's position.
+     *
+     * @throws BufferOverflowException if the frame does not fit in the target's remaining bytes
+     */
+    public static void write(ByteBuffer target, double[] x, double[] y, int count, Precision precision, long tick) {
+        ByteBuffer buffer = begin(target, count, precision, tick);
+        int offset = HEADER_SIZE;
+        if (precision == Precision.FLOAT32) {
+            for (int i = 0; i < count; i++, offset += 2 * Float.BYTES) {
+                buffer.putFloat(offset, (float) x[i]);
+                buffer.putFloat(offset + Float.BYTES, (float) y[i]);
+            }
+        } else {
+            for (int i = 0; i < count; i++, offset += 2 * Double.BYTES) {
+                buffer.putDouble(offset, x[i]);
+                buffer.putDouble(offset + Double.BYTES, y[i]);
+            }
+        }
+        end(buffer);
+    }
+
+    /**
+     * Returns a little-endian view of the frame at the target's position, after making its sequence number odd and
+     * writing the rest of its header.
+     */
+    private static ByteBuffer begin(ByteBuffer target, int count, Precision precision, long tick) {
+        if (target.remaining() < frameSize(count, precision)) throw new BufferOverflowException();
+        ByteBuffer buffer = target.slice().order(ByteOrder.LITTLE_ENDIAN);
+        long sequence = buffer.getInt(0) == MAGIC ? buffer.getLong(SEQUENCE_OFFSET) : 0;
+        buffer.putLong(SEQUENCE_OFFSET, (sequence & 1) == 0 ? sequence + 1 : sequence + 2); // a writer that died mid-frame left it odd
+        VarHandle.storeStoreFence(); // the odd sequence number must be visible before anything else is overwritten
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(VERSION_OFFSET, (short) VERSION);
+        buffer.putShort(PRECISION_OFFSET, (short) precision.bytes);
+        buffer.putInt(COUNT_OFFSET, count);
+        buffer.putInt(COUNT_OFFSET + 4, 0);
+        buffer.putLong(TICK_OFFSET, tick);
+        return buffer;
+    }
+
+    private static void end(ByteBuffer buffer) {
+        VarHandle.storeStoreFence(); // the frame must be visible before the even sequence number
+        buffer.putLong(SEQUENCE_OFFSET, buffer.getLong(SEQUENCE_OFFSET) + 1);
+    }
+
+    /**
+     * Reads the frame at the source's position into the given frame, growing it if necessary, and returns it, giving
+     * up after the {@link #DEFAULT_READ_TIMEOUT}.
+     *
+     * @see #read(ByteBuffer, PositionFrame, Duration)
+     */
+    public static PositionFrame read(ByteBuffer source, PositionFrame frame) {
+        return read(source, frame, DEFAULT_READ_TIMEOUT);
+    }
+
+    /**
+     * Reads the frame at the source's position into the given frame, growing it if necessary, and returns it. Reads
+     * that overlap a write are retried until the timeout elapses, so the frame returned is always complete. The
+     * source's position is left unchanged.
+     *
+     * @throws IllegalArgumentException if the source does not hold a frame in this format
+     * @throws BufferUnderflowException if the frame does not fit in the source's remaining bytes, for example because
+     *                                  the file it maps has grown
+     * @throws IllegalStateException    if no complete frame could be read before the timeout, for example because the
+     *                                  writer died mid-frame
+     */
+    public static PositionFrame read(ByteBuffer source, PositionFrame frame, Duration timeout) {
+        ByteBuffer buffer = source.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC) throw new IllegalArgumentException("The buffer does not hold a position frame.");
+        if (buffer.getShort(VERSION_OFFSET) != VERSION) throw new IllegalArgumentException("Unsupported position frame version: " + buffer.getShort(VERSION_OFFSET) + ".");
+        long start = System.nanoTime();
+        for (int attempt = 0; ; attempt++) {
+            if (attempt > 0) {
+                if (System.nanoTime() - start >= timeout.toNanos()) {
+                    throw new IllegalStateException("No complete position frame could be read within " + timeout.toMillis() + "ms.");
+                }
+                if (attempt < SPINS_BEFORE_YIELDING) Thread.onSpinWait();
+                else Thread.yield();
+            }
+            long sequence = buffer.getLong(SEQUENCE_OFFSET);
+            if ((sequence & 1) != 0) continue;
+            VarHandle.loadLoadFence(); // the header must not be read before the sequence number
+            Precision precision = Precision.of(buffer.getShort(PRECISION_OFFSET));
+            int count = buffer.getInt(COUNT_OFFSET);
+            long tick = buffer.getLong(TICK_OFFSET);
+            if (count < 0 || buffer.remaining() < frameSize(count, precision)) {
+                VarHandle.loadLoadFence();
+                if (buffer.getLong(SEQUENCE_OFFSET) != sequence) continue; // a torn header
+                throw new BufferUnderflowException();
+            }
+            frame.ensureCapacity(count);
+            int offset = HEADER_SIZE;
+            if (precision == Precision.FLOAT32) {
+                for (int i = 0; i < count; i++, offset += 2 * Float.BYTES) {
+                    frame.x[i] = buffer.getFloat(offset);
+                    frame.y[i] = buffer.getFloat(offset + Float.BYTES);
+                }
+            } else {
+                for (int i = 0; i < count; i++, offset += 2 * Double.BYTES) {
+                    frame.x[i] = buffer.getDouble(offset);
+                    frame.y[i] = buffer.getDouble(offset + Double.BYTES);
+                }
+            }
+            VarHandle.loadLoadFence(); // the copy must be complete before the sequence number is checked again
+            if (buffer.getLong(SEQUENCE_OFFSET) == sequence) {
+                frame.size = count;
+                frame.tick = tick;
+                return frame;
+            }
+        }
+    }
+}
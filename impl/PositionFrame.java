@@ -0,0 +1,48 @@
+package com.typedb.force.graph.impl;
+
+import java.util.Arrays;
+
+/**
+ * A copy of every vertex position at the end of one tick, in the order of the simulation's vertices. A frame is not
+ * changed by the simulation once it has been returned; it is only overwritten when passed back in to
+ * {@link PositionSnapshots#latestFrame(PositionFrame)}.
+ */
+public final class PositionFrame {
+    long tick;
+    int size;
+    double[] x;
+    double[] y;
+
+    public PositionFrame() {
+        tick = -1;
+        size = 0;
+        x = y = new double[0];
+    }
+
+    /**
+     * Returns the number of the tick at whose end this frame was taken, starting from 0, or -1 if no frame has been
+     * published yet.
+     */
+    public long tick() {
+        return tick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double x(int index) {
+        return x[index];
+    }
+
+    public double y(int index) {
+        return y[index];
+    }
+
+    void ensureCapacity(int capacity) {
+        if (x.length >= capacity) return;
+        int newCapacity = Math.max(capacity, 2 * x.length);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+    }
+}
@@ -0,0 +1,105 @@
+package com.typedb.force.graph.impl;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Publishes the vertex positions at the end of each tick for reader threads, without locking. Positions are copied
+ * into one of three primitive buffers in turn, so a reader copying out the latest frame is only disturbed if two more
+ * ticks complete during its copy. Each buffer carries a sequence number, odd while it is being written, that readers
+ * check before and after their copy and retry on a mismatch. The ticking thread never waits for readers.
+ */
+public class PositionSnapshots {
+    private static final int BUFFER_COUNT = 3;
+
+    private final Buffer[] buffers;
+    private volatile int latest;
+    private long nextTick;
+
+    PositionSnapshots() {
+        buffers = new Buffer[BUFFER_COUNT];
+        for (int i = 0; i < BUFFER_COUNT; i++) buffers[i] = new Buffer(i);
+        latest = -1;
+        nextTick = 0;
+    }
+
+    /**
+     * Starts writing the next frame into the least recently published buffer, and returns that buffer. Must only be
+     * called by the ticking thread, and must be followed by {@link #endFrame(Buffer)}.
+     */
+    Buffer beginFrame(int size) {
+        Buffer buffer = buffers[(latest + 1) % BUFFER_COUNT];
+        buffer.sequence++;
+        VarHandle.storeStoreFence(); // the odd sequence number must be visible before any position is overwritten
+        buffer.frame.ensureCapacity(size);
+        buffer.frame.size = size;
+        buffer.frame.tick = nextTick++;
+        return buffer;
+    }
+
+    void endFrame(Buffer buffer) {
+        buffer.sequence++;
+        latest = buffer.index;
+    }
+
+    /**
+     * Returns a copy of the latest complete frame.
+     */
+    public PositionFrame latestFrame() {
+        return latestFrame(new PositionFrame());
+    }
+
+    /**
+     * Copies the latest complete frame into the given frame, growing it if necessary, and returns it. Reusing a frame
+     * makes repeated reads allocation-free. If nothing has been published yet, the frame is emptied.
+     */
+    public PositionFrame latestFrame(PositionFrame frame) {
+        while (true) {
+            int index = latest;
+            if (index < 0) {
+                frame.tick = -1;
+                frame.size = 0;
+                return frame;
+            }
+            Buffer buffer = buffers[index];
+            long sequence = buffer.sequence;
+            if ((sequence & 1) == 0) {
+                PositionFrame source = buffer.frame;
+                int size = source.size;
+                long tick = source.tick;
+                double[] x = source.x, y = source.y;
+                if (size <= x.length && size <= y.length) {
+                    frame.ensureCapacity(size);
+                    System.arraycopy(x, 0, frame.x, 0, size);
+                    System.arraycopy(y, 0, frame.y, 0, size);
+                    VarHandle.loadLoadFence(); // the copy must be complete before the sequence number is checked again
+                    if (buffer.sequence == sequence) {
+                        frame.size = size;
+                        frame.tick = tick;
+                        return frame;
+                    }
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    static class Buffer {
+        final int index;
+        final PositionFrame frame;
+        volatile long sequence;
+
+        private Buffer(int index) {
+            this.index = index;
+            frame = new PositionFrame();
+            sequence = 0;
+        }
+
+        double[] x() {
+            return frame.x;
+        }
+
+        double[] y() {
+            return frame.y;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.typedb.force.graph.impl;
+
+import com.typedb.force.graph.api.Vertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks which vertices of a {@link BasicSimulation} have settled and fallen asleep. Vertices are referred to by their
+ * index in the simulation's set of vertices to integrate. A vertex falls asleep once it has moved no further than the
+ * sleep speed in each of a number of consecutive ticks. Sleeping vertices are bucketed into a grid of cells as wide as
+ * the wake radius, and never move while asleep, so waking those near a moving vertex only looks at the cells around
+ * it. The awake vertices are kept in a list in a stable order, which is only rebuilt when some fall asleep or wake.
+ */
+final class SleepTracker {
+    private final double speed2;
+    private final int ticks;
+    private final double wakeRadius;
+    private int size;
+    private int universeVersion;
+    private int[] calmTicks;
+    private double[] sleepX;
+    private double[] sleepY;
+    private final BitSet asleep;
+    private int sleepingCount;
+    private final BitSet listed; // awake vertices already in the awake list
+    private int[] awakeIndices;
+    private int awakeCount;
+    private int awakeVersion; // incremented whenever the awake list changes
+    private final List<Vertex> awakeVertices;
+    private final Set<Vertex> awakeSet;
+    private final Map<Long, List<Integer>> cells;
+    private final List<Integer> falling;
+    private final List<Integer> moving;
+    private final List<Integer> woken;
+
+    SleepTracker(double speed, int ticks, double wakeRadius) {
+        speed2 = speed * speed;
+        this.ticks = ticks;
+        this.wakeRadius = wakeRadius;
+        universeVersion = -1;
+        calmTicks = new int[0];
+        sleepX = sleepY = new double[0];
+        asleep = new BitSet();
+        listed = new BitSet();
+        awakeIndices = new int[0];
+        awakeVertices = new ArrayList<>();
+        awakeSet = new HashSet<>();
+        cells = new HashMap<>();
+        falling = new ArrayList<>();
+        moving = new ArrayList<>();
+        woken = new ArrayList<>();
+    }
+
+    /**
+     * Brings the tracked vertices up to date with the simulation's: vertices appended since the last call start
+     * awake, and if the vertices have been re-indexed since, every vertex wakes.
+     */
+    void refresh(Vertex[] universe, int universeSize, int universeVersion) {
+        if (universeVersion != this.universeVersion || universeSize < size) {
+            this.universeVersion = universeVersion;
+            size = 0;
+            asleep.clear();
+            sleepingCount = 0;
+            listed.clear();
+            awakeCount = 0;
+            awakeVertices.clear();
+            awakeSet.clear();
+            cells.clear();
+        }
+        if (universeSize == size) return;
+        if (calmTicks.length < universeSize) {
+            int capacity = Math.max(universeSize, 2 * calmTicks.length);
+            calmTicks = Arrays.copyOf(calmTicks, capacity);
+            sleepX = Arrays.copyOf(sleepX, capacity);
+            sleepY = Arrays.copyOf(sleepY, capacity);
+            awakeIndices = Arrays.copyOf(awakeIndices, capacity);
+        }
+        awakeVersion++;
+        for (int i = size; i < universeSize; i++) {
+            calmTicks[i] = 0;
+            listed.set(i);
+            awakeIndices[awakeCount++] = i;
+            awakeVertices.add(universe[i]);
+            awakeSet.add(universe[i]);
+        }
+        size = universeSize;
+    }
+
+    /**
+     * Wakes every vertex, which takes effect immediately.
+     */
+    void wakeAll(Vertex[] universe) {
+        for (int i = asleep.nextSetBit(0); i >= 0; i = asleep.nextSetBit(i + 1)) {
+            calmTicks[i] = 0;
+            woken.add(i);
+        }
+        asleep.clear();
+        sleepingCount = 0;
+        cells.clear();
+        refreshAwake(universe);
+    }
+
+    /**
+     * Wakes a vertex if it is asleep. Takes effect once the awake vertices are next refreshed.
+     */
+    void wake(int index) {
+        if (!asleep.get(index)) return;
+        asleep.clear(index);
+        sleepingCount--;
+        calmTicks[index] = 0;
+        List<Integer> cell = cells.get(cell(sleepX[index], sleepY[index]));
+        cell.remove(Integer.valueOf(index));
+        if (cell.isEmpty()) cells.remove(cell(sleepX[index], sleepY[index]));
+        woken.add(index);
+    }
+
+    /**
+     * Wakes every sleeping vertex that has been moved from outside the simulation since it fell asleep.
+     */
+    void wakeMoved(Vertex[] universe) {
+        for (int i = asleep.nextSetBit(0); i >= 0; i = asleep.nextSetBit(i + 1)) {
+            if (universe[i].getX() != sleepX[i] || universe[i].getY() != sleepY[i]) wake(i);
+        }
+    }
+
+    /**
+     * Records how far an awake vertex moved in this tick.
+     */
+    void settle(int index, double displacement2) {
+        if (displacement2 > speed2) {
+            calmTicks[index] = 0;
+            if (wakeRadius > 0 && sleepingCount + falling.size() > 0) moving.add(index);
+        } else if (++calmTicks[index] == ticks) {
+            falling.add(index);
+        }
+    }
+
+    /**
+     * Ends a tick: puts the vertices that have been calm for long enough to sleep, then wakes the sleeping vertices
+     * within the wake radius of a vertex that moved faster than the sleep speed.
+     */
+    void endTick(Vertex[] universe) {
+        for (int i : falling) {
+            Vertex vertex = universe[i];
+            vertex.setVX(0);
+            vertex.setVY(0);
+            asleep.set(i);
+            sleepingCount++;
+            sleepX[i] = vertex.getX();
+            sleepY[i] = vertex.getY();
+            cells.computeIfAbsent(cell(sleepX[i], sleepY[i]), key -> new ArrayList<>()).add(i);
+        }
+        double radius2 = wakeRadius * wakeRadius;
+        for (int m : moving) {
+            Vertex vertex = universe[m];
+            double cellX = Math.floor(vertex.getX() / wakeRadius), cellY = Math.floor(vertex.getY() / wakeRadius);
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    List<Integer> cell = cells.get(key(cellX + dx, cellY + dy));
+                    if (cell == null) continue;
+                    for (int c = cell.size() - 1; c >= 0; c--) {
+                        int i = cell.get(c);
+                        double x = sleepX[i] - vertex.getX(), y = sleepY[i] - vertex.getY();
+                        if (x*x + y*y <= radius2) wake(i);
+                    }
+                }
+            }
+        }
+        boolean isChanged = !falling.isEmpty();
+        falling.clear();
+        moving.clear();
+        if (isChanged || !woken.isEmpty()) refreshAwake(universe);
+    }
+
+    /**
+     * Drops the vertices that have fallen asleep from the awake list, keeping the order of the others, and appends
+     * those that have woken.
+     */
+    void refreshAwake(Vertex[] universe) {
+        int count = 0;
+        awakeVertices.clear();
+        for (int a = 0; a < awakeCount; a++) {
+            int i = awakeIndices[a];
+            if (asleep.get(i)) {
+                listed.clear(i);
+                awakeSet.remove(universe[i]);
+                continue;
+            }
+            awakeIndices[count++] = i;
+            awakeVertices.add(universe[i]);
+        }
+        for (int i : woken) {
+            if (asleep.get(i) || listed.get(i)) continue;
+            listed.set(i);
+            awakeIndices[count++] = i;
+            awakeVertices.add(universe[i]);
+            awakeSet.add(universe[i]);
+        }
+        awakeCount = count;
+        awakeVersion++;
+        woken.clear();
+    }
+
+    private long cell(double x, double y) {
+        return key(Math.floor(x / wakeRadius), Math.floor(y / wakeRadius));
+    }
+
+    private static long key(double cellX, double cellY) {
+        return ((long) cellX << 32) ^ ((long) cellY & 0xFFFFFFFFL);
+    }
+
+    boolean hasWoken() {
+        return !woken.isEmpty();
+    }
+
+    boolean isAsleep(int index) {
+        return asleep.get(index);
+    }
+
+    int sleepingCount() {
+        return sleepingCount;
+    }
+
+    int[] awakeIndices() {
+        return awakeIndices;
+    }
+
+    int awakeCount() {
+        return awakeCount;
+    }
+
+    int awakeVersion() {
+        return awakeVersion;
+    }
+
+    List<Vertex> awakeVertices() {
+        return awakeVertices;
+    }
+
+    Set<Vertex> awakeSet() {
+        return awakeSet;
+    }
+}
@@ -0,0 +1,173 @@
+package com.typedb.force.graph.impl;
+
+import com.typedb.force.graph.api.Force;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The timings and statistics of one tick of a {@link BasicSimulation}. A tick runs in phases: the quadtrees of the
+ * inter-body forces are built, the inter-body forces are applied across the simulation's threads, the remaining
+ * forces and then the local forces are applied, and finally the vertices are integrated. Phase times are wall times.
+ */
+public final class TickMetrics {
+    long tick;
+    double alpha;
+    int vertexCount;
+    int sleepingVertexCount;
+    long tickNanos;
+    long quadtreeNanos;
+    long interBodyNanos;
+    long singleBodyNanos;
+    long localNanos;
+    long integrationNanos;
+    double partitionImbalance;
+    long allocatedBytes;
+    final List<ForceMetrics> forces;
+    private final List<ForceMetrics> forcesView;
+
+    TickMetrics() {
+        forces = new ArrayList<>();
+        forcesView = Collections.unmodifiableList(forces);
+    }
+
+    /**
+     * Returns the number of this tick, starting from 0 for the first tick after the listener was added.
+     */
+    public long tick() {
+        return tick;
+    }
+
+    public double alpha() {
+        return alpha;
+    }
+
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Returns the number of vertices that slept through the tick, neither having forces applied to them nor being
+     * integrated (see {@link BasicSimulation#setSleeping(double, int, double)}).
+     */
+    public int sleepingVertexCount() {
+        return sleepingVertexCount;
+    }
+
+    public long tickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Returns the time taken to build (or refit) the quadtrees of every {@link com.typedb.force.graph.force.ManyBodyForce}
+     * and {@link com.typedb.force.graph.force.CollideForce}.
+     */
+    public long quadtreeNanos() {
+        return quadtreeNanos;
+    }
+
+    /**
+     * Returns the time taken to apply the inter-body forces, which walk the quadtrees, across all threads.
+     */
+    public long interBodyNanos() {
+        return interBodyNanos;
+    }
+
+    /**
+     * Returns the time taken to apply every other force of the simulation, such as links and centering.
+     */
+    public long singleBodyNanos() {
+        return singleBodyNanos;
+    }
+
+    public long localNanos() {
+        return localNanos;
+    }
+
+    public long integrationNanos() {
+        return integrationNanos;
+    }
+
+    /**
+     * Returns how unevenly the inter-body work was spread across the simulation's threads: the busiest thread's
+     * time divided by the mean time per thread. A value of 1 is a perfect balance; with a single thread it is
+     * always 1, and it is 0 if there were no inter-body forces.
+     */
+    public double partitionImbalance() {
+        return partitionImbalance;
+    }
+
+    /**
+     * Returns the number of bytes allocated during the tick by the ticking thread and the threads that applied the
+     * inter-body forces, or -1 if the JVM cannot measure allocation. The threads of an executor shared with other
+     * work also count what they allocated for that work.
+     */
+    public long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the metrics of each force, in the order the forces were added, followed by those of the local forces.
+     */
+    public List<ForceMetrics> forces() {
+        return forcesView;
+    }
+
+    public static final class ForceMetrics {
+        Force force;
+        boolean isLocal;
+        long nanos;
+        long quadtreeNanos;
+        int quadtreeNodeCount;
+        int quadtreeDepth;
+        long nodeVisits;
+
+        ForceMetrics() {}
+
+        public Force force() {
+            return force;
+        }
+
+        public boolean isLocal() {
+            return isLocal;
+        }
+
+        /**
+         * Returns the time taken to apply the force, excluding its quadtree build. For an inter-body force applied
+         * across several threads, this is the sum of the time spent on each thread.
+         */
+        public long nanos() {
+            return nanos;
+        }
+
+        /**
+         * Returns the time taken to build or refit the force's quadtree, or 0 if it has none.
+         */
+        public long quadtreeNanos() {
+            return quadtreeNanos;
+        }
+
+        /**
+         * Returns the number of live nodes in the force's quadtree, excluding any dead nodes left by refitting, or 0
+         * if it has none.
+         */
+        public int quadtreeNodeCount() {
+            return quadtreeNodeCount;
+        }
+
+        /**
+         * Returns the depth of the force's quadtree, or -1 if it has none or it is empty.
+         */
+        public int quadtreeDepth() {
+            return quadtreeDepth;
+        }
+
+        /**
+         * Returns the number of quadtree nodes visited while applying the force, or 0 if it has no quadtree.
+         */
+        public long nodeVisits() {
+            return nodeVisits;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.typedb.force.graph.quadtree;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * An {@link ArrayQuadtree} whose cells carry aggregate slots for the inter-body forces: the centre and total of
+ * charge for Barnes-Hut approximation, and the maximum point radius for collision detection. Each aggregate is
+ * computed in a single post-order pass after the tree is built, and is stored in a primitive array indexed by node.
+ */
+public class AggregateQuadtree extends ArrayQuadtree {
+    private double[] chargeX;
+    private double[] chargeY;
+    private double[] charge;
+    private double[] radius;
+
+    public AggregateQuadtree() {
+        chargeX = chargeY = charge = radius = new double[0];
+    }
+
+    /**
+     * Computes the total charge and centre of charge of every cell, where every point has the same charge.
+     */
+    public void accumulateCharge(double pointCharge) {
+        accumulateCharge(pointCharge, null);
+    }
+
+    /**
+     * Computes the total charge and centre of charge of every cell, where each point's charge is given by its index.
+     */
+    public void accumulateCharge(IntToDoubleFunction pointCharge) {
+        accumulateCharge(0, pointCharge);
+    }
+
+    private void accumulateCharge(double uniformCharge, IntToDoubleFunction pointCharge) {
+        int nodeCount = nodeCount();
+        if (charge.length < nodeCount) {
+            int capacity = Math.max(nodeCount, 2 * charge.length);
+            chargeX = Arrays.copyOf(chargeX, capacity);
+            chargeY = Arrays.copyOf(chargeY, capacity);
+            charge = Arrays.copyOf(charge, capacity);
+        }
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            double strength = 0.0;
+            int p = point(node);
+            if (p < 0) {
+                // For internal nodes, accumulate charge from child quadrants
+                double weight = 0.0;
+                double x = 0.0, y = 0.0;
+                for (int i = 0; i < 4; i++) {
+                    int qi = child(node, i);
+                    if (qi < 0 || charge[qi] == 0.0) continue;
+                    double c = Math.abs(charge[qi]);
+                    strength += charge[qi];
+                    weight += c;
+                    x += c * chargeX[qi]; y += c * chargeY[qi];
+                }
+                chargeX[node] = x / weight;
+                chargeY[node] = y / weight;
+            } else {
+                // For leaf nodes, accumulate charge from coincident points
+                chargeX[node] = pointX(p);
+                chargeY[node] = pointY(p);
+                do {
+                    strength += pointCharge == null ? uniformCharge : pointCharge.applyAsDouble(p);
+                    p = nextPoint(p);
+                } while (p >= 0);
+            }
+            charge[node] = strength;
+        }
+    }
+
+    /**
+     * Computes the maximum point radius within every cell, where every point has the same radius.
+     */
+    public void accumulateRadius(double pointRadius) {
+        accumulateRadius(pointRadius, null);
+    }
+
+    /**
+     * Computes the maximum point radius within every cell, where each point's radius is given by its index.
+     */
+    public void accumulateRadius(IntToDoubleFunction pointRadius) {
+        accumulateRadius(0, pointRadius);
+    }
+
+    private void accumulateRadius(double uniformRadius, IntToDoubleFunction pointRadius) {
+        int nodeCount = nodeCount();
+        if (radius.length < nodeCount) radius = Arrays.copyOf(radius, Math.max(nodeCount, 2 * radius.length));
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            double quadRadius = 0.0;
+            int p = point(node);
+            if (p < 0) {
+                for (int i = 0; i < 4; i++) {
+                    int qi = child(node, i);
+                    if (qi >= 0 && radius[qi] > quadRadius) quadRadius = radius[qi];
+                }
+            } else {
+                do {
+                    double r = pointRadius == null ? uniformRadius : pointRadius.applyAsDouble(p);
+                    if (r > quadRadius) quadRadius = r;
+                    p = nextPoint(p);
+                } while (p >= 0);
+            }
+            radius[node] = quadRadius;
+        }
+    }
+
+    public double chargeX(int node) {
+        return chargeX[node];
+    }
+
+    public double chargeY(int node) {
+        return chargeY[node];
+    }
+
+    public double charge(int node) {
+        return charge[node];
+    }
+
+    public double radius(int node) {
+        return radius[node];
+    }
+}
@@ -0,0 +1,793 @@
+package com.typedb.force.graph.quadtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A quadtree stored in flat int arrays. Nodes are identified by int indices, children are kept four to a node in a
+ * single array, and points are identified by their position in the input. Cell bounds are not stored: they are
+ * derived while traversing from the root. All storage is reused when the tree is rebuilt, so a steady-state rebuild
+ * does not allocate.
+ * <p>
+ * A child node always has a greater index than its parent, so iterating nodes in descending index order visits
+ * every child before its parent.
+ * <p>
+ * Large trees can be built in parallel: points are bucketed into the cells a few levels below the root, each cell's
+ * subtree is built independently, and the subtrees are then stitched below a shared top. The resulting tree has the
+ * same shape and coincident-point order as one built serially.
+ * <p>
+ * Between builds, the tree can instead be refit to new point positions (see {@link #refit}). Only the points that have
+ * left their leaf's cell are removed and re-inserted, and nodes left empty are detached and counted as dead until the
+ * next full build. To support this, the first refit after a build links every node to its parent and cell bounds, and
+ * every point to its leaf; those links are then maintained by each insertion.
+ */
+public class ArrayQuadtree {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NONE = -1;
+    public static final int PARALLEL_BUILD_THRESHOLD = 16384;
+    private static final int MAX_CELL_DEPTH = 4;
+
+    private double x0;
+    private double y0;
+    private double x1;
+    private double y1;
+
+    private double[] pointX;
+    private double[] pointY;
+    private int[] pointNext;
+    private int pointCount;
+
+    private int[] children;
+    private int[] leafPoint;
+    private int nodeCount;
+
+    private final ThreadLocal<Traversal> traversals;
+
+    private ArrayQuadtree[] cells;
+    private int[] cellOffsets;
+    private int[] cellPoints;
+    private int[] pointCells;
+
+    private boolean isLinked;
+    private int[] nodeParent;
+    private double[] nodeX0;
+    private double[] nodeY0;
+    private double[] nodeSize;
+    private int[] pointLeaf;
+    private int[] movedPoints;
+    private int deadNodeCount;
+    private int[] nodeDepths;
+
+    public ArrayQuadtree() {
+        pointX = new double[INITIAL_CAPACITY];
+        pointY = new double[INITIAL_CAPACITY];
+        pointNext = new int[INITIAL_CAPACITY];
+        children = new int[4 * INITIAL_CAPACITY];
+        leafPoint = new int[INITIAL_CAPACITY];
+        traversals = ThreadLocal.withInitial(Traversal::new);
+        cells = new ArrayQuadtree[0];
+        cellOffsets = new int[0];
+        cellPoints = pointCells = new int[0];
+        nodeParent = pointLeaf = movedPoints = new int[0];
+        nodeX0 = nodeY0 = nodeSize = new double[0];
+        nodeDepths = new int[0];
+        clear();
+    }
+
+    public <DATA> void build(Collection<? extends DATA> data, ToDoubleFunction<? super DATA> x, ToDoubleFunction<? super DATA> y) {
+        clear();
+        ensurePointCapacity(data.size());
+        int i = 0;
+        for (DATA d : data) {
+            pointX[i] = x.applyAsDouble(d);
+            pointY[i] = y.applyAsDouble(d);
+            i++;
+        }
+        pointCount = i;
+        insertPoints();
+    }
+
+    public void build(int count, IntToDoubleFunction x, IntToDoubleFunction y) {
+        clear();
+        ensurePointCapacity(count);
+        for (int i = 0; i < count; i++) {
+            pointX[i] = x.applyAsDouble(i);
+            pointY[i] = y.applyAsDouble(i);
+        }
+        pointCount = count;
+        insertPoints();
+    }
+
+    /**
+     * Builds the tree using the given executor. Small inputs, or a parallelism of 1, are built serially.
+     */
+    public void build(int count, IntToDoubleFunction x, IntToDoubleFunction y, ExecutorService executor, int parallelism) {
+        if (count < PARALLEL_BUILD_THRESHOLD || parallelism <= 1) {
+            build(count, x, y);
+            return;
+        }
+        clear();
+        ensurePointCapacity(count);
+        pointCount = count;
+        invokeAll(executor, parallelism, t -> {
+            int from = (int) ((long) count * t / parallelism), to = (int) ((long) count * (t + 1) / parallelism);
+            for (int i = from; i < to; i++) {
+                pointX[i] = x.applyAsDouble(i);
+                pointY[i] = y.applyAsDouble(i);
+            }
+        });
+        if (!computeExtent()) return;
+
+        // Bucket the points by the cell they fall into at the split depth, preserving their order
+        int depth = 1;
+        while (depth < MAX_CELL_DEPTH && (1 << (2 * depth)) < 8 * parallelism) depth++;
+        int cellCount = 1 << (2 * depth);
+        prepareCells(cellCount);
+        int[] counts = new int[cellCount];
+        for (int i = 0; i < count; i++) {
+            int cell = Double.isNaN(pointX[i]) || Double.isNaN(pointY[i]) ? NONE : cellOf(pointX[i], pointY[i], depth);
+            pointCells[i] = cell;
+            if (cell != NONE) counts[cell]++;
+        }
+        for (int c = 0; c < cellCount; c++) cellOffsets[c + 1] = cellOffsets[c] + counts[c];
+        System.arraycopy(cellOffsets, 0, counts, 0, cellCount);
+        for (int i = 0; i < count; i++) {
+            if (pointCells[i] != NONE) cellPoints[counts[pointCells[i]]++] = i;
+        }
+
+        // Build every cell's subtree independently
+        final int cellDepth = depth;
+        invokeAll(executor, cellCount, c -> {
+            double size = (x1 - x0) / (1 << cellDepth);
+            int cx = 0, cy = 0;
+            for (int d = 0; d < cellDepth; d++) {
+                int q = (c >> (2 * (cellDepth - 1 - d))) & 3;
+                cx = 2 * cx + (q & 1);
+                cy = 2 * cy + (q >> 1);
+            }
+            double cellX0 = x0 + cx * size, cellY0 = y0 + cy * size;
+            cells[c].buildCell(this, cellPoints, cellOffsets[c], cellOffsets[c + 1], cellX0, cellY0, cellX0 + size, cellY0 + size);
+        });
+
+        // Lay out the shared top of the tree, then copy each subtree below it
+        int topCount = countTopNodes(0, 0, cellDepth);
+        int[] cellBases = new int[cellCount];
+        int total = topCount;
+        for (int c = 0; c < cellCount; c++) {
+            cellBases[c] = total;
+            total += cells[c].nodeCount;
+        }
+        ensureNodeCapacity(total);
+        nodeCount = 0;
+        emitTopNode(0, 0, cellDepth, cellBases);
+        invokeAll(executor, cellCount, c -> cells[c].copyInto(this, cellBases[c]));
+        nodeCount = total;
+    }
+
+    private int cellOf(double x, double y, int depth) {
+        double _x0 = x0, _y0 = y0, _x1 = x1, _y1 = y1;
+        int cell = 0;
+        for (int d = 0; d < depth; d++) {
+            double xm = (_x0 + _x1) / 2, ym = (_y0 + _y1) / 2;
+            cell = 4 * cell + quadrant(x, y, xm, ym);
+            if (x >= xm) _x0 = xm; else _x1 = xm;
+            if (y >= ym) _y0 = ym; else _y1 = ym;
+        }
+        return cell;
+    }
+
+    private void prepareCells(int cellCount) {
+        if (cells.length < cellCount) {
+            int previous = cells.length;
+            cells = Arrays.copyOf(cells, cellCount);
+            for (int c = previous; c < cellCount; c++) cells[c] = new ArrayQuadtree();
+        }
+        if (cellOffsets.length < cellCount + 1) cellOffsets = new int[cellCount + 1];
+        if (cellPoints.length < pointCount) {
+            cellPoints = new int[pointX.length];
+            pointCells = new int[pointX.length];
+        }
+    }
+
+    private void buildCell(ArrayQuadtree parent, int[] points, int from, int to, double x0, double y0, double x1, double y1) {
+        pointX = parent.pointX;
+        pointY = parent.pointY;
+        pointNext = parent.pointNext;
+        pointCount = parent.pointCount;
+        nodeCount = 0;
+        this.x0 = x0; this.y0 = y0; this.x1 = x1; this.y1 = y1;
+        for (int i = from; i < to; i++) insert(points[i]);
+    }
+
+    private void copyInto(ArrayQuadtree target, int base) {
+        for (int node = 0; node < nodeCount; node++) {
+            target.leafPoint[base + node] = leafPoint[node];
+            for (int i = 0; i < 4; i++) {
+                int child = children[4 * node + i];
+                target.children[4 * (base + node) + i] = child == NONE ? NONE : child + base;
+            }
+        }
+    }
+
+    /**
+     * Counts the internal nodes needed above the split depth. A cell above the split depth is internal unless all of
+     * its points are coincident, in which case it is the leaf of the one cell below it that has points.
+     */
+    private int countTopNodes(int depth, int prefix, int cellDepth) {
+        if (depth == cellDepth) return 0;
+        if (topKind(depth, prefix, cellDepth) != TopKind.INTERNAL) return 0;
+        int count = 1;
+        for (int q = 0; q < 4; q++) count += countTopNodes(depth + 1, 4 * prefix + q, cellDepth);
+        return count;
+    }
+
+    private TopKind topKind(int depth, int prefix, int cellDepth) {
+        if (depth == cellDepth) {
+            ArrayQuadtree cell = cells[prefix];
+            if (cell.nodeCount == 0) return TopKind.EMPTY;
+            return cell.leafPoint[0] == NONE ? TopKind.INTERNAL : TopKind.LEAF;
+        }
+        int nonEmpty = 0;
+        TopKind kind = TopKind.EMPTY;
+        for (int q = 0; q < 4; q++) {
+            TopKind childKind = topKind(depth + 1, 4 * prefix + q, cellDepth);
+            if (childKind == TopKind.EMPTY) continue;
+            nonEmpty++;
+            kind = childKind;
+        }
+        if (nonEmpty == 0) return TopKind.EMPTY;
+        return nonEmpty == 1 && kind == TopKind.LEAF ? TopKind.LEAF : TopKind.INTERNAL;
+    }
+
+    /**
+     * Creates the node for the given cell, in pre-order, and returns its index.
+     */
+    private int emitTopNode(int depth, int prefix, int cellDepth, int[] cellBases) {
+        if (depth == cellDepth) return cells[prefix].nodeCount == 0 ? NONE : cellBases[prefix];
+        TopKind kind = topKind(depth, prefix, cellDepth);
+        if (kind == TopKind.EMPTY) return NONE;
+        if (kind == TopKind.LEAF) {
+            for (int q = 0; q < 4; q++) {
+                int node = emitTopNode(depth + 1, 4 * prefix + q, cellDepth, cellBases);
+                if (node != NONE) return node;
+            }
+        }
+        int node = nodeCount++;
+        leafPoint[node] = NONE;
+        for (int q = 0; q < 4; q++) children[4 * node + q] = emitTopNode(depth + 1, 4 * prefix + q, cellDepth, cellBases);
+        return node;
+    }
+
+    private enum TopKind {
+        EMPTY, LEAF, INTERNAL
+    }
+
+    private static void invokeAll(ExecutorService executor, int taskCount, IntConsumer task) {
+        List<Future<?>> futures = new ArrayList<>(taskCount);
+        for (int t = 0; t < taskCount; t++) {
+            int taskIndex = t;
+            futures.add(executor.submit(() -> task.accept(taskIndex)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public void clear() {
+        x0 = y0 = x1 = y1 = Double.NaN;
+        pointCount = 0;
+        nodeCount = 0;
+        isLinked = false;
+        deadNodeCount = 0;
+    }
+
+    /**
+     * Updates the tree in place to new positions of the same points. Points that are still inside their leaf's cell,
+     * and are not coincident with another point, stay where they are; all other points are removed and re-inserted.
+     * <p>
+     * If a point has left the tree's extent, the extent is doubled towards it, as many times as needed, with the old
+     * root becoming a child of the new one. A refit tree therefore need not have the same extent, or the same shape,
+     * as a freshly built one.
+     * <p>
+     * Returns false, leaving the tree unusable until it is next built, if the point count has changed, a point has
+     * become invalid, or more than the given fraction of points would need re-inserting.
+     */
+    public boolean refit(int count, IntToDoubleFunction x, IntToDoubleFunction y, double maxMovedFraction) {
+        if (count != pointCount || nodeCount == 0) return false;
+        if (!isLinked) linkNodes();
+
+        // Update every point, collecting those that are no longer in their leaf's cell
+        int maxMoved = (int) (count * maxMovedFraction);
+        if (movedPoints.length < count) movedPoints = new int[pointX.length];
+        int movedCount = 0;
+        for (int i = 0; i < count; i++) {
+            double px = x.applyAsDouble(i), py = y.applyAsDouble(i);
+            if (!Double.isFinite(px) || !Double.isFinite(py)) return false;
+            while (px < x0 || px >= x1 || py < y0 || py >= y1) cover(px, py);
+            int leaf = pointLeaf[i];
+            if (leaf == NONE) return false;
+            pointX[i] = px;
+            pointY[i] = py;
+            double size = nodeSize[leaf];
+            boolean isInCell = px >= nodeX0[leaf] && px < nodeX0[leaf] + size && py >= nodeY0[leaf] && py < nodeY0[leaf] + size;
+            if (isInCell && leafPoint[leaf] == i && pointNext[i] == NONE) continue;
+            if (movedCount == maxMoved) return false;
+            movedPoints[movedCount++] = i;
+        }
+
+        for (int m = 0; m < movedCount; m++) remove(movedPoints[m]);
+        for (int m = 0; m < movedCount; m++) insert(movedPoints[m]);
+
+        // Compact the tree once most of its nodes are dead
+        if (2 * deadNodeCount > nodeCount) {
+            nodeCount = 0;
+            deadNodeCount = 0;
+            isLinked = false;
+            insertPoints();
+        }
+        return true;
+    }
+
+    /**
+     * Doubles the extent towards the given point. Unless the root is a single leaf, whose cell can simply grow, every
+     * node is shifted up by one index to make room for a new root, so that children still follow their parents.
+     */
+    private void cover(double x, double y) {
+        double z = x1 - x0;
+        int quadrant = 0;
+        if (x < x0) {
+            x0 -= z;
+            quadrant |= 1;
+        } else {
+            x1 += z;
+        }
+        if (y < y0) {
+            y0 -= z;
+            quadrant |= 2;
+        } else {
+            y1 += z;
+        }
+        if (leafPoint[0] == NONE) {
+            ensureNodeCapacity(nodeCount + 1);
+            System.arraycopy(children, 0, children, 4, 4 * nodeCount);
+            System.arraycopy(leafPoint, 0, leafPoint, 1, nodeCount);
+            System.arraycopy(nodeParent, 0, nodeParent, 1, nodeCount);
+            System.arraycopy(nodeX0, 0, nodeX0, 1, nodeCount);
+            System.arraycopy(nodeY0, 0, nodeY0, 1, nodeCount);
+            System.arraycopy(nodeSize, 0, nodeSize, 1, nodeCount);
+            nodeCount++;
+            for (int c = 4; c < 4 * nodeCount; c++) {
+                if (children[c] != NONE) children[c]++;
+            }
+            for (int node = 1; node < nodeCount; node++) nodeParent[node]++; // the old root's parent becomes 0
+            for (int p = 0; p < pointCount; p++) {
+                if (pointLeaf[p] != NONE) pointLeaf[p]++;
+            }
+            leafPoint[0] = NONE;
+            Arrays.fill(children, 0, 4, NONE);
+            children[quadrant] = 1;
+        }
+        nodeParent[0] = NONE;
+        nodeX0[0] = x0;
+        nodeY0[0] = y0;
+        nodeSize[0] = x1 - x0;
+    }
+
+    public int deadNodeCount() {
+        return deadNodeCount;
+    }
+
+    /**
+     * Links every node to its parent and cell bounds, and every point to its leaf.
+     */
+    private void linkNodes() {
+        isLinked = true;
+        ensureLinkCapacity();
+        Arrays.fill(pointLeaf, 0, pointCount, NONE);
+        nodeParent[0] = NONE;
+        nodeX0[0] = x0;
+        nodeY0[0] = y0;
+        nodeSize[0] = x1 - x0;
+        for (int node = 0; node < nodeCount; node++) {
+            if (leafPoint[node] == NONE) {
+                for (int q = 0; q < 4; q++) {
+                    int child = children[4 * node + q];
+                    if (child != NONE) link(node, q, child);
+                }
+            } else {
+                for (int p = leafPoint[node]; p != NONE; p = pointNext[p]) pointLeaf[p] = node;
+            }
+        }
+    }
+
+    private void ensureLinkCapacity() {
+        if (nodeParent.length < leafPoint.length) {
+            nodeParent = Arrays.copyOf(nodeParent, leafPoint.length);
+            nodeX0 = Arrays.copyOf(nodeX0, leafPoint.length);
+            nodeY0 = Arrays.copyOf(nodeY0, leafPoint.length);
+            nodeSize = Arrays.copyOf(nodeSize, leafPoint.length);
+        }
+        if (pointLeaf.length < pointX.length) pointLeaf = Arrays.copyOf(pointLeaf, pointX.length);
+    }
+
+    /**
+     * Places a child node in the given quadrant of its parent, and derives the child's cell from the parent's.
+     */
+    private void link(int parent, int quadrant, int child) {
+        children[4 * parent + quadrant] = child;
+        if (!isLinked) return;
+        double size = nodeSize[parent] / 2;
+        nodeParent[child] = parent;
+        nodeX0[child] = nodeX0[parent] + ((quadrant & 1) == 0 ? 0 : size);
+        nodeY0[child] = nodeY0[parent] + ((quadrant >> 1) == 0 ? 0 : size);
+        nodeSize[child] = size;
+    }
+
+    /**
+     * Removes a point from its leaf. An emptied leaf is detached from its parent, and any ancestor whose remaining
+     * points are then all in a single leaf is replaced by that leaf, as it would be in a fresh build.
+     */
+    private void remove(int point) {
+        int leaf = pointLeaf[point];
+        pointLeaf[point] = NONE;
+        if (leafPoint[leaf] == point) {
+            leafPoint[leaf] = pointNext[point];
+        } else {
+            int previous = leafPoint[leaf];
+            while (pointNext[previous] != point) previous = pointNext[previous];
+            pointNext[previous] = pointNext[point];
+        }
+        pointNext[point] = NONE;
+        if (leafPoint[leaf] != NONE) return;
+
+        // The leaf is empty: if it was the root, so is the tree
+        if (leaf == 0) {
+            nodeCount = 0;
+            deadNodeCount = 0;
+            return;
+        }
+        int node = nodeParent[leaf];
+        detach(node, leaf);
+        while (true) {
+            int only = NONE, childCount = 0;
+            for (int q = 0; q < 4; q++) {
+                int child = children[4 * node + q];
+                if (child != NONE) {
+                    only = child;
+                    childCount++;
+                }
+            }
+            if (childCount != 1 || leafPoint[only] == NONE) return;
+            if (node == 0) {
+                // The root becomes the leaf itself, as the root must stay at index 0
+                leafPoint[0] = leafPoint[only];
+                for (int p = leafPoint[0]; p != NONE; p = pointNext[p]) pointLeaf[p] = 0;
+                detach(0, only);
+                return;
+            }
+            int parent = nodeParent[node];
+            for (int q = 0; q < 4; q++) {
+                if (children[4 * parent + q] == node) children[4 * parent + q] = only;
+            }
+            nodeParent[only] = parent;
+            nodeX0[only] = nodeX0[node];
+            nodeY0[only] = nodeY0[node];
+            nodeSize[only] = nodeSize[node];
+            Arrays.fill(children, 4 * node, 4 * node + 4, NONE);
+            deadNodeCount++;
+            node = parent;
+        }
+    }
+
+    /**
+     * Detaches a child from its parent, and marks it dead: an internal node with no children, that is unreachable
+     * from the root.
+     */
+    private void detach(int parent, int child) {
+        for (int q = 0; q < 4; q++) {
+            if (children[4 * parent + q] == child) children[4 * parent + q] = NONE;
+        }
+        leafPoint[child] = NONE;
+        Arrays.fill(children, 4 * child, 4 * child + 4, NONE);
+        deadNodeCount++;
+    }
+
+    private void insertPoints() {
+        if (!computeExtent()) return;
+        for (int i = 0; i < pointCount; i++) insert(i);
+    }
+
+    private boolean computeExtent() {
+        double xMin = Double.MAX_VALUE; double yMin = xMin; double xMax = -xMin; double yMax = xMax;
+
+        // Compute the extent of the valid points
+        for (int i = 0; i < pointCount; i++) {
+            double x = pointX[i], y = pointY[i];
+            if (Double.isNaN(x) || Double.isNaN(y)) continue;
+            if (x < xMin) xMin = x;
+            if (x > xMax) xMax = x;
+            if (y < yMin) yMin = y;
+            if (y > yMax) yMax = y;
+        }
+
+        // If there were no (valid) points, leave the tree empty
+        if (xMin > xMax || yMin > yMax) return false;
+
+        // Integer extents are necessary so that when we double the extent, the quadrant boundaries don't change
+        // due to floating-point errors
+        x0 = Math.floor(xMin); y0 = Math.floor(yMin);
+        double z = 1;
+        while (xMax >= x0 + z || yMax >= y0 + z) z *= 2;
+        x1 = x0 + z; y1 = y0 + z;
+        return true;
+    }
+
+    private void insert(int point) {
+        double x = pointX[point], y = pointY[point];
+        if (Double.isNaN(x) || Double.isNaN(y)) return; // ignore invalid points
+        pointNext[point] = NONE;
+
+        // If the tree is empty, initialise the root as a leaf
+        if (nodeCount == 0) {
+            newLeaf(point);
+            if (isLinked) {
+                nodeParent[0] = NONE;
+                nodeX0[0] = x0;
+                nodeY0[0] = y0;
+                nodeSize[0] = x1 - x0;
+            }
+            return;
+        }
+
+        int node = 0;
+        double _x0 = x0, _y0 = y0, _x1 = x1, _y1 = y1;
+        double xm, ym;
+        int i;
+
+        // Find the existing leaf for the new point, or add it
+        while (leafPoint[node] == NONE) {
+            xm = (_x0 + _x1) / 2; ym = (_y0 + _y1) / 2;
+            i = quadrant(x, y, xm, ym);
+            if (x >= xm) _x0 = xm; else _x1 = xm;
+            if (y >= ym) _y0 = ym; else _y1 = ym;
+            int child = children[4 * node + i];
+            if (child == NONE) {
+                link(node, i, newLeaf(point));
+                return;
+            }
+            node = child;
+        }
+
+        // Is the new point exactly coincident with the existing point?
+        int existing = leafPoint[node];
+        double xp = pointX[existing], yp = pointY[existing];
+        if (x == xp && y == yp) {
+            pointNext[point] = existing;
+            leafPoint[node] = point;
+            if (isLinked) pointLeaf[point] = node;
+            return;
+        }
+
+        // Otherwise, split the leaf node in place until the old and new points are separated
+        int j;
+        leafPoint[node] = NONE;
+        while (true) {
+            xm = (_x0 + _x1) / 2; ym = (_y0 + _y1) / 2;
+            i = quadrant(x, y, xm, ym);
+            j = quadrant(xp, yp, xm, ym);
+            if (i != j) break;
+            if (x >= xm) _x0 = xm; else _x1 = xm;
+            if (y >= ym) _y0 = ym; else _y1 = ym;
+            int child = newInternal();
+            link(node, i, child);
+            node = child;
+        }
+        int existingLeaf = newLeaf(existing);
+        link(node, j, existingLeaf);
+        if (isLinked) {
+            for (int p = existing; p != NONE; p = pointNext[p]) pointLeaf[p] = existingLeaf;
+        }
+        link(node, i, newLeaf(point));
+    }
+
+    private static int quadrant(double x, double y, double xm, double ym) {
+        if (y < ym) return x < xm ? 0 : 1;
+        else return x < xm ? 2 : 3;
+    }
+
+    private int newLeaf(int point) {
+        int node = newNode();
+        leafPoint[node] = point;
+        if (isLinked) pointLeaf[point] = node;
+        return node;
+    }
+
+    private int newInternal() {
+        int node = newNode();
+        leafPoint[node] = NONE;
+        return node;
+    }
+
+    private int newNode() {
+        ensureNodeCapacity(nodeCount + 1);
+        int node = nodeCount++;
+        Arrays.fill(children, 4 * node, 4 * node + 4, NONE);
+        return node;
+    }
+
+    private void ensureNodeCapacity(int capacity) {
+        if (capacity <= leafPoint.length) return;
+        int newCapacity = Math.max(capacity, leafPoint.length * 2);
+        leafPoint = Arrays.copyOf(leafPoint, newCapacity);
+        children = Arrays.copyOf(children, 4 * newCapacity);
+        if (isLinked) ensureLinkCapacity();
+    }
+
+    private void ensurePointCapacity(int capacity) {
+        if (capacity <= pointX.length) return;
+        int newCapacity = Math.max(capacity, pointX.length * 2);
+        pointX = Arrays.copyOf(pointX, newCapacity);
+        pointY = Arrays.copyOf(pointY, newCapacity);
+        pointNext = Arrays.copyOf(pointNext, newCapacity);
+    }
+
+    /**
+     * Visits each node in pre-order, passing its bounds. If the visitor returns true, the node's children are not
+     * visited. Traversal state is kept per thread, so concurrent traversals of the same tree are safe.
+     *
+     * @return the number of nodes visited
+     */
+    public int visit(Visitor visitor) {
+        if (nodeCount == 0) return 0;
+        Traversal stack = traversals.get();
+        stack.push(0, x0, y0, x1, y1);
+        int visits = 0;
+        while (stack.size > 0) {
+            visits++;
+            int top = --stack.size;
+            int node = stack.nodes[top];
+            double qx0 = stack.bounds[4 * top], qy0 = stack.bounds[4 * top + 1];
+            double qx1 = stack.bounds[4 * top + 2], qy1 = stack.bounds[4 * top + 3];
+            if (!visitor.visit(node, qx0, qy0, qx1, qy1) && leafPoint[node] == NONE) {
+                double xm = (qx0 + qx1) / 2; double ym = (qy0 + qy1) / 2;
+                int c = 4 * node;
+                if (children[c + 3] != NONE) stack.push(children[c + 3], xm, ym, qx1, qy1);
+                if (children[c + 2] != NONE) stack.push(children[c + 2], qx0, ym, xm, qy1);
+                if (children[c + 1] != NONE) stack.push(children[c + 1], xm, qy0, qx1, ym);
+                if (children[c] != NONE) stack.push(children[c], qx0, qy0, xm, ym);
+            }
+        }
+        return visits;
+    }
+
+    /**
+     * Visits each node after all of its children.
+     */
+    public void visitAfter(IntConsumer visitor) {
+        for (int node = nodeCount - 1; node >= 0; node--) visitor.accept(node);
+    }
+
+    /**
+     * Returns the number of node slots in use, including the dead nodes left by refitting. Node indices range from 0
+     * to this count.
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the number of nodes reachable from the root, excluding the dead nodes left by refitting.
+     */
+    public int liveNodeCount() {
+        return nodeCount - deadNodeCount;
+    }
+
+    public int pointCount() {
+        return pointCount;
+    }
+
+    /**
+     * Returns the number of levels below the root of the deepest node, or -1 if the tree is empty. This takes a pass
+     * over every node.
+     */
+    public int depth() {
+        if (nodeCount == 0) return -1;
+        if (nodeDepths.length < nodeCount) nodeDepths = new int[Math.max(nodeCount, 2 * nodeDepths.length)];
+        Arrays.fill(nodeDepths, 0, nodeCount, NONE);
+        nodeDepths[0] = 0;
+        int depth = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            if (nodeDepths[node] == NONE || leafPoint[node] != NONE) continue; // dead nodes are unreachable
+            for (int i = 0; i < 4; i++) {
+                int child = children[4 * node + i];
+                if (child == NONE) continue;
+                nodeDepths[child] = nodeDepths[node] + 1;
+                depth = Math.max(depth, nodeDepths[child]);
+            }
+        }
+        return depth;
+    }
+
+    public boolean isLeaf(int node) {
+        return leafPoint[node] != NONE;
+    }
+
+    /**
+     * Returns the child of the given node in the given quadrant, or a negative value if there is none.
+     */
+    public int child(int node, int quadrant) {
+        return children[4 * node + quadrant];
+    }
+
+    /**
+     * Returns the first point of a leaf node, or a negative value for internal nodes.
+     */
+    public int point(int node) {
+        return leafPoint[node];
+    }
+
+    /**
+     * Returns the next point coincident with the given point, or a negative value if there is none.
+     */
+    public int nextPoint(int point) {
+        return pointNext[point];
+    }
+
+    public double pointX(int point) {
+        return pointX[point];
+    }
+
+    public double pointY(int point) {
+        return pointY[point];
+    }
+
+    public double x0() {
+        return x0;
+    }
+
+    public double y0() {
+        return y0;
+    }
+
+    public double x1() {
+        return x1;
+    }
+
+    public double y1() {
+        return y1;
+    }
+
+    public interface Visitor {
+        boolean visit(int node, double x0, double y0, double x1, double y1);
+    }
+
+    private static class Traversal {
+        int[] nodes = new int[64];
+        double[] bounds = new double[4 * 64];
+        int size = 0;
+
+        void push(int node, double x0, double y0, double x1, double y1) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                bounds = Arrays.copyOf(bounds, 4 * size * 2);
+            }
+            nodes[size] = node;
+            bounds[4 * size] = x0;
+            bounds[4 * size + 1] = y0;
+            bounds[4 * size + 2] = x1;
+            bounds[4 * size + 3] = y1;
+            size++;
+        }
+    }
+}
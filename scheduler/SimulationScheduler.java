@@ -0,0 +1,379 @@
+package com.typedb.force.graph.scheduler;
+
+import com.typedb.force.graph.api.Simulation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs many simulations concurrently on a fixed number of worker threads, one tick at a time. A simulation is never
+ * ticked by two workers at once; after each tick it goes to the back of the queue, so a simulation with a slow tick
+ * occupies at most one worker and cannot starve the others.
+ * <p>
+ * With {@link Policy#ROUND_ROBIN}, ready simulations are ticked in the order they became ready. With
+ * {@link Policy#EARLIEST_DEADLINE}, each tick of a rate-limited simulation is due one tick interval after it became
+ * ready, and the simulation with the earliest due tick goes first. Simulations without a rate limit are due as soon
+ * as they are ready.
+ * <p>
+ * A simulation whose alpha has decayed to its alphaMin is parked and no longer ticked, until it is woken with
+ * {@link Task#wake()}, typically after reheating it with {@link Simulation#setAlpha(double)}.
+ * <p>
+ * Simulations that are scheduled here should usually be created with a parallelism of 1, since the scheduler
+ * already provides the parallelism across simulations.
+ */
+public class SimulationScheduler implements AutoCloseable {
+    private final Policy policy;
+    private final ReentrantLock lock;
+    private final Condition changed;
+    private final Condition stopped;
+    private final PriorityQueue<Task> ready;
+    private final PriorityQueue<Task> delayed;
+    private final List<Thread> workers;
+    private final long startNanos;
+    private long readySequence;
+    private long tickCount;
+    private boolean isClosed;
+
+    public SimulationScheduler(int workerCount) {
+        this(workerCount, Policy.ROUND_ROBIN);
+    }
+
+    public SimulationScheduler(int workerCount, Policy policy) {
+        if (workerCount < 1) throw new IllegalArgumentException("The worker count must be at least 1.");
+        this.policy = requireNonNull(policy);
+        lock = new ReentrantLock();
+        changed = lock.newCondition();
+        stopped = lock.newCondition();
+        Comparator<Task> order = policy == Policy.ROUND_ROBIN
+                ? Comparator.comparingLong(task -> task.sequence)
+                : Comparator.<Task>comparingLong(task -> task.deadlineNanos).thenComparingLong(task -> task.sequence);
+        ready = new PriorityQueue<>(order);
+        delayed = new PriorityQueue<>(Comparator.comparingLong(task -> task.eligibleNanos));
+        startNanos = System.nanoTime();
+        workers = new ArrayList<>();
+        for (int w = 0; w < workerCount; w++) {
+            Thread worker = new Thread(this::work, "simulation-scheduler-" + w);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+        workers.forEach(Thread::start);
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Schedules a simulation to be ticked as often as the workers allow.
+     */
+    public Task submit(Simulation simulation) {
+        return submit(simulation, 0);
+    }
+
+    /**
+     * Schedules a simulation to be ticked at most the given number of times per second. A rate of 0 or less sets no
+     * limit.
+     */
+    public Task submit(Simulation simulation, double maxTicksPerSecond) {
+        Task task = new Task(requireNonNull(simulation), maxTicksPerSecond > 0 ? (long) (1e9 / maxTicksPerSecond) : 0);
+        lock.lock();
+        try {
+            if (isClosed) throw new IllegalStateException("The scheduler has been closed.");
+            if (isSettled(simulation)) task.state = State.PARKED;
+            else enqueue(task, System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+        return task;
+    }
+
+    /**
+     * Returns the number of ticks run across all simulations.
+     */
+    public long getTickCount() {
+        lock.lock();
+        try {
+            return tickCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the average number of ticks run per second, across all simulations, since the scheduler was created.
+     */
+    public double getThroughput() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds > 0 ? getTickCount() / seconds : 0;
+    }
+
+    /**
+     * Stops the workers once their current ticks are done, and cancels every queued or running simulation. Scheduled
+     * simulations are not closed.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            isClosed = true;
+            ready.forEach(task -> task.state = State.CANCELLED);
+            delayed.forEach(task -> task.state = State.CANCELLED);
+            ready.clear();
+            delayed.clear();
+            changed.signalAll();
+            stopped.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Task task;
+            lock.lock();
+            try {
+                task = next();
+                if (task == null) return;
+                task.state = State.RUNNING;
+            } finally {
+                lock.unlock();
+            }
+
+            long start = System.nanoTime();
+            Throwable failure = null;
+            try {
+                task.simulation.tick();
+            } catch (Throwable e) {
+                failure = e;
+            }
+            long end = System.nanoTime();
+
+            lock.lock();
+            try {
+                tickCount++;
+                task.record(start, end);
+                if (failure != null) {
+                    task.failure = failure;
+                    task.state = State.FAILED;
+                } else if (isClosed) {
+                    task.state = State.CANCELLED;
+                } else if (task.state != State.CANCELLED) {
+                    if (isSettled(task.simulation)) task.state = State.PARKED;
+                    else enqueue(task, Math.max(end, start + task.intervalNanos));
+                }
+                if (task.state != State.QUEUED) stopped.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Waits for the next simulation that is due, and returns it, or returns null once the scheduler is closed.
+     */
+    private Task next() {
+        while (!isClosed) {
+            long now = System.nanoTime();
+            while (!delayed.isEmpty() && delayed.peek().eligibleNanos <= now) markReady(delayed.poll());
+            Task task = ready.poll();
+            if (task != null) {
+                task.queueDelayNanos += now - task.eligibleNanos;
+                return task;
+            }
+            try {
+                if (delayed.isEmpty()) changed.await();
+                else changed.awaitNanos(delayed.peek().eligibleNanos - now);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private void enqueue(Task task, long eligibleNanos) {
+        task.eligibleNanos = eligibleNanos;
+        task.state = State.QUEUED;
+        if (eligibleNanos <= System.nanoTime()) markReady(task);
+        else delayed.add(task);
+        changed.signal();
+    }
+
+    private void markReady(Task task) {
+        task.sequence = readySequence++;
+        task.deadlineNanos = task.eligibleNanos + task.intervalNanos;
+        ready.add(task);
+    }
+
+    private static boolean isSettled(Simulation simulation) {
+        return simulation.getAlpha() <= simulation.getAlphaMin();
+    }
+
+    public enum Policy {
+        ROUND_ROBIN, EARLIEST_DEADLINE
+    }
+
+    public enum State {
+        QUEUED, RUNNING, PARKED, CANCELLED, FAILED
+    }
+
+    /**
+     * A simulation's place in the scheduler, and its tick statistics.
+     */
+    public class Task {
+        private final Simulation simulation;
+        private final long intervalNanos;
+        private State state;
+        private long eligibleNanos;
+        private long deadlineNanos;
+        private long sequence;
+        private long ticks;
+        private long tickNanos;
+        private long maxTickNanos;
+        private long queueDelayNanos;
+        private Throwable failure;
+
+        private Task(Simulation simulation, long intervalNanos) {
+            this.simulation = simulation;
+            this.intervalNanos = intervalNanos;
+        }
+
+        private void record(long start, long end) {
+            ticks++;
+            tickNanos += end - start;
+            maxTickNanos = Math.max(maxTickNanos, end - start);
+        }
+
+        public Simulation simulation() {
+            return simulation;
+        }
+
+        public State getState() {
+            lock.lock();
+            try {
+                return state;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Returns the exception thrown by the simulation's last tick, if the task has failed.
+         */
+        public Throwable getFailure() {
+            lock.lock();
+            try {
+                return failure;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public long getTickCount() {
+            lock.lock();
+            try {
+                return ticks;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Returns the mean time taken by one tick of this simulation.
+         */
+        public Duration getMeanTickTime() {
+            lock.lock();
+            try {
+                return Duration.ofNanos(ticks == 0 ? 0 : tickNanos / ticks);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public Duration getMaxTickTime() {
+            lock.lock();
+            try {
+                return Duration.ofNanos(maxTickNanos);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Returns the mean time this simulation waited for a worker once its next tick was allowed to start.
+         */
+        public Duration getMeanQueueDelay() {
+            lock.lock();
+            try {
+                return Duration.ofNanos(ticks == 0 ? 0 : queueDelayNanos / ticks);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Schedules a parked simulation again. Has no effect unless the simulation is parked and its alpha is above
+         * its alphaMin.
+         */
+        public void wake() {
+            lock.lock();
+            try {
+                if (isClosed || state != State.PARKED || isSettled(simulation)) return;
+                enqueue(this, System.nanoTime());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Removes the simulation from the scheduler. A tick that is already running is allowed to finish.
+         */
+        public void cancel() {
+            lock.lock();
+            try {
+                if (state == State.QUEUED) {
+                    ready.remove(this);
+                    delayed.remove(this);
+                }
+                state = State.CANCELLED;
+                stopped.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Waits until the simulation is parked, cancelled or failed, or until the timeout elapses. Returns whether it
+         * stopped in time.
+         */
+        public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            long remaining = unit.toNanos(timeout);
+            lock.lock();
+            try {
+                while (state == State.QUEUED || state == State.RUNNING) {
+                    if (remaining <= 0) return false;
+                    remaining = stopped.awaitNanos(remaining);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.typedb.force.graph.util;
+
+public class MortonCode {
+    private static final int BITS_PER_AXIS = 16;
+    private static final int CELLS_PER_AXIS = 1 << BITS_PER_AXIS;
+
+    /**
+     * Returns the Z-order index of a point within the square with the given origin and side length, at a resolution
+     * of 2^16 cells per axis. Points outside the square are clamped to its edges. The index uses all 32 bits, so
+     * indices must be compared as unsigned.
+     */
+    public static int encode(double x, double y, double x0, double y0, double size) {
+        return spread(cell(x, x0, size)) | (spread(cell(y, y0, size)) << 1);
+    }
+
+    private static int cell(double value, double origin, double size) {
+        double scaled = size > 0 ? (value - origin) / size * CELLS_PER_AXIS : 0;
+        if (!(scaled > 0)) return 0; // also catches NaN
+        return (int) Math.min(scaled, CELLS_PER_AXIS - 1);
+    }
+
+    /**
+     * Spreads the low 16 bits of the value so that there is a zero bit between each of them.
+     */
+    private static int spread(int value) {
+        value &= 0x0000FFFF;
+        value = (value | (value << 8)) & 0x00FF00FF;
+        value = (value | (value << 4)) & 0x0F0F0F0F;
+        value = (value | (value << 2)) & 0x33333333;
+        value = (value | (value << 1)) & 0x55555555;
+        return value;
+    }
+}